@@ -0,0 +1,65 @@
+package io.github.urusso.easyhttpclient;
+
+import io.github.urusso.easyhttpclient.constant.BatchOrder;
+
+/**
+ * Options of {@link EasyHttpClient#sendBatch}: how many requests can be in flight at the same time
+ * and the order of the results.
+ */
+public class BatchOptions {
+    private final int maxInFlight;
+    private final BatchOrder order;
+
+    private BatchOptions(int maxInFlight, BatchOrder order) {
+        if(maxInFlight < 1)
+            throw new IllegalArgumentException("maxInFlight must be at least 1");
+        if(order == null)
+            throw new IllegalArgumentException("BatchOrder can't be null");
+
+        this.maxInFlight = maxInFlight;
+        this.order = order;
+    }
+
+    /**
+     * @return options with at most 16 requests in flight and results in input order
+     */
+    public static BatchOptions defaults() {
+        return builder().build();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    public BatchOrder getOrder() {
+        return order;
+    }
+
+    //*******************************************
+    //***************** BUILDER *****************
+    //*******************************************
+    public static class Builder {
+        private int maxInFlight = 16;
+        private BatchOrder order = BatchOrder.INPUT;
+
+        private Builder() {}
+
+        public Builder maxInFlight(int maxInFlight) {
+            this.maxInFlight = maxInFlight;
+            return this;
+        }
+
+        public Builder order(BatchOrder order) {
+            this.order = order;
+            return this;
+        }
+
+        public BatchOptions build() {
+            return new BatchOptions(maxInFlight, order);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package io.github.urusso.easyhttpclient;
+
+import io.github.urusso.easyhttpclient.constant.BatchOrder;
+import io.github.urusso.easyhttpclient.dto.BatchResult;
+import io.github.urusso.easyhttpclient.utils.Futures;
+
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+/**
+ * Sends the requests of a batch keeping at most {@link BatchOptions#getMaxInFlight()} of them in flight:
+ * every completed call starts the next request. A failed call is captured in its {@link BatchResult}
+ * and doesn't stop the batch.
+ */
+final class BatchSender<T> {
+    private final List<EasyHttpRequest> requests;
+    private final Function<EasyHttpRequest, CompletableFuture<HttpResponse<T>>> sender;
+    private final BatchOptions options;
+    private final Consumer<? super BatchResult<T>> onResult;
+
+    private final AtomicInteger nextIndex = new AtomicInteger();
+    private final AtomicInteger remaining;
+    private final BatchResult<T>[] byIndex;
+    private final List<BatchResult<T>> byCompletion;
+    private final CompletableFuture<List<BatchResult<T>>> result = new CompletableFuture<>();
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    BatchSender(Collection<EasyHttpRequest> requests, Function<EasyHttpRequest, CompletableFuture<HttpResponse<T>>> sender,
+                BatchOptions options, Consumer<? super BatchResult<T>> onResult) {
+        this.requests = List.copyOf(requests);
+        this.sender = sender;
+        this.options = options;
+        this.onResult = onResult;
+        this.remaining = new AtomicInteger(this.requests.size());
+        this.byIndex = new BatchResult[this.requests.size()];
+        this.byCompletion = new ArrayList<>(this.requests.size());
+    }
+
+    /**
+     * Starts the first requests of the batch
+     *
+     * @return {@link CompletableFuture} completed with all the results. Cancelling it stops sending new requests.
+     */
+    CompletableFuture<List<BatchResult<T>>> start() {
+        if (requests.isEmpty()) {
+            result.complete(List.of());
+            return result;
+        }
+
+        int initial = Math.min(options.getMaxInFlight(), requests.size());
+        for (int i = 0; i < initial; i++)
+            sendNext();
+
+        return result;
+    }
+
+    /**
+     * Sends the next request of the batch. Calls that are already completed when they return (like requests
+     * that can't be converted) are handled in the loop instead of recursively, so they can't overflow the stack.
+     */
+    private void sendNext() {
+        while (!result.isDone()) {
+            int index = nextIndex.getAndIncrement();
+            if (index >= requests.size())
+                return;
+
+            EasyHttpRequest request = requests.get(index);
+            CompletableFuture<HttpResponse<T>> call;
+            try {
+                call = sender.apply(request);
+            } catch (RuntimeException e) {
+                call = CompletableFuture.failedFuture(e);
+            }
+
+            if (!call.isDone()) {
+                call.whenComplete((response, error) -> {
+                    complete(index, request, response, error);
+                    sendNext();
+                });
+                return;
+            }
+
+            call.handle((response, error) -> {
+                complete(index, request, response, error);
+                return null;
+            });
+        }
+    }
+
+    private void complete(int index, EasyHttpRequest request, HttpResponse<T> response, Throwable error) {
+        var batchResult = new BatchResult<>(index, request, error == null ? response : null, Futures.unwrap(error));
+
+        // Results are published one at a time, so the consumer sees them in the same order as the returned list
+        synchronized (byCompletion) {
+            byIndex[index] = batchResult;
+            byCompletion.add(batchResult);
+            if (onResult != null) {
+                try {
+                    onResult.accept(batchResult);
+                } catch (RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+            }
+        }
+
+        if (remaining.decrementAndGet() == 0)
+            result.complete(List.copyOf(options.getOrder() == BatchOrder.INPUT ? Arrays.asList(byIndex) : byCompletion));
+    }
+}
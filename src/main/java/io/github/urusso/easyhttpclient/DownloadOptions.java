@@ -0,0 +1,152 @@
+package io.github.urusso.easyhttpclient;
+
+import io.github.urusso.easyhttpclient.interfaces.DownloadListener;
+
+import java.nio.file.Path;
+
+/**
+ * Options of {@link EasyHttpClient#download}: where the body is saved, whether a partial download is resumed,
+ * in how many ranges the file is fetched and who is told about the progress.
+ */
+public class DownloadOptions {
+    private final Path file;
+    private final Path directory;
+    private final boolean resume;
+    private final int segments;
+    private final int segmentAttempts;
+    private final String sha256;
+    private final DownloadListener listener;
+
+    private DownloadOptions(Path file, Path directory, boolean resume, int segments, int segmentAttempts,
+                            String sha256, DownloadListener listener) {
+        if((file == null) == (directory == null))
+            throw new IllegalArgumentException("Either a file or a directory must be set");
+        if(resume && file == null)
+            throw new IllegalArgumentException("Only a download to a file can be resumed");
+        if(segments < 1)
+            throw new IllegalArgumentException("Segments must be at least 1");
+        if(segmentAttempts < 1)
+            throw new IllegalArgumentException("Segment attempts must be at least 1");
+        if(resume && segments > 1)
+            throw new IllegalArgumentException("A segmented download can't be resumed");
+        if(sha256 != null && !sha256.matches("[0-9a-fA-F]{64}"))
+            throw new IllegalArgumentException("SHA-256 must be 64 hex digits");
+
+        this.file = file;
+        this.directory = directory;
+        this.resume = resume;
+        this.segments = segments;
+        this.segmentAttempts = segmentAttempts;
+        this.sha256 = sha256;
+        this.listener = listener;
+    }
+
+    /**
+     * @param file {@link Path} the body is saved to, replacing it if it exists
+     * @return {@link Builder}
+     */
+    public static Builder toFile(Path file) {
+        return new Builder(file, null);
+    }
+
+    /**
+     * @param directory {@link Path} of the directory the body is saved in, named after the last segment of the URL.
+     * A number is added to the name when a file with the same name already exists. When resuming, the name of the
+     * partial file left by a failed download is picked again.
+     * @return {@link Builder}
+     */
+    public static Builder toDirectory(Path directory) {
+        return new Builder(null, directory);
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public Path getDirectory() {
+        return directory;
+    }
+
+    public boolean isResume() {
+        return resume;
+    }
+
+    public int getSegments() {
+        return segments;
+    }
+
+    public int getSegmentAttempts() {
+        return segmentAttempts;
+    }
+
+    public String getSha256() {
+        return sha256;
+    }
+
+    public DownloadListener getListener() {
+        return listener;
+    }
+
+    //*******************************************
+    //***************** BUILDER *****************
+    //*******************************************
+    public static class Builder {
+        private final Path file;
+        private final Path directory;
+        private boolean resume;
+        private int segments = 1;
+        private int segmentAttempts = 3;
+        private String sha256;
+        private DownloadListener listener;
+
+        private Builder(Path file, Path directory) {
+            this.file = file;
+            this.directory = directory;
+        }
+
+        /**
+         * Keeps the partial file of a failed download and, on the next download to the same file, asks the server only
+         * for the missing bytes with a Range request. Off by default.
+         */
+        public Builder resume() {
+            this.resume = true;
+            return this;
+        }
+
+        /**
+         * Fetches the file in the given number of byte ranges at the same time, each on its own connection.
+         * A HEAD request checks first that the server accepts ranges, otherwise the file is downloaded with a single
+         * request. Default 1.
+         */
+        public Builder segments(int segments) {
+            this.segments = segments;
+            return this;
+        }
+
+        /**
+         * Times a segment is asked before the download fails, each attempt asking only the bytes still missing.
+         * Default 3.
+         */
+        public Builder segmentAttempts(int segmentAttempts) {
+            this.segmentAttempts = segmentAttempts;
+            return this;
+        }
+
+        /**
+         * Hex SHA-256 the segmented download is checked against before it's moved to the target. Default none.
+         */
+        public Builder sha256(String sha256) {
+            this.sha256 = sha256;
+            return this;
+        }
+
+        public Builder listener(DownloadListener listener) {
+            this.listener = listener;
+            return this;
+        }
+
+        public DownloadOptions build() {
+            return new DownloadOptions(file, directory, resume, segments, segmentAttempts, sha256, listener);
+        }
+    }
+}
@@ -1,62 +1,142 @@
 package io.github.urusso.easyhttpclient;
 
+import io.github.urusso.easyhttpclient.cache.ResponseCache;
+import io.github.urusso.easyhttpclient.constant.Headers;
+import io.github.urusso.easyhttpclient.dto.BatchResult;
+import io.github.urusso.easyhttpclient.dto.Body;
 import io.github.urusso.easyhttpclient.exception.HttpCallException;
 import io.github.urusso.easyhttpclient.exception.MalformedUriException;
+import io.github.urusso.easyhttpclient.exchange.AdaptiveLimitedExchange;
+import io.github.urusso.easyhttpclient.exchange.CachingExchange;
+import io.github.urusso.easyhttpclient.exchange.CircuitBreakerExchange;
+import io.github.urusso.easyhttpclient.exchange.CoalescingExchange;
+import io.github.urusso.easyhttpclient.exchange.HedgingExchange;
+import io.github.urusso.easyhttpclient.exchange.HostLimitedExchange;
+import io.github.urusso.easyhttpclient.exchange.HttpClientExchange;
+import io.github.urusso.easyhttpclient.exchange.RetryingExchange;
 import io.github.urusso.easyhttpclient.interfaces.EasySerializer;
+import io.github.urusso.easyhttpclient.interfaces.Exchange;
+import io.github.urusso.easyhttpclient.policy.AdaptiveLimiter;
+import io.github.urusso.easyhttpclient.policy.CircuitBreaker;
+import io.github.urusso.easyhttpclient.policy.HedgePolicy;
+import io.github.urusso.easyhttpclient.policy.HostLimiter;
+import io.github.urusso.easyhttpclient.policy.RetryPolicy;
 import io.github.urusso.easyhttpclient.serializer.EasyJacksonSerializer;
+import io.github.urusso.easyhttpclient.utils.BufferPool;
 import io.github.urusso.easyhttpclient.utils.EasyBodyHandler;
+import io.github.urusso.easyhttpclient.utils.ExecutorFuture;
+import io.github.urusso.easyhttpclient.utils.FileDownloadHandler;
+import io.github.urusso.easyhttpclient.utils.FileNames;
+import io.github.urusso.easyhttpclient.utils.PooledBody;
+import io.github.urusso.easyhttpclient.utils.UrlTemplate;
 
 import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLParameters;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.*;
 import java.net.http.HttpClient;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
-import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Flow;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
 
 public class EasyHttpClient {
     private final HttpClient httpClient;
+    private final Exchange exchange;
+    private final Exchange streamingExchange;
     private final EasyBodyHandler easyBodyHandler;
+    private final Executor completionExecutor;
+    private final int gzipMinBytes;
 
     private EasyHttpClient(EasySerializer serializer) {
         this.httpClient = HttpClient.newHttpClient();
+        this.exchange = new HttpClientExchange(httpClient);
+        this.streamingExchange = exchange;
         this.easyBodyHandler = new EasyBodyHandler(serializer);
+        this.completionExecutor = null;
+        this.gzipMinBytes = -1;
     }
 
-    private EasyHttpClient(Duration connectTimeout, HttpClient.Redirect followRedirects, ProxySelector proxy,
-                           SSLContext sslContext, SSLParameters sslParameters, Authenticator authenticator,
-                           HttpClient.Version version, Executor executor, CookieHandler cookieHandler,
-                           EasySerializer serializer) {
-
+    private EasyHttpClient(Builder builder) {
         var clientBuilder = HttpClient.newBuilder();
 
-        if(connectTimeout != null)
-            clientBuilder.connectTimeout(connectTimeout);
-        if(followRedirects != null)
-            clientBuilder.followRedirects(followRedirects);
-        if(proxy != null)
-            clientBuilder.proxy(proxy);
-        if(sslContext != null)
-            clientBuilder.sslContext(sslContext);
-        if(sslParameters != null)
-            clientBuilder.sslParameters(sslParameters);
-        if(authenticator != null)
-            clientBuilder.authenticator(authenticator);
-        if(version != null)
-            clientBuilder.version(version);
-        if(executor != null)
-            clientBuilder.executor(executor);
-        if(cookieHandler != null)
-            clientBuilder.cookieHandler(cookieHandler);
+        if(builder.connectTimeout != null)
+            clientBuilder.connectTimeout(builder.connectTimeout);
+        if(builder.followRedirects != null)
+            clientBuilder.followRedirects(builder.followRedirects);
+        if(builder.proxy != null)
+            clientBuilder.proxy(builder.proxy);
+        if(builder.sslContext != null)
+            clientBuilder.sslContext(builder.sslContext);
+        if(builder.sslParameters != null)
+            clientBuilder.sslParameters(builder.sslParameters);
+        if(builder.authenticator != null)
+            clientBuilder.authenticator(builder.authenticator);
+        if(builder.version != null)
+            clientBuilder.version(builder.version);
+        if(builder.executor != null)
+            clientBuilder.executor(builder.executor);
+        if(builder.cookieHandler != null)
+            clientBuilder.cookieHandler(builder.cookieHandler);
 
         this.httpClient = clientBuilder.build();
-        this.easyBodyHandler = new EasyBodyHandler(serializer);
+        this.easyBodyHandler = new EasyBodyHandler(builder.serializer, builder.decompressResponses, builder.formats,
+                builder.bufferPool);
+        this.exchange = buildExchange(httpClient, easyBodyHandler, builder, false);
+        this.streamingExchange = buildExchange(httpClient, easyBodyHandler, builder, true);
+        this.completionExecutor = builder.virtualThreads ? builder.executor : null;
+        this.gzipMinBytes = builder.gzipMinBytes;
+    }
+
+    /**
+     * Builds the pipeline of the configured policies. The outer step runs first: requests not served by the cache
+     * join an identical GET already in flight, if coalescing is on, the calls left are retried, every attempt of the
+     * retry can be hedged, each hedge fails right away if the circuit of its host is open, otherwise it's queued by
+     * host, then it takes a slot of the adaptive limiter right before being sent, so its latency doesn't include the queue.
+     * Downloads and streamed responses skip the cache and the coalescing, which hold the whole body in memory, and
+     * the hedging, whose attempts would write the same file or hand out a stream that's later cancelled.
+     *
+     * @param httpClient {@link HttpClient} sending the requests
+     * @param easyBodyHandler {@link EasyBodyHandler} telling which response bodies the coalesced requests can share
+     * @param builder {@link Builder} with the policies
+     * @param streaming true for the pipeline of the downloads and the streamed responses
+     * @return first {@link Exchange} of the pipeline
+     */
+    private static Exchange buildExchange(HttpClient httpClient, EasyBodyHandler easyBodyHandler, Builder builder,
+                                          boolean streaming) {
+        Exchange exchange = new HttpClientExchange(httpClient);
+
+        if(builder.adaptiveLimiter != null)
+            exchange = new AdaptiveLimitedExchange(exchange, builder.adaptiveLimiter);
+        if(builder.hostLimiter != null)
+            exchange = new HostLimitedExchange(exchange, builder.hostLimiter);
+        if(builder.circuitBreaker != null)
+            exchange = new CircuitBreakerExchange(exchange, builder.circuitBreaker);
+        if(builder.hedgePolicy != null && !streaming)
+            exchange = new HedgingExchange(exchange, builder.hedgePolicy);
+        if(builder.retryPolicy != null)
+            exchange = new RetryingExchange(exchange, builder.retryPolicy);
+        if(builder.coalesceRequests && !streaming)
+            exchange = new CoalescingExchange(exchange, easyBodyHandler::isShareable);
+        if(builder.responseCache != null && !streaming)
+            exchange = new CachingExchange(exchange, builder.responseCache);
+
+        return exchange;
     }
 
     public static EasyHttpClient defaultClient() {
@@ -80,16 +160,65 @@ public class EasyHttpClient {
      * @return {@link HttpResponse} containing a String with the body received
      */
     public <T> HttpResponse<T> send(EasyHttpRequest easyReq, Class<T> responseClass) {
-        HttpRequest request = convertRequest(easyReq);
+        return sendOnce(convertRequest(easyReq), easyBodyHandler.getResponseBodyHandler(responseClass));
+    }
+
+    /**
+     * Executes a synchronous HTTP call with a request that has already been converted
+     *
+     * @param prepared {@link PreparedEasyRequest} created by {@link #prepare(EasyHttpRequest)}
+     * @return {@link HttpResponse} containing the body received
+     */
+    public <T> HttpResponse<T> send(PreparedEasyRequest prepared, Class<T> responseClass) {
+        return send(prepared.getRequest(), responseClass);
+    }
 
+    /**
+     * Executes a synchronous HTTP call whose body is deserialized to a generic type
+     *
+     * @param easyReq {@link EasyHttpRequest} containing all the info to make the call
+     * @param responseType {@link EasyType} of the body, e.g. {@code new EasyType<List<SampleResponse>>() {}}
+     * @return {@link HttpResponse} containing the body received
+     */
+    public <T> HttpResponse<T> send(EasyHttpRequest easyReq, EasyType<T> responseType) {
+        return sendOnce(convertRequest(easyReq), easyBodyHandler.<T>getResponseBodyHandler(responseType.getType()));
+    }
+
+    /**
+     * Executes a synchronous HTTP call with a request that has already been converted, deserializing the body to a
+     * generic type
+     *
+     * @param prepared {@link PreparedEasyRequest} created by {@link #prepare(EasyHttpRequest)}
+     * @param responseType {@link EasyType} of the body
+     * @return {@link HttpResponse} containing the body received
+     */
+    public <T> HttpResponse<T> send(PreparedEasyRequest prepared, EasyType<T> responseType) {
+        return send(prepared.getRequest(), easyBodyHandler.<T>getResponseBodyHandler(responseType.getType()));
+    }
+
+    private <T> HttpResponse<T> send(HttpRequest request, Class<T> responseClass) {
+        return send(request, easyBodyHandler.getResponseBodyHandler(responseClass));
+    }
+
+    private <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) {
         try {
-            var bodyHandler = easyBodyHandler.getResponseBodyHandler(responseClass);
-            return httpClient.send(request, bodyHandler);
+            return exchange.send(request, bodyHandler);
         } catch (IOException | InterruptedException e) {
             throw new HttpCallException(e);
         }
     }
 
+    /**
+     * Sends a request converted for this call only, its pooled body buffers are released once the call is over
+     */
+    private <T> HttpResponse<T> sendOnce(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) {
+        try {
+            return send(request, bodyHandler);
+        } finally {
+            easyBodyHandler.releaseRequestBody(request);
+        }
+    }
+
     /**
      * Default method to execute a asynchronous HTTP call that has String for the response body
      *
@@ -107,152 +236,377 @@ public class EasyHttpClient {
      * @return {@link CompletableFuture} of the {@link HttpResponse}
      */
     public <T> CompletableFuture<HttpResponse<T>> sendAsync(EasyHttpRequest easyReq, Class<T> responseClass) {
-        HttpRequest request = convertRequest(easyReq);
+        return sendAsyncOnce(convertRequest(easyReq), easyBodyHandler.getResponseBodyHandler(responseClass));
+    }
 
-        var bodyHandler = easyBodyHandler.getResponseBodyHandler(responseClass);
-        return httpClient.sendAsync(request, bodyHandler);
+    /**
+     * Executes an asynchronous HTTP call with a request that has already been converted
+     *
+     * @param prepared {@link PreparedEasyRequest} created by {@link #prepare(EasyHttpRequest)}
+     * @return {@link CompletableFuture} of the {@link HttpResponse}
+     */
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(PreparedEasyRequest prepared, Class<T> responseClass) {
+        return sendAsync(prepared.getRequest(), responseClass);
     }
 
     /**
-     * Converts {@link EasyHttpRequest} to {@link HttpRequest}
+     * Executes an asynchronous HTTP call whose body is deserialized to a generic type
      *
-     * @param easyReq {@link EasyHttpRequest
-     * @return {@link HttpRequest}
+     * @param easyReq {@link EasyHttpRequest} containing all the info to make the call
+     * @param responseType {@link EasyType} of the body, e.g. {@code new EasyType<List<SampleResponse>>() {}}
+     * @return {@link CompletableFuture} of the {@link HttpResponse}
      */
-    private HttpRequest convertRequest(EasyHttpRequest easyReq) {
-        var requestBuilder = HttpRequest.newBuilder();
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(EasyHttpRequest easyReq, EasyType<T> responseType) {
+        return sendAsyncOnce(convertRequest(easyReq),
+                easyBodyHandler.<T>getResponseBodyHandler(responseType.getType()));
+    }
 
-        try {
-            requestBuilder.uri(getUri(easyReq));
-        } catch (IllegalArgumentException e) {
-            throw new MalformedUriException(e);
-        }
+    /**
+     * Executes an asynchronous HTTP call with a request that has already been converted, deserializing the body to a
+     * generic type
+     *
+     * @param prepared {@link PreparedEasyRequest} created by {@link #prepare(EasyHttpRequest)}
+     * @param responseType {@link EasyType} of the body
+     * @return {@link CompletableFuture} of the {@link HttpResponse}
+     */
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(PreparedEasyRequest prepared, EasyType<T> responseType) {
+        return sendAsync(prepared.getRequest(), easyBodyHandler.<T>getResponseBodyHandler(responseType.getType()));
+    }
 
-        setHttpMethod(requestBuilder, easyReq);
-        setHeaders(requestBuilder, easyReq.getHeaders());
+    private <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, Class<T> responseClass) {
+        return sendAsync(request, easyBodyHandler.getResponseBodyHandler(responseClass));
+    }
 
-        return requestBuilder.build();
+    private <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) {
+        var future = exchange.sendAsync(request, bodyHandler);
+
+        return completionExecutor != null ? ExecutorFuture.completeOn(future, completionExecutor) : future;
     }
 
     /**
-     * Manipulates the URL string for params to replace/add
+     * Sends a request converted for this call only, like {@link #sendOnce}
+     */
+    private <T> CompletableFuture<HttpResponse<T>> sendAsyncOnce(HttpRequest request,
+                                                                 HttpResponse.BodyHandler<T> bodyHandler) {
+        var future = exchange.sendAsync(request, bodyHandler);
+        future.whenComplete((response, error) -> easyBodyHandler.releaseRequestBody(request));
+
+        return completionExecutor != null ? ExecutorFuture.completeOn(future, completionExecutor) : future;
+    }
+
+    /**
+     * Executes a synchronous HTTP call whose body is a JSON array or newline-delimited JSON, parsing each element
+     * while its bytes are received. <br>
+     * The call returns once the headers arrive, the elements are parsed as the {@link Stream} is consumed and the next
+     * chunks are received only when the parser needs them, so the memory taken doesn't depend on the size of the body.
+     * The stream should be closed, e.g. with try-with-resources, to cancel the rest of the body when it isn't read
+     * till the end. Streamed responses skip the response cache, the coalescing and the hedging.
      *
-     * @param request {@link EasyHttpRequest}
-     * @return {@link URI} created with the manipulated String
+     * @param easyReq {@link EasyHttpRequest} containing all the info to make the call
+     * @param elementClass class of the elements
+     * @return {@link HttpResponse} with the {@link Stream} of the elements
      */
-    private static URI getUri(EasyHttpRequest request) {
-        String url = removeEndSlashes(request.getUrl());
-        url = replacePathParams(url, request.getPathParams());
-        url = addQueryParams(url, request.getQueryParams());
-        url = addFragment(url, request.getFragment());
+    public <T> HttpResponse<Stream<T>> sendStreaming(EasyHttpRequest easyReq, Class<T> elementClass) {
+        var request = convertRequest(easyReq);
+        try {
+            return streamingExchange.send(request, easyBodyHandler.getStreamingBodyHandler(elementClass));
+        } catch (IOException | InterruptedException e) {
+            throw new HttpCallException(e);
+        } finally {
+            easyBodyHandler.releaseRequestBody(request);
+        }
+    }
 
-        return URI.create(url);
+    /**
+     * Executes an asynchronous HTTP call whose body is parsed element by element, like
+     * {@link #sendStreaming(EasyHttpRequest, Class)}. The future completes once the headers arrive.
+     *
+     * @param easyReq {@link EasyHttpRequest} containing all the info to make the call
+     * @param elementClass class of the elements
+     * @return {@link CompletableFuture} of the {@link HttpResponse} with the {@link Stream} of the elements
+     */
+    public <T> CompletableFuture<HttpResponse<Stream<T>>> sendStreamingAsync(EasyHttpRequest easyReq,
+                                                                           Class<T> elementClass) {
+        var request = convertRequest(easyReq);
+        var future = streamingExchange.sendAsync(request, easyBodyHandler.getStreamingBodyHandler(elementClass));
+        future.whenComplete((response, error) -> easyBodyHandler.releaseRequestBody(request));
+
+        return completionExecutor != null ? ExecutorFuture.completeOn(future, completionExecutor) : future;
     }
 
     /**
-     * Add fragment to the URL, like
+     * Downloads the body to a file, streaming it to disk while it's received. Each download writes its own partial file
+     * and moves it to the target once complete, so many downloads can run in parallel. <br>
+     * The body is saved only for 200 and 206 responses, the others have a null body. <br>
+     * With {@link DownloadOptions#getSegments()} over 1 the file is fetched in byte ranges at the same time, see
+     * {@link DownloadOptions.Builder#segments(int)}.
      *
-     * @param url String to manipulate
-     * @param fragment String fragment to add
-     * @return fixed String URL
+     * @param easyReq {@link EasyHttpRequest} containing all the info to make the call
+     * @param options {@link DownloadOptions} with the target, the resume, the segments and the progress listener
+     * @return {@link HttpResponse} with the {@link Path} of the downloaded file
      */
-    private static String addFragment(String url, String fragment) {
-        if(fragment != null && !fragment.isBlank()) {
-            String encoded = encode(fragment);
-            return url.concat("#").concat(encoded);
+    public HttpResponse<Path> download(EasyHttpRequest easyReq, DownloadOptions options) {
+        Download download = null;
+        HttpResponse<Path> response = null;
+        try {
+            download = prepareDownload(easyReq, options);
+            if (options.getSegments() == 1) {
+                response = streamingExchange.send(download.request(), download.handler());
+                return response;
+            }
+
+            var future = new SegmentedDownload(streamingExchange, download.request(), download.target(), options).start();
+            try {
+                response = future.get();
+                return response;
+            } catch (InterruptedException e) {
+                future.cancel(true);
+                throw e;
+            }
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+            throw new HttpCallException(e.getCause());
+        } catch (IOException e) {
+            throw new HttpCallException(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HttpCallException(e);
+        } finally {
+            if (download != null) {
+                easyBodyHandler.releaseRequestBody(download.request());
+                if (response == null)
+                    download.discardReserved();
+            }
         }
-        return url;
     }
 
     /**
-     * Removes unnecessary end slashes. An URL like "blabla.com/api/user///" becomes "blabla.com/api/user"
+     * Downloads the body to a file asynchronously, like {@link #download(EasyHttpRequest, DownloadOptions)}
      *
-     * @param url String to manipulate
-     * @return fixed String URL
+     * @param easyReq {@link EasyHttpRequest} containing all the info to make the call
+     * @param options {@link DownloadOptions} with the target, the resume, the segments and the progress listener
+     * @return {@link CompletableFuture} of the {@link HttpResponse} with the {@link Path} of the downloaded file
      */
-    private static String removeEndSlashes(String url) {
-        int substringEnd = url.length();
-        for (int i = url.length() - 1; i >= 0; i--) {
-            if (url.charAt(i) == '/')
-                substringEnd -= 1;
-            else
-                break;
+    public CompletableFuture<HttpResponse<Path>> downloadAsync(EasyHttpRequest easyReq, DownloadOptions options) {
+        Download download;
+        try {
+            download = prepareDownload(easyReq, options);
+        } catch (IOException e) {
+            return CompletableFuture.failedFuture(new HttpCallException(e));
         }
+        var future = options.getSegments() == 1
+                ? streamingExchange.sendAsync(download.request(), download.handler())
+                : new SegmentedDownload(streamingExchange, download.request(), download.target(), options).start();
+        future.whenComplete((response, error) -> {
+            easyBodyHandler.releaseRequestBody(download.request());
+            if (error != null)
+                download.discardReserved();
+        });
+
+        return completionExecutor != null ? ExecutorFuture.completeOn(future, completionExecutor) : future;
+    }
+
+    /**
+     * Picks the target file and, when resuming, asks only for the bytes missing from the partial file.
+     * The body is asked without compression, so that the offsets of the Range match the bytes in the file. <br>
+     * In a directory the name is reserved by creating its partial file, which is kept only to be resumed.
+     */
+    private Download prepareDownload(EasyHttpRequest easyReq, DownloadOptions options) throws IOException {
+        boolean encodingSet = easyReq.getHeaders().keySet().stream()
+                .anyMatch(Headers.ACCEPT_ENCODING.code::equalsIgnoreCase);
+        var request = convertRequest(easyReq);
+        var builder = HttpRequest.newBuilder(request,
+                (name, value) -> encodingSet || !name.equalsIgnoreCase(Headers.ACCEPT_ENCODING.code));
+
+        Path target = options.getFile() != null
+                ? options.getFile()
+                : FileNames.reserve(options.getDirectory(), FileNames.fromUri(request.uri()), options.isResume());
+        Path partial = FileDownloadHandler.partialFile(target);
+        long offset = options.isResume() && Files.exists(partial) ? Files.size(partial) : 0;
+        if (offset > 0)
+            builder.header("Range", "bytes=" + offset + "-");
+
+        var handler = new FileDownloadHandler(target, offset, options.isResume(), options.getSha256(),
+                options.getListener());
+        Path reserved = options.getFile() == null && !options.isResume() ? partial : null;
+        return new Download(builder.build(), target, handler, reserved);
+    }
 
-        return url.substring(0, substringEnd);
+    /**
+     * @param reserved partial file created to reserve the name in a directory, null if it's kept to be resumed
+     */
+    private record Download(HttpRequest request, Path target, FileDownloadHandler handler, Path reserved) {
+        /**
+         * Deletes the partial file reserved for a download that failed before its body was handled, e.g. because the
+         * host was unreachable. {@link FileDownloadHandler} deletes it for the responses it doesn't save.
+         */
+        void discardReserved() {
+            if (reserved == null)
+                return;
+            try {
+                Files.deleteIfExists(reserved);
+            } catch (IOException e) {
+                // Only an empty file is left
+            }
+        }
     }
 
     /**
-     * Replaces path params added in the URL string with the pathParams map
+     * Executes synchronous HTTP calls concurrently, each one blocking on its own virtual thread.
+     * If a call fails, the ones still running are interrupted and the exception is thrown.
      *
-     * @param url String to manipulate
-     * @param pathParams {@link Map] containing the key to replace and the value to replace it with
-     * @return String URL with path params replaced
+     * @param requests {@link EasyHttpRequest}s to send
+     * @return {@link List} of {@link HttpResponse} in the same order as the requests
      */
-    private static String replacePathParams(String url, Map<String, String> pathParams) {
-        for (Map.Entry<String, String> e : pathParams.entrySet()) {
-            String paramToReplace = "{" + e.getKey() + "}";
-            url = url.replace(paramToReplace, encode(e.getValue()));
+    public <T> List<HttpResponse<T>> sendAll(Collection<EasyHttpRequest> requests, Class<T> responseClass) {
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            List<Future<HttpResponse<T>>> futures = new ArrayList<>(requests.size());
+            for (EasyHttpRequest easyReq : requests)
+                futures.add(executor.submit(() -> send(easyReq, responseClass)));
+
+            List<HttpResponse<T>> responses = new ArrayList<>(futures.size());
+            try {
+                for (Future<HttpResponse<T>> future : futures)
+                    responses.add(future.get());
+            } catch (ExecutionException e) {
+                executor.shutdownNow();
+                if (e.getCause() instanceof RuntimeException cause)
+                    throw cause;
+                throw new HttpCallException(e.getCause());
+            } catch (InterruptedException e) {
+                executor.shutdownNow();
+                Thread.currentThread().interrupt();
+                throw new HttpCallException(e);
+            }
+
+            return responses;
         }
+    }
 
-        return url;
+    /**
+     * Executes a batch of calls, keeping at most {@link BatchOptions#getMaxInFlight()} of them in flight.
+     * A failed call doesn't fail the batch, its exception is captured in its {@link BatchResult}.
+     *
+     * @param requests {@link EasyHttpRequest}s to send
+     * @param options {@link BatchOptions} with the concurrency limit and the order of the results
+     * @return {@link List} of {@link BatchResult}, one for each request
+     */
+    public <T> List<BatchResult<T>> sendBatch(Collection<EasyHttpRequest> requests, Class<T> responseClass,
+                                             BatchOptions options) {
+        try {
+            return sendBatchAsync(requests, responseClass, options, null).get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause)
+                throw cause;
+            throw new HttpCallException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new HttpCallException(e);
+        }
     }
 
     /**
-     * Replaces path params added in the URL string with the pathParams map
+     * Executes a batch of calls asynchronously, keeping at most {@link BatchOptions#getMaxInFlight()} of them in flight.
+     * Every result is passed to the consumer as soon as its call completes, one at a time.
      *
-     * @param url String to manipulate
-     * @param queryParams {@link Map} containing the key-value params to add
-     * @return String URL with path params replaced
+     * @param requests {@link EasyHttpRequest}s to send
+     * @param options {@link BatchOptions} with the concurrency limit and the order of the results
+     * @param onResult {@link Consumer} receiving the results as they complete, can be null
+     * @return {@link CompletableFuture} of all the {@link BatchResult}s. Cancelling it stops sending new requests.
      */
-    private static String addQueryParams(String url, Map<String, String> queryParams) {
-        var paramsToAdd = new StringBuilder();
+    public <T> CompletableFuture<List<BatchResult<T>>> sendBatchAsync(Collection<EasyHttpRequest> requests,
+                                                                     Class<T> responseClass, BatchOptions options,
+                                                                     Consumer<? super BatchResult<T>> onResult) {
+        return new BatchSender<>(requests, easyReq -> sendAsync(easyReq, responseClass), options, onResult).start();
+    }
 
-        boolean justStarted = true;
-        for (Map.Entry<String, String> e : queryParams.entrySet()) {
-            if (justStarted)
-                paramsToAdd.append("?");
-            else
-                paramsToAdd.append("&");
+    /**
+     * Converts the request once, so it can be sent many times without building URI, headers and body again.
+     * The body is serialized with the serializer of this client.
+     * InputStream and Flow.Publisher bodies can be read only once, so they can't be prepared.
+     *
+     * @param easyReq {@link EasyHttpRequest} containing all the info to make the call
+     * @return {@link PreparedEasyRequest} to pass to {@link #send(PreparedEasyRequest, Class)}
+     * or {@link #sendAsync(PreparedEasyRequest, Class)}
+     * @throws IllegalArgumentException if the body is an InputStream or a Flow.Publisher
+     */
+    public PreparedEasyRequest prepare(EasyHttpRequest easyReq) {
+        Body body = easyReq.getBody();
+        if(body != null && body.content() != null && (InputStream.class.isAssignableFrom(body.type())
+                || Flow.Publisher.class.isAssignableFrom(body.type())))
+            throw new IllegalArgumentException("A " + body.type().getSimpleName() + " body can't be sent more than once");
 
-            paramsToAdd.append(e.getKey()).append("=").append(encode(e.getValue()));
-            justStarted = false;
+        return new PreparedEasyRequest(convertRequest(easyReq), easyReq);
+    }
+
+    /**
+     * Converts {@link EasyHttpRequest} to {@link HttpRequest}
+     *
+     * @param easyReq {@link EasyHttpRequest
+     * @return {@link HttpRequest}
+     */
+    private HttpRequest convertRequest(EasyHttpRequest easyReq) {
+        var requestBuilder = HttpRequest.newBuilder();
+
+        try {
+            requestBuilder.uri(getUri(easyReq));
+        } catch (IllegalArgumentException e) {
+            throw new MalformedUriException(e);
         }
 
-        return url.concat(paramsToAdd.toString());
+        setHttpMethod(requestBuilder, easyReq);
+        setHeaders(requestBuilder, easyReq.getHeaders());
+        setContentType(requestBuilder, easyReq);
+        setAccept(requestBuilder, easyReq);
+        setAcceptEncoding(requestBuilder, easyReq);
+
+        return requestBuilder.build();
     }
 
     /**
-     * Sets the HTTP Method from the EasyHttpRequest
+     * Builds the URI from the cached {@link UrlTemplate} of the request URL
+     *
+     * @param request {@link EasyHttpRequest}
+     * @return {@link URI} with path params replaced, query params and fragment added
+     */
+    private static URI getUri(EasyHttpRequest request) {
+        return UrlTemplate.of(request.getUrl())
+                .expand(request.getPathParams(), request.getQueryParams(), request.getFragment());
+    }
+
+    /**
+     * Sets the HTTP Method from the EasyHttpRequest, with the body compressed if it's large enough
      *
      * @param builder {@link HttpRequest.Builder}
      * @param easyReq {@link EasyHttpRequest}
      */
     private void setHttpMethod(HttpRequest.Builder builder, EasyHttpRequest easyReq) {
-        var bodyPublisher = easyBodyHandler.getRequestBodyPublisher(easyReq.getBody());
-
         switch (easyReq.getHttpMethod()) {
-            case GET:
-                builder.GET();
-                break;
-            case POST:
-                builder.POST(bodyPublisher);
-                break;
-            case PUT:
-                builder.PUT(bodyPublisher);
-                break;
-            case PATCH:
-                builder.method("PATCH", bodyPublisher);
-                break;
-            case DELETE:
-                builder.DELETE();
-                break;
-            case HEAD:
-                builder.HEAD();
-                break;
+            case POST, PUT, PATCH -> {
+                var body = easyBodyHandler.getRequestBody(easyReq.getBody(), gzipMinBytes(easyReq),
+                        headerValue(easyReq, Headers.CONTENT_TYPE));
+                builder.method(easyReq.getHttpMethod().name(), body.publisher());
+                if (body.contentEncoding() != null)
+                    builder.header(Headers.CONTENT_ENCODING.code, body.contentEncoding());
+            }
+            case GET -> builder.GET();
+            case DELETE -> builder.DELETE();
+            case HEAD -> builder.HEAD();
         }
     }
 
+    /**
+     * @return size over which the body of the request is compressed, negative if it's never compressed
+     */
+    private int gzipMinBytes(EasyHttpRequest easyReq) {
+        boolean alreadyEncoded = easyReq.getHeaders().keySet().stream()
+                .anyMatch(Headers.CONTENT_ENCODING.code::equalsIgnoreCase);
+        if (alreadyEncoded)
+            return -1;
+        return easyReq.getGzipMinBytes() != null ? easyReq.getGzipMinBytes() : gzipMinBytes;
+    }
+
     /**
      * Adds the headers from the EasyHttpRequest
      *
@@ -266,15 +620,61 @@ public class EasyHttpClient {
     }
 
     /**
-     * Encodes URI parameters. <br>
-     * Since {@link URLEncoder} is actually made for HTML form encoding, everything is correctrly converted except for spaces.
-     * Spaces are converted to a '+' character, which is why this function replace them with '%20'
+     * Adds the Content-Type of serialized bodies, unless the request already sets one
      *
-     * @param param String parameter to encode
-     * @return String parameter encoded
+     * @param builder {@link HttpRequest.Builder}
+     * @param easyReq {@link EasyHttpRequest}
+     */
+    private void setContentType(HttpRequest.Builder builder, EasyHttpRequest easyReq) {
+        switch (easyReq.getHttpMethod()) {
+            case POST, PUT, PATCH -> {
+                String contentType = easyBodyHandler.getRequestContentType(easyReq.getBody());
+                boolean alreadySet = easyReq.getHeaders().keySet().stream()
+                        .anyMatch(Headers.CONTENT_TYPE.code::equalsIgnoreCase);
+
+                if (contentType != null && !alreadySet)
+                    builder.header(Headers.CONTENT_TYPE.code, contentType);
+            }
+            default -> {}
+        }
+    }
+
+    /**
+     * Lists the formats the client parses, when there's more than one and the request doesn't set its own Accept
+     *
+     * @param builder {@link HttpRequest.Builder}
+     * @param easyReq {@link EasyHttpRequest}
      */
-    private static String encode(String param) {
-        return URLEncoder.encode(param, StandardCharsets.UTF_8).replace("+", "%20");
+    private void setAccept(HttpRequest.Builder builder, EasyHttpRequest easyReq) {
+        String accept = easyBodyHandler.getAccept();
+        if (accept != null && headerValue(easyReq, Headers.ACCEPT) == null)
+            builder.header(Headers.ACCEPT.code, accept);
+    }
+
+    /**
+     * @return value of the header set on the request, whatever its case, null if it isn't set
+     */
+    private static String headerValue(EasyHttpRequest easyReq, Headers header) {
+        for (Map.Entry<String, String> e : easyReq.getHeaders().entrySet()) {
+            if (e.getKey().equalsIgnoreCase(header.code))
+                return e.getValue();
+        }
+        return null;
+    }
+
+    /**
+     * Asks for the compressed encodings the client decodes, unless the request already sets one
+     *
+     * @param builder {@link HttpRequest.Builder}
+     * @param easyReq {@link EasyHttpRequest}
+     */
+    private void setAcceptEncoding(HttpRequest.Builder builder, EasyHttpRequest easyReq) {
+        String acceptEncoding = easyBodyHandler.getAcceptEncoding();
+        boolean alreadySet = easyReq.getHeaders().keySet().stream()
+                .anyMatch(Headers.ACCEPT_ENCODING.code::equalsIgnoreCase);
+
+        if (acceptEncoding != null && !alreadySet)
+            builder.header(Headers.ACCEPT_ENCODING.code, acceptEncoding);
     }
 
     public static Builder builder() {
@@ -295,6 +695,18 @@ public class EasyHttpClient {
         private HttpClient.Version version;
         private Executor executor;
         private CookieHandler cookieHandler;
+        private boolean virtualThreads;
+        private HostLimiter hostLimiter;
+        private AdaptiveLimiter adaptiveLimiter;
+        private RetryPolicy retryPolicy;
+        private HedgePolicy hedgePolicy;
+        private CircuitBreaker circuitBreaker;
+        private ResponseCache responseCache;
+        private boolean coalesceRequests;
+        private boolean decompressResponses;
+        private int gzipMinBytes = -1;
+        private final List<EasySerializer> formats = new ArrayList<>();
+        private BufferPool bufferPool;
 
         private Builder() {}
 
@@ -303,6 +715,17 @@ public class EasyHttpClient {
             return this;
         }
 
+        /**
+         * Adds a serializer of another format, e.g. {@link io.github.urusso.easyhttpclient.serializer.EasyCborSerializer}.
+         * A request body is serialized with it when the request sets its Content-Type, and a response is parsed with it
+         * when it comes with its Content-Type. The requests not setting an Accept header list every format, the
+         * default serializer first. None by default.
+         */
+        public Builder format(EasySerializer serializer) {
+            this.formats.add(Objects.requireNonNull(serializer, "serializer"));
+            return this;
+        }
+
         public Builder connectTimeout(Duration connectTimeout) {
             this.connectTimeout = connectTimeout;
             return this;
@@ -340,6 +763,17 @@ public class EasyHttpClient {
 
         public Builder executor(Executor executor) {
             this.executor = executor;
+            this.virtualThreads = false;
+            return this;
+        }
+
+        /**
+         * Runs the client tasks (async completion stages and response body handlers) on a new virtual thread each,
+         * instead of the default pool of platform threads. It replaces any executor previously set.
+         */
+        public Builder virtualThreads() {
+            this.executor = Executors.newVirtualThreadPerTaskExecutor();
+            this.virtualThreads = true;
             return this;
         }
 
@@ -348,11 +782,95 @@ public class EasyHttpClient {
             return this;
         }
 
+        /**
+         * Caps the requests in flight towards each host, queueing the ones over the cap
+         */
+        public Builder hostLimiter(HostLimiter hostLimiter) {
+            this.hostLimiter = hostLimiter;
+            return this;
+        }
+
+        /**
+         * Adapts the client-wide concurrency limit to the latency and the errors of the requests
+         */
+        public Builder adaptiveLimiter(AdaptiveLimiter adaptiveLimiter) {
+            this.adaptiveLimiter = adaptiveLimiter;
+            return this;
+        }
+
+        /**
+         * Retries the failed calls, with exponential backoff and a client-wide retry budget
+         */
+        public Builder retryPolicy(RetryPolicy retryPolicy) {
+            this.retryPolicy = retryPolicy;
+            return this;
+        }
+
+        /**
+         * Sends duplicates of the slow GET and HEAD calls, the first response wins
+         */
+        public Builder hedgePolicy(HedgePolicy hedgePolicy) {
+            this.hedgePolicy = hedgePolicy;
+            return this;
+        }
+
+        /**
+         * Fails the calls right away while the host they are sent to keeps failing
+         */
+        public Builder circuitBreaker(CircuitBreaker circuitBreaker) {
+            this.circuitBreaker = circuitBreaker;
+            return this;
+        }
+
+        /**
+         * Serves the GET calls from memory while the responses are fresh, following the HTTP caching headers
+         */
+        public Builder responseCache(ResponseCache responseCache) {
+            this.responseCache = responseCache;
+            return this;
+        }
+
+        /**
+         * Lets a GET wait for an identical one already in flight (same URI and headers) instead of sending another
+         * call. Off by default.
+         */
+        public Builder coalesceRequests() {
+            this.coalesceRequests = true;
+            return this;
+        }
+
+        /**
+         * Sends Accept-Encoding: gzip, deflate and decodes the compressed responses while they are received,
+         * before they're read as the response class. Off by default.
+         */
+        public Builder decompressResponses() {
+            this.decompressResponses = true;
+            return this;
+        }
+
+        /**
+         * Gzip compresses the request bodies larger than {@code minBytes}, sending them with Content-Encoding: gzip.
+         * Off by default, each request can override it.
+         */
+        public Builder compressRequests(int minBytes) {
+            this.gzipMinBytes = minBytes;
+            return this;
+        }
+
+        /**
+         * Collects the {@link PooledBody} responses and serializes the request bodies into buffers of the pool,
+         * instead of new arrays sized to each body. The buffers of a request body go back to the pool once its call
+         * is over, those of a prepared request once it isn't referenced anymore. Off by default.
+         */
+        public Builder bufferPool(BufferPool bufferPool) {
+            this.bufferPool = bufferPool;
+            return this;
+        }
+
         public EasyHttpClient build() {
             serializer = Objects.requireNonNullElseGet(serializer, EasyJacksonSerializer::new);
 
-            return new EasyHttpClient(connectTimeout, followRedirects, proxy, sslContext, sslParameters, authenticator,
-                    version, executor, cookieHandler, serializer);
+            return new EasyHttpClient(this);
         }
     }
 }
@@ -15,9 +15,11 @@ public class EasyHttpRequest {
     private final Map<String,String> headers;
     private final String fragment;
     private final Body body;
+    private final Integer gzipMinBytes;
 
     private EasyHttpRequest(String url, HttpMethod httpMethod, Map<String, String> pathParams,
-                            Map<String, String> queryParams, Map<String, String> headers, String fragment, Body body) {
+                            Map<String, String> queryParams, Map<String, String> headers, String fragment, Body body,
+                            Integer gzipMinBytes) {
 
         if(url == null || url.isBlank())
             throw new IllegalArgumentException("Url can't be null or blank");
@@ -31,6 +33,7 @@ public class EasyHttpRequest {
         this.headers = headers;
         this.body = body;
         this.fragment = fragment;
+        this.gzipMinBytes = gzipMinBytes;
     }
 
     public static Builder builder(String url) {
@@ -65,6 +68,13 @@ public class EasyHttpRequest {
         return body;
     }
 
+    /**
+     * @return size over which the body is gzip compressed, null to use the setting of the client
+     */
+    public Integer getGzipMinBytes() {
+        return gzipMinBytes;
+    }
+
     //*******************************************
     //***************** BUILDER *****************
     //*******************************************
@@ -76,6 +86,7 @@ public class EasyHttpRequest {
         private Map<String,String> headers;
         private String fragment;
         private Body body;
+        private Integer gzipMinBytes;
 
         private Builder(String url) {
             this.url = url;
@@ -169,6 +180,15 @@ public class EasyHttpRequest {
             return this;
         }
 
+        /**
+         * Gzip compresses the body when it's larger than {@code minBytes}, 0 to always compress it and a negative
+         * value to never do it. It overrides the setting of the client.
+         */
+        public Builder compressBody(int minBytes) {
+            this.gzipMinBytes = minBytes;
+            return this;
+        }
+
         public Builder GET() {
             this.httpMethod = io.github.urusso.easyhttpclient.constant.HttpMethod.GET;
             return this;
@@ -200,7 +220,7 @@ public class EasyHttpRequest {
         }
 
         public EasyHttpRequest build() {
-            return new EasyHttpRequest(url, httpMethod, pathParams, queryParams, headers, fragment, body);
+            return new EasyHttpRequest(url, httpMethod, pathParams, queryParams, headers, fragment, body, gzipMinBytes);
         }
     }
 }
@@ -0,0 +1,61 @@
+package io.github.urusso.easyhttpclient;
+
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+
+/**
+ * Type of a response body that a {@link Class} can't express, like {@code List<UserDto>} or
+ * {@code Map<String, Order>}. It's created as an anonymous subclass, which keeps its type argument:
+ * <pre>{@code
+ * EasyType<List<UserDto>> USERS = new EasyType<>() {};
+ * }</pre>
+ * Two instances with the same type are equal, so the client resolves each type once however many tokens are
+ * created. Still, keeping the token in a constant avoids creating it on every call.
+ *
+ * @param <T> type of the body
+ */
+public abstract class EasyType<T> {
+    private final Type type;
+
+    protected EasyType() {
+        Type superclass = getClass().getGenericSuperclass();
+        if(!(superclass instanceof ParameterizedType parameterized))
+            throw new IllegalArgumentException("EasyType must be created with its type argument, e.g. new EasyType<List<String>>() {}");
+
+        this.type = parameterized.getActualTypeArguments()[0];
+    }
+
+    private EasyType(Class<T> clazz) {
+        this.type = clazz;
+    }
+
+    /**
+     * @param clazz {@link Class} of the body
+     * @return {@link EasyType} of the class
+     */
+    public static <T> EasyType<T> of(Class<T> clazz) {
+        return new EasyType<>(clazz) {};
+    }
+
+    /**
+     * @return {@link Type} of the body, a {@link Class} or a {@link ParameterizedType}
+     */
+    public Type getType() {
+        return type;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof EasyType<?> other && type.equals(other.type);
+    }
+
+    @Override
+    public int hashCode() {
+        return type.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "EasyType<" + type.getTypeName() + ">";
+    }
+}
@@ -0,0 +1,110 @@
+package io.github.urusso.easyhttpclient;
+
+import io.github.urusso.easyhttpclient.exception.MalformedUriException;
+import io.github.urusso.easyhttpclient.utils.UrlTemplate;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * {@link EasyHttpRequest} already converted to {@link HttpRequest}, created by {@link EasyHttpClient#prepare}. <br>
+ * URI, headers and body (serialized once) are reused on every send, so only bodies that can be read again are
+ * accepted: InputStream and Flow.Publisher bodies are rejected by {@link EasyHttpClient#prepare}.
+ * Variants that change a single path param, query param or header copy the converted request instead of converting
+ * it again.
+ * Instances are immutable and can be shared between threads.
+ */
+public final class PreparedEasyRequest {
+    private final HttpRequest request;
+    private final UrlTemplate urlTemplate;
+    private final Map<String, String> pathParams;
+    private final Map<String, String> queryParams;
+    private final String fragment;
+
+    PreparedEasyRequest(HttpRequest request, EasyHttpRequest easyReq) {
+        this(request, UrlTemplate.of(easyReq.getUrl()), copyOf(easyReq.getPathParams()),
+                copyOf(easyReq.getQueryParams()), easyReq.getFragment());
+    }
+
+    private PreparedEasyRequest(HttpRequest request, UrlTemplate urlTemplate, Map<String, String> pathParams,
+                                Map<String, String> queryParams, String fragment) {
+        this.request = request;
+        this.urlTemplate = urlTemplate;
+        this.pathParams = pathParams;
+        this.queryParams = queryParams;
+        this.fragment = fragment;
+    }
+
+    /**
+     * @return the converted {@link HttpRequest} sent by the client
+     */
+    public HttpRequest getRequest() {
+        return request;
+    }
+
+    /**
+     * Derives a request with a different path param value
+     *
+     * @param key path param to replace
+     * @param value new value
+     * @return new {@link PreparedEasyRequest}
+     */
+    public PreparedEasyRequest withPathParam(String key, String value) {
+        var params = new LinkedHashMap<>(pathParams);
+        params.put(key, value);
+        return withUri(Collections.unmodifiableMap(params), queryParams);
+    }
+
+    /**
+     * Derives a request with a different or additional query param
+     *
+     * @param key query param to set
+     * @param value new value
+     * @return new {@link PreparedEasyRequest}
+     */
+    public PreparedEasyRequest withQueryParam(String key, String value) {
+        var params = new LinkedHashMap<>(queryParams);
+        params.put(key, value);
+        return withUri(pathParams, Collections.unmodifiableMap(params));
+    }
+
+    /**
+     * Derives a request with a different or additional header. Existing values of the header are replaced.
+     *
+     * @param key header name
+     * @param value new value
+     * @return new {@link PreparedEasyRequest}
+     */
+    public PreparedEasyRequest withHeader(String key, String value) {
+        HttpRequest derived = HttpRequest.newBuilder(request, (name, v) -> !name.equalsIgnoreCase(key))
+                .header(key, value)
+                .build();
+
+        return new PreparedEasyRequest(derived, urlTemplate, pathParams, queryParams, fragment);
+    }
+
+    /**
+     * Unlike {@link Map#copyOf}, keeps the order of the params, so derived URIs list them as the original one
+     */
+    private static Map<String, String> copyOf(Map<String, String> params) {
+        return Collections.unmodifiableMap(new LinkedHashMap<>(params));
+    }
+
+    private PreparedEasyRequest withUri(Map<String, String> pathParams, Map<String, String> queryParams) {
+        URI uri;
+        try {
+            uri = urlTemplate.expand(pathParams, queryParams, fragment);
+        } catch (IllegalArgumentException e) {
+            throw new MalformedUriException(e);
+        }
+
+        HttpRequest derived = HttpRequest.newBuilder(request, (name, value) -> true)
+                .uri(uri)
+                .build();
+
+        return new PreparedEasyRequest(derived, urlTemplate, pathParams, queryParams, fragment);
+    }
+}
@@ -0,0 +1,383 @@
+package io.github.urusso.easyhttpclient;
+
+import io.github.urusso.easyhttpclient.interfaces.DownloadListener;
+import io.github.urusso.easyhttpclient.interfaces.Exchange;
+import io.github.urusso.easyhttpclient.utils.FileDownloadHandler;
+import io.github.urusso.easyhttpclient.utils.Futures;
+
+import javax.net.ssl.SSLSession;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Downloads a file in {@link DownloadOptions#getSegments()} ranges fetched concurrently. <br>
+ * A HEAD request checks that the server accepts byte ranges and gives the size, then each segment is asked with its
+ * own Range header and written at its offset of the partial file through positional {@link FileChannel} writes.
+ * A failed segment is asked again from the first byte it's missing, up to {@link DownloadOptions#getSegmentAttempts()}
+ * times. Once all the segments are complete the size, the ETag of every segment and, if given, the SHA-256 of the file
+ * are checked before the file is moved to the target. <br>
+ * When the server doesn't accept ranges, or the body is encoded, the file is downloaded with a single request.
+ */
+final class SegmentedDownload {
+    private static final Pattern CONTENT_RANGE = Pattern.compile("bytes\\s+(\\d+)-(\\d+)/(\\d+|\\*)");
+
+    private final Exchange exchange;
+    private final HttpRequest request;
+    private final Path target;
+    private final Path partial;
+    private final DownloadOptions options;
+
+    private final CompletableFuture<HttpResponse<Path>> result = new CompletableFuture<>();
+    private final List<CompletableFuture<?>> inFlight = new ArrayList<>();
+    private final AtomicLong downloaded = new AtomicLong();
+    private final AtomicBoolean finished = new AtomicBoolean();
+    private FileChannel channel;
+    private long length;
+    private String etag;
+
+    SegmentedDownload(Exchange exchange, HttpRequest request, Path target, DownloadOptions options) {
+        this.exchange = exchange;
+        this.request = request;
+        this.target = target;
+        this.partial = FileDownloadHandler.partialFile(target);
+        this.options = options;
+    }
+
+    /**
+     * Sends the HEAD request, then the segments
+     *
+     * @return {@link CompletableFuture} of the response, with the headers of the HEAD request and the {@link Path} of
+     * the file. Cancelling it cancels the segments in flight.
+     */
+    CompletableFuture<HttpResponse<Path>> start() {
+        var head = HttpRequest.newBuilder(request, (name, value) -> true)
+                .method("HEAD", HttpRequest.BodyPublishers.noBody())
+                .build();
+        var probe = exchange.sendAsync(head, HttpResponse.BodyHandlers.discarding());
+        track(probe);
+        probe.whenComplete((response, error) -> {
+            if (error != null)
+                fail(Futures.unwrap(error));
+            else
+                onProbe(response);
+        });
+
+        result.whenComplete((response, error) -> {
+            if (result.isCancelled())
+                fail(new CancellationException());
+        });
+        return result;
+    }
+
+    private void onProbe(HttpResponse<Void> probe) {
+        var headers = probe.headers();
+        length = headers.firstValueAsLong("Content-Length").orElse(-1);
+        boolean acceptsRanges = headers.allValues("Accept-Ranges").stream()
+                .anyMatch(value -> value.toLowerCase(Locale.ROOT).contains("bytes"));
+        boolean encoded = headers.firstValue("Content-Encoding").filter(value -> !value.equals("identity")).isPresent();
+
+        if (probe.statusCode() != 200 || !acceptsRanges || encoded || length < 2) {
+            downloadWhole();
+            return;
+        }
+        etag = headers.firstValue("ETag").filter(value -> !value.startsWith("W/")).orElse(null);
+
+        try {
+            channel = FileChannel.open(partial, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                    StandardOpenOption.TRUNCATE_EXISTING);
+            channel.write(ByteBuffer.allocate(1), length - 1);
+        } catch (IOException e) {
+            fail(e);
+            return;
+        }
+
+        int count = (int) Math.min(options.getSegments(), length);
+        List<CompletableFuture<Void>> segments = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long first = length * i / count;
+            long last = length * (i + 1) / count - 1;
+            var segment = new Segment(first, last).fetch();
+            // A segment out of attempts cancels the others at once, instead of waiting for their whole ranges
+            segment.whenComplete((ignored, error) -> {
+                if (error != null)
+                    fail(Futures.unwrap(error));
+            });
+            segments.add(segment);
+        }
+
+        CompletableFuture.allOf(segments.toArray(CompletableFuture[]::new)).whenComplete((ignored, error) -> {
+            if (error != null) {
+                fail(Futures.unwrap(error));
+                return;
+            }
+            try {
+                complete();
+            } catch (IOException e) {
+                fail(e);
+                return;
+            }
+            if (finished.compareAndSet(false, true))
+                result.complete(new PathResponse(probe, target));
+        });
+    }
+
+    /**
+     * Fallback for the servers not accepting ranges: a single request through a {@link FileDownloadHandler},
+     * which checks the size and the SHA-256 as well
+     */
+    private void downloadWhole() {
+        var handler = new FileDownloadHandler(target, 0, false, options.getSha256(), options.getListener());
+        var future = exchange.sendAsync(request, handler);
+        track(future);
+        future.whenComplete((response, error) -> {
+            if (error != null)
+                result.completeExceptionally(Futures.unwrap(error));
+            else
+                result.complete(response);
+        });
+    }
+
+    /**
+     * Checks the file and moves it to the target
+     */
+    private void complete() throws IOException {
+        channel.force(false);
+        long size = channel.size();
+        channel.close();
+        if (size != length || downloaded.get() != length)
+            throw new IOException("Downloaded " + downloaded.get() + " bytes, expected " + length);
+
+        if (options.getSha256() != null)
+            FileDownloadHandler.checkSha256(partial, options.getSha256());
+
+        try {
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * Cancels the segments in flight and deletes the partial file, before the result is completed
+     */
+    private void fail(Throwable error) {
+        if (!finished.compareAndSet(false, true))
+            return;
+        cancelInFlight();
+        try {
+            if (channel != null)
+                channel.close();
+            Files.deleteIfExists(partial);
+        } catch (IOException e) {
+            error.addSuppressed(e);
+        }
+        result.completeExceptionally(error);
+    }
+
+    private synchronized void track(CompletableFuture<?> future) {
+        inFlight.add(future);
+        future.whenComplete((response, error) -> untrack(future));
+    }
+
+    private synchronized void untrack(CompletableFuture<?> future) {
+        inFlight.remove(future);
+    }
+
+    private void cancelInFlight() {
+        List<CompletableFuture<?>> toCancel;
+        synchronized (this) {
+            toCancel = List.copyOf(inFlight);
+        }
+        toCancel.forEach(future -> future.cancel(true));
+    }
+
+    /**
+     * Adds the bytes written by a segment, the listener is told under a lock so that the totals it sees only grow
+     */
+    private void onProgress(int bytes) {
+        DownloadListener listener = options.getListener();
+        if (listener == null) {
+            downloaded.addAndGet(bytes);
+            return;
+        }
+        synchronized (listener) {
+            listener.onProgress(downloaded.addAndGet(bytes), length);
+        }
+    }
+
+    /**
+     * Bytes from {@code first} to {@code last} included
+     */
+    private final class Segment {
+        private final long first;
+        private final long last;
+        private long written;
+        private int attempts;
+
+        private Segment(long first, long last) {
+            this.first = first;
+            this.last = last;
+        }
+
+        /**
+         * Asks the bytes still missing, again after a failure while attempts are left
+         */
+        private CompletableFuture<Void> fetch() {
+            attempts++;
+            long from = first + written;
+            var builder = HttpRequest.newBuilder(request, (name, value) -> true)
+                    .header("Range", "bytes=" + from + "-" + last);
+            if (etag != null)
+                builder.header("If-Range", etag);
+
+            var future = exchange.sendAsync(builder.build(), info -> subscriber(info, from));
+            track(future);
+            return future.handle((response, error) -> {
+                if (error == null)
+                    return CompletableFuture.<Void>completedFuture(null);
+                if (finished.get() || attempts >= options.getSegmentAttempts())
+                    return CompletableFuture.<Void>failedFuture(Futures.unwrap(error));
+                return fetch();
+            }).thenCompose(next -> next);
+        }
+
+        private HttpResponse.BodySubscriber<Void> subscriber(HttpResponse.ResponseInfo info, long from) {
+            Matcher range = CONTENT_RANGE.matcher(info.headers().firstValue("Content-Range").orElse(""));
+            if (info.statusCode() != 206 || !range.matches() || Long.parseLong(range.group(1)) != from)
+                return failed("Segment " + first + "-" + last + " answered with " + info.statusCode());
+            if (etag != null && !etag.equals(info.headers().firstValue("ETag").orElse(etag)))
+                return failed("Segment " + first + "-" + last + " belongs to another version of the file");
+            return new SegmentSubscriber(from);
+        }
+
+        private static HttpResponse.BodySubscriber<Void> failed(String message) {
+            return HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.discarding(), ignored -> {
+                throw new UncheckedIOException(new IOException(message));
+            });
+        }
+
+        /**
+         * Writes the chunks at their offset of the file, failing if the body ends before the last byte. <br>
+         * Each attempt writes from the start of its own Range: a retry of the exchanges below resends the same Range,
+         * so the bytes it receives again are written over the ones already there and counted only once.
+         */
+        private final class SegmentSubscriber implements HttpResponse.BodySubscriber<Void> {
+            private final CompletableFuture<Void> body = new CompletableFuture<>();
+            private Flow.Subscription subscription;
+            private long position;
+
+            private SegmentSubscriber(long from) {
+                this.position = from;
+            }
+
+            @Override
+            public CompletableFuture<Void> getBody() {
+                return body;
+            }
+
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                this.subscription = subscription;
+                subscription.request(1);
+            }
+
+            @Override
+            public void onNext(List<ByteBuffer> item) {
+                try {
+                    for (ByteBuffer buffer : item) {
+                        if (position + buffer.remaining() > last + 1)
+                            throw new IOException("Segment " + first + "-" + last + " is longer than asked");
+                        while (buffer.hasRemaining())
+                            position += channel.write(buffer, position);
+                        long received = position - first - written;
+                        if (received > 0) {
+                            written += received;
+                            onProgress((int) received);
+                        }
+                    }
+                } catch (IOException e) {
+                    subscription.cancel();
+                    body.completeExceptionally(e);
+                    return;
+                }
+                subscription.request(1);
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                body.completeExceptionally(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                if (position != last + 1)
+                    body.completeExceptionally(new IOException("Segment " + first + "-" + last + " ended early"));
+                else
+                    body.complete(null);
+            }
+        }
+    }
+
+    /**
+     * Response of the HEAD request with the downloaded file as body
+     */
+    private record PathResponse(HttpResponse<?> head, Path body) implements HttpResponse<Path> {
+        @Override
+        public int statusCode() {
+            return head.statusCode();
+        }
+
+        @Override
+        public HttpRequest request() {
+            return head.request();
+        }
+
+        @Override
+        public Optional<HttpResponse<Path>> previousResponse() {
+            return Optional.empty();
+        }
+
+        @Override
+        public HttpHeaders headers() {
+            return head.headers();
+        }
+
+        @Override
+        public Optional<SSLSession> sslSession() {
+            return head.sslSession();
+        }
+
+        @Override
+        public URI uri() {
+            return head.uri();
+        }
+
+        @Override
+        public HttpClient.Version version() {
+            return head.version();
+        }
+    }
+}
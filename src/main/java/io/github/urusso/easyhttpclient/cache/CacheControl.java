@@ -0,0 +1,52 @@
+package io.github.urusso.easyhttpclient.cache;
+
+import java.net.http.HttpHeaders;
+import java.util.Locale;
+
+/**
+ * Directives of a Cache-Control header used by the {@link ResponseCache}
+ */
+record CacheControl(boolean noStore, boolean noCache, long maxAgeSeconds) {
+    private static final CacheControl NONE = new CacheControl(false, false, -1);
+
+    /**
+     * @param headers {@link HttpHeaders} of a request or a response
+     * @return directives of all the Cache-Control headers, max-age is -1 if missing
+     */
+    static CacheControl parse(HttpHeaders headers) {
+        var values = headers.allValues("Cache-Control");
+        if (values.isEmpty())
+            return NONE;
+
+        boolean noStore = false;
+        boolean noCache = false;
+        long maxAge = -1;
+        for (String value : values) {
+            for (String directive : value.split(",")) {
+                String token = directive.trim().toLowerCase(Locale.ROOT);
+                if (token.equals("no-store")) {
+                    noStore = true;
+                } else if (token.equals("no-cache") || token.startsWith("no-cache=")) {
+                    noCache = true;
+                } else if (token.startsWith("max-age=")) {
+                    maxAge = parseSeconds(token.substring("max-age=".length()));
+                }
+            }
+        }
+        return new CacheControl(noStore, noCache, maxAge);
+    }
+
+    /**
+     * @return seconds of a delta-seconds value, -1 if it isn't valid
+     */
+    static long parseSeconds(String value) {
+        String seconds = value.trim();
+        if (seconds.length() > 1 && seconds.startsWith("\"") && seconds.endsWith("\""))
+            seconds = seconds.substring(1, seconds.length() - 1);
+        try {
+            return Math.max(0, Long.parseLong(seconds));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package io.github.urusso.easyhttpclient.cache;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.nio.ByteBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response stored by the {@link ResponseCache}, with its body as raw bytes: on the heap,
+ * or mapped from a segment file of the {@link DiskCache}
+ */
+public final class CacheEntry {
+    private final URI uri;
+    private final int statusCode;
+    private final HttpHeaders headers;
+    private final HttpClient.Version version;
+    private final ByteBuffer body;
+    private final long storedAt;
+    private final long freshForNanos;
+    private final String eTag;
+    private final String lastModified;
+    private final int size;
+
+    CacheEntry(URI uri, int statusCode, HttpHeaders headers, HttpClient.Version version, ByteBuffer body,
+               long freshForNanos) {
+        this.uri = uri;
+        this.statusCode = statusCode;
+        this.headers = headers;
+        this.version = version;
+        this.body = body.asReadOnlyBuffer();
+        this.storedAt = System.nanoTime();
+        this.freshForNanos = freshForNanos;
+        this.eTag = headers.firstValue("ETag").orElse(null);
+        this.lastModified = headers.firstValue("Last-Modified").orElse(null);
+        this.size = body.remaining() + headersSize(headers);
+    }
+
+    /**
+     * @return true if the entry can be served without asking the server
+     */
+    public boolean isFresh() {
+        return System.nanoTime() - storedAt < freshForNanos;
+    }
+
+    /**
+     * @return true if the server can tell whether the entry is still valid
+     */
+    public boolean hasValidators() {
+        return eTag != null || lastModified != null;
+    }
+
+    public URI getUri() {
+        return uri;
+    }
+
+    public int getStatusCode() {
+        return statusCode;
+    }
+
+    public HttpHeaders getHeaders() {
+        return headers;
+    }
+
+    public HttpClient.Version getVersion() {
+        return version;
+    }
+
+    /**
+     * @return read-only view of the stored body, with its own position
+     */
+    public ByteBuffer getBody() {
+        return body.duplicate();
+    }
+
+    /**
+     * @return ETag of the response, null if missing
+     */
+    public String getETag() {
+        return eTag;
+    }
+
+    /**
+     * @return Last-Modified of the response, null if missing
+     */
+    public String getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * @return time left before the entry has to be revalidated, in seconds
+     */
+    public long getSecondsToLive() {
+        return Math.max(0, TimeUnit.NANOSECONDS.toSeconds(freshForNanos - (System.nanoTime() - storedAt)));
+    }
+
+    /**
+     * @return wall-clock time, in milliseconds, when the entry has to be revalidated
+     */
+    long freshUntilMillis() {
+        long left = freshForNanos - (System.nanoTime() - storedAt);
+        return System.currentTimeMillis() + Math.max(0, TimeUnit.NANOSECONDS.toMillis(left));
+    }
+
+    /**
+     * @return bytes taken by the entry, roughly
+     */
+    int size() {
+        return size;
+    }
+
+    private static int headersSize(HttpHeaders headers) {
+        int size = 0;
+        for (var header : headers.map().entrySet()) {
+            for (String value : header.getValue())
+                size += header.getKey().length() + value.length();
+        }
+        return size;
+    }
+}
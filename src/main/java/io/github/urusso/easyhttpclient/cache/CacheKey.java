@@ -0,0 +1,35 @@
+package io.github.urusso.easyhttpclient.cache;
+
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Key of a stored response: method, URI and the values of the request headers named by the Vary of the response
+ */
+record CacheKey(String method, URI uri, List<String> varyValues) {
+
+    /**
+     * @param request {@link HttpRequest} to send
+     * @param vary names of the headers the response varies on
+     * @return {@link CacheKey} of the response to the request
+     */
+    static CacheKey of(HttpRequest request, List<String> vary) {
+        List<String> values = new ArrayList<>(vary.size());
+        for (String name : vary)
+            values.add(String.join(",", request.headers().allValues(name)));
+        return new CacheKey(request.method(), request.uri(), List.copyOf(values));
+    }
+
+    /**
+     * @return key of all the variants of the response to the request
+     */
+    static String uriKey(HttpRequest request) {
+        return request.method() + " " + request.uri();
+    }
+
+    String uriKey() {
+        return method + " " + uri;
+    }
+}
@@ -0,0 +1,462 @@
+package io.github.urusso.easyhttpclient.cache;
+
+import io.github.urusso.easyhttpclient.exception.CacheStorageException;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Persistent tier of the {@link ResponseCache}: responses are appended to memory-mapped segment files in a directory
+ * and survive the restarts of the process. <br>
+ * Each record holds the key, the headers and the body of a response. The index of the records is kept in memory and
+ * rebuilt on startup by scanning the segments, so there is no separate index file to keep consistent. Bodies are
+ * served as slices of the mapped segments, without copying them to the heap. <br>
+ * When the segments go over {@code maxBytes} the oldest one is deleted with all its records.
+ * A directory must be used by a single {@link DiskCache} at a time.
+ */
+public class DiskCache implements AutoCloseable {
+    private static final int MAGIC = 0x45484331;
+    // magic, meta length, headers length, body length, fresh until, status code, version, checksum
+    private static final int RECORD_HEADER_BYTES = 4 + 4 + 4 + 4 + 8 + 4 + 4 + 8;
+    // Status code of the records removing an entry
+    private static final int REMOVED = 0;
+    private static final String SEGMENT_PREFIX = "segment-";
+    private static final String SEGMENT_SUFFIX = ".dat";
+
+    private final Path directory;
+    private final long maxBytes;
+    private final int segmentBytes;
+
+    private final ArrayDeque<Segment> segments = new ArrayDeque<>();
+    private final Map<CacheKey, Location> index = new HashMap<>();
+    private final VaryIndex varyByUri = new VaryIndex();
+    private Segment active;
+    private int nextSegmentId;
+
+    private final LongAdder evictedSegments = new LongAdder();
+    private final LongAdder writeErrors = new LongAdder();
+
+    private DiskCache(Path directory, long maxBytes, int segmentBytes) {
+        if(directory == null)
+            throw new IllegalArgumentException("directory can't be null");
+        if(segmentBytes < RECORD_HEADER_BYTES * 2)
+            throw new IllegalArgumentException("segmentBytes is too small");
+        if(maxBytes < segmentBytes * 2L)
+            throw new IllegalArgumentException("maxBytes must hold at least two segments");
+
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.segmentBytes = segmentBytes;
+
+        try {
+            Files.createDirectories(directory);
+            load();
+        } catch (IOException e) {
+            throw new CacheStorageException(e);
+        }
+    }
+
+    /**
+     * @param directory directory of the segment files, created if missing
+     * @return {@link Builder}
+     */
+    public static Builder builder(Path directory) {
+        return new Builder(directory);
+    }
+
+    /**
+     * @return records currently indexed
+     */
+    public synchronized int getEntryCount() {
+        return index.size();
+    }
+
+    /**
+     * @return bytes written in the segments, including the records replaced by newer ones
+     */
+    public synchronized long getSize() {
+        long size = 0;
+        for (Segment segment : segments)
+            size += segment.used;
+        return size;
+    }
+
+    /**
+     * @return size of the largest body that fits in a segment, roughly
+     */
+    public int getMaxRecordBytes() {
+        return segmentBytes - RECORD_HEADER_BYTES;
+    }
+
+    public synchronized int getSegmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * @return segments deleted to stay within {@code maxBytes}
+     */
+    public long getEvictedSegmentCount() {
+        return evictedSegments.sum();
+    }
+
+    /**
+     * @return responses that couldn't be written, the cache keeps working without them
+     */
+    public long getWriteErrorCount() {
+        return writeErrors.sum();
+    }
+
+    /**
+     * Flushes the segments to the storage device
+     */
+    @Override
+    public synchronized void close() {
+        for (Segment segment : segments)
+            segment.buffer.force();
+    }
+
+    synchronized List<String> varyOf(String uriKey) {
+        return varyByUri.get(uriKey);
+    }
+
+    CacheEntry get(CacheKey key) {
+        Location location;
+        synchronized (this) {
+            location = index.get(key);
+        }
+        return location != null ? read(location) : null;
+    }
+
+    /**
+     * Appends the entry to the active segment, opening a new one if it's full
+     */
+    synchronized void put(CacheKey key, List<String> vary, CacheEntry entry) {
+        Location location = append(key, vary, entry);
+        if (location != null)
+            index(key, vary, location);
+    }
+
+    /**
+     * Appends a record without body that removes the entry, also when the segments are scanned again
+     */
+    synchronized void remove(CacheKey key) {
+        List<String> vary = varyByUri.get(key.uriKey());
+        if (unindex(key))
+            append(key, vary != null ? vary : List.of(), null);
+    }
+
+    private Location append(CacheKey key, List<String> vary, CacheEntry entry) {
+        byte[] meta = encodeMeta(key, vary, entry != null ? entry.getUri() : key.uri());
+        byte[] headers = entry != null ? encodeHeaders(entry.getHeaders()) : new byte[0];
+        ByteBuffer body = entry != null ? entry.getBody() : ByteBuffer.allocate(0);
+        long size = (long) RECORD_HEADER_BYTES + meta.length + headers.length + body.remaining();
+        if (size > segmentBytes)
+            return null;
+
+        try {
+            if (active == null || active.used + size > active.buffer.capacity())
+                openSegment();
+        } catch (IOException e) {
+            writeErrors.increment();
+            return null;
+        }
+
+        int offset = active.used;
+        var buffer = active.buffer;
+        buffer.putInt(offset + 4, meta.length);
+        buffer.putInt(offset + 8, headers.length);
+        buffer.putInt(offset + 12, body.remaining());
+        buffer.putLong(offset + 16, entry != null ? entry.freshUntilMillis() : 0);
+        buffer.putInt(offset + 24, entry != null ? entry.getStatusCode() : REMOVED);
+        buffer.putInt(offset + 28, entry != null ? entry.getVersion().ordinal() : 0);
+        buffer.put(offset + RECORD_HEADER_BYTES, meta);
+        buffer.put(offset + RECORD_HEADER_BYTES + meta.length, headers);
+        buffer.put(offset + RECORD_HEADER_BYTES + meta.length + headers.length, body, body.position(), body.remaining());
+        buffer.putLong(offset + 32, checksum(buffer, offset, (int) size));
+        // Written last, so that a record cut by a crash is never read back
+        buffer.putInt(offset, MAGIC);
+
+        active.used += (int) size;
+        evict();
+        return new Location(active, offset);
+    }
+
+    synchronized void invalidate(URI uri) {
+        for (CacheKey key : List.copyOf(index.keySet())) {
+            if (key.uri().equals(uri))
+                remove(key);
+        }
+    }
+
+    /**
+     * Deletes all the segments
+     */
+    synchronized void clear() {
+        while (!segments.isEmpty())
+            deleteSegment(segments.poll());
+        active = null;
+        index.clear();
+        varyByUri.clear();
+    }
+
+    private void load() throws IOException {
+        List<Path> files;
+        try (Stream<Path> list = Files.list(directory)) {
+            files = list.filter(path -> segmentId(path) >= 0)
+                    .sorted((a, b) -> Integer.compare(segmentId(a), segmentId(b)))
+                    .toList();
+        }
+
+        for (Path file : files) {
+            var segment = mapSegment(file, segmentId(file), false);
+            segments.add(segment);
+            scan(segment);
+            nextSegmentId = segment.id + 1;
+        }
+        active = segments.peekLast();
+    }
+
+    /**
+     * Indexes the complete records of the segment, stopping at the first missing or damaged one
+     */
+    private void scan(Segment segment) {
+        var buffer = segment.buffer;
+        int offset = 0;
+        while (offset + RECORD_HEADER_BYTES <= buffer.capacity() && buffer.getInt(offset) == MAGIC) {
+            int metaLength = buffer.getInt(offset + 4);
+            int headersLength = buffer.getInt(offset + 8);
+            int bodyLength = buffer.getInt(offset + 12);
+            long size = (long) RECORD_HEADER_BYTES + metaLength + headersLength + bodyLength;
+            if (metaLength < 0 || headersLength < 0 || bodyLength < 0 || offset + size > buffer.capacity())
+                break;
+
+            // The pages of a record may not all reach the disk before a crash, even with the magic written last
+            if (buffer.getLong(offset + 32) != checksum(buffer, offset, (int) size))
+                break;
+
+            byte[] meta = new byte[metaLength];
+            buffer.get(offset + RECORD_HEADER_BYTES, meta);
+            decodeMeta(meta, buffer.getInt(offset + 24) == REMOVED ? null : new Location(segment, offset));
+            offset += (int) size;
+        }
+        segment.used = offset;
+    }
+
+    private CacheEntry read(Location location) {
+        var buffer = location.segment.buffer;
+        int offset = location.offset;
+        int metaLength = buffer.getInt(offset + 4);
+        int headersLength = buffer.getInt(offset + 8);
+        int bodyLength = buffer.getInt(offset + 12);
+        long freshUntil = buffer.getLong(offset + 16);
+        int statusCode = buffer.getInt(offset + 24);
+        var version = HttpClient.Version.values()[buffer.getInt(offset + 28)];
+
+        byte[] meta = new byte[metaLength];
+        byte[] headers = new byte[headersLength];
+        buffer.get(offset + RECORD_HEADER_BYTES, meta);
+        buffer.get(offset + RECORD_HEADER_BYTES + metaLength, headers);
+        ByteBuffer body = buffer.slice(offset + RECORD_HEADER_BYTES + metaLength + headersLength, bodyLength);
+
+        URI uri = URI.create(new String(meta, StandardCharsets.UTF_8).split("\n", 3)[1]);
+        long freshFor = TimeUnit.MILLISECONDS.toNanos(Math.max(0, freshUntil - System.currentTimeMillis()));
+        return new CacheEntry(uri, statusCode, decodeHeaders(headers), version, body, freshFor);
+    }
+
+    private void openSegment() throws IOException {
+        if (active != null)
+            active.buffer.force();
+        Path file = directory.resolve(SEGMENT_PREFIX + nextSegmentId + SEGMENT_SUFFIX);
+        active = mapSegment(file, nextSegmentId, true);
+        segments.add(active);
+        nextSegmentId++;
+    }
+
+    private Segment mapSegment(Path file, int id, boolean create) throws IOException {
+        var options = create
+                ? new StandardOpenOption[]{StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE}
+                : new StandardOpenOption[]{StandardOpenOption.READ, StandardOpenOption.WRITE};
+        try (var channel = FileChannel.open(file, options)) {
+            long size = create ? segmentBytes : Math.min(channel.size(), Integer.MAX_VALUE);
+            return new Segment(id, file, channel.map(FileChannel.MapMode.READ_WRITE, 0, size));
+        }
+    }
+
+    /**
+     * Deletes the oldest segments while over {@code maxBytes}, the active one is kept
+     */
+    private void evict() {
+        while ((long) segments.size() * segmentBytes > maxBytes && segments.size() > 1) {
+            deleteSegment(segments.poll());
+            evictedSegments.increment();
+        }
+    }
+
+    private void deleteSegment(Segment segment) {
+        Iterator<Map.Entry<CacheKey, Location>> iterator = index.entrySet().iterator();
+        while (iterator.hasNext()) {
+            var next = iterator.next();
+            if (next.getValue().segment == segment) {
+                varyByUri.remove(next.getKey().uriKey());
+                iterator.remove();
+            }
+        }
+        try {
+            // The bodies already served stay readable until their mapping is released
+            Files.deleteIfExists(segment.file);
+        } catch (IOException e) {
+            writeErrors.increment();
+        }
+    }
+
+    /**
+     * Key of the record: "METHOD uri" of the request, URI of the response, Vary names, then one line per Vary value
+     */
+    private static byte[] encodeMeta(CacheKey key, List<String> vary, URI uri) {
+        var meta = new StringBuilder(key.uriKey()).append('\n').append(uri).append('\n').append(String.join(",", vary));
+        for (String value : key.varyValues())
+            meta.append('\n').append(value);
+        return meta.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private void decodeMeta(byte[] bytes, Location location) {
+        String[] lines = new String(bytes, StandardCharsets.UTF_8).split("\n", -1);
+        String[] uriKey = lines[0].split(" ", 2);
+        List<String> vary = lines[2].isEmpty() ? List.of() : List.of(lines[2].split(","));
+        List<String> values = Arrays.asList(lines).subList(3, lines.length);
+
+        var key = new CacheKey(uriKey[0], URI.create(uriKey[1]), List.copyOf(values));
+        if (location == null)
+            unindex(key);
+        else
+            index(key, vary, location);
+    }
+
+    private void index(CacheKey key, List<String> vary, Location location) {
+        boolean added = index.put(key, location) == null;
+        varyByUri.put(key.uriKey(), vary, added);
+    }
+
+    /**
+     * @return true if the key was indexed
+     */
+    private boolean unindex(CacheKey key) {
+        if (index.remove(key) == null)
+            return false;
+        varyByUri.remove(key.uriKey());
+        return true;
+    }
+
+    private static byte[] encodeHeaders(HttpHeaders headers) {
+        var encoded = new StringBuilder();
+        headers.map().forEach((name, values) -> {
+            for (String value : values)
+                encoded.append(name).append(':').append(value).append('\n');
+        });
+        return encoded.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static HttpHeaders decodeHeaders(byte[] bytes) {
+        Map<String, List<String>> headers = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        for (String line : new String(bytes, StandardCharsets.UTF_8).split("\n")) {
+            int colon = line.indexOf(':');
+            if (colon > 0)
+                headers.computeIfAbsent(line.substring(0, colon), name -> new ArrayList<>()).add(line.substring(colon + 1));
+        }
+        return HttpHeaders.of(headers, (name, value) -> true);
+    }
+
+    /**
+     * @return CRC32 of the whole record but the magic and the checksum itself: lengths, fresh until, status code,
+     * version, meta, headers and body
+     */
+    private static long checksum(MappedByteBuffer buffer, int offset, int size) {
+        var crc = new CRC32();
+        crc.update(buffer.slice(offset + 4, 28));
+        crc.update(buffer.slice(offset + RECORD_HEADER_BYTES, size - RECORD_HEADER_BYTES));
+        return crc.getValue();
+    }
+
+    private static int segmentId(Path file) {
+        String name = file.getFileName().toString();
+        if (!name.startsWith(SEGMENT_PREFIX) || !name.endsWith(SEGMENT_SUFFIX))
+            return -1;
+        try {
+            return Integer.parseInt(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    private static final class Segment {
+        private final int id;
+        private final Path file;
+        private final MappedByteBuffer buffer;
+        private int used;
+
+        private Segment(int id, Path file, MappedByteBuffer buffer) {
+            this.id = id;
+            this.file = file;
+            this.buffer = buffer;
+        }
+    }
+
+    private record Location(Segment segment, int offset) {}
+
+    //*******************************************
+    //***************** BUILDER *****************
+    //*******************************************
+    public static class Builder {
+        private final Path directory;
+        private long maxBytes = 1024L * 1024 * 1024;
+        private int segmentBytes = 64 * 1024 * 1024;
+
+        private Builder(Path directory) {
+            this.directory = directory;
+        }
+
+        /**
+         * Disk space taken by the segments, 1GB by default
+         */
+        public Builder maxBytes(long maxBytes) {
+            this.maxBytes = maxBytes;
+            return this;
+        }
+
+        /**
+         * Size of each segment file, 64MB by default. It's also the size of the largest response stored.
+         */
+        public Builder segmentBytes(int segmentBytes) {
+            this.segmentBytes = segmentBytes;
+            return this;
+        }
+
+        /**
+         * @throws CacheStorageException if the directory can't be created or read
+         */
+        public DiskCache build() {
+            return new DiskCache(directory, maxBytes, segmentBytes);
+        }
+    }
+}
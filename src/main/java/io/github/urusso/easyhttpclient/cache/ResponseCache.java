@@ -0,0 +1,413 @@
+package io.github.urusso.easyhttpclient.cache;
+
+import java.net.URI;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory cache of the responses to GET requests, following the HTTP caching rules of a private cache. <br>
+ * Responses are keyed by method, URI and the values of the request headers named by their Vary header.
+ * They are served while fresh according to Cache-Control max-age (or Expires), then revalidated with
+ * If-None-Match / If-Modified-Since when they have an ETag or a Last-Modified. Responses with no-store are never
+ * stored, the ones with no-cache are always revalidated. <br>
+ * Bodies are stored as raw bytes, so each hit can be read as any type. The least recently used entries are evicted
+ * when the total size goes over {@code maxBytes}. With a {@link DiskCache} the responses are also written to disk
+ * and served from there when they're not in memory.
+ */
+public class ResponseCache {
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final DiskCache disk;
+    private final LinkedHashMap<CacheKey, CacheEntry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final VaryIndex varyByUri = new VaryIndex();
+    private long size;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder revalidated = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private ResponseCache(long maxBytes, long maxEntryBytes, DiskCache disk) {
+        if(maxBytes < 1)
+            throw new IllegalArgumentException("maxBytes must be positive");
+        if(maxEntryBytes < 1 || maxEntryBytes > maxBytes)
+            throw new IllegalArgumentException("maxEntryBytes must be positive and not greater than maxBytes");
+
+        this.maxBytes = maxBytes;
+        this.maxEntryBytes = maxEntryBytes;
+        this.disk = disk;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @param request {@link HttpRequest} to send
+     * @return true if the cache can handle the request: a GET without no-store and not already conditional
+     */
+    public boolean isCacheable(HttpRequest request) {
+        if (!"GET".equals(request.method()))
+            return false;
+        var headers = request.headers();
+        if (headers.firstValue("If-None-Match").isPresent() || headers.firstValue("If-Modified-Since").isPresent())
+            return false;
+        return !CacheControl.parse(headers).noStore();
+    }
+
+    /**
+     * Looks for the entry matching the request, counting a hit if it can be served and a miss otherwise
+     *
+     * @param request {@link HttpRequest} to send
+     * @return {@link Lookup} with the entry matching the request, if any, and whether it can be served
+     * without asking the server
+     */
+    public Lookup lookup(HttpRequest request) {
+        CacheKey key = CacheKey.of(request, varyOf(CacheKey.uriKey(request)));
+        CacheEntry entry;
+        synchronized (this) {
+            entry = entries.get(key);
+        }
+        if (entry == null && disk != null)
+            entry = disk.get(key);
+
+        var requestControl = CacheControl.parse(request.headers());
+        boolean mustRevalidate = requestControl.noCache() || requestControl.maxAgeSeconds() == 0;
+        boolean fresh = entry != null && entry.isFresh() && !mustRevalidate;
+        if (fresh)
+            hits.increment();
+        else
+            misses.increment();
+        return new Lookup(entry, fresh);
+    }
+
+    /**
+     * Tells from the status and the headers, before the body is received, if the response can be stored. <br>
+     * It must be a 200 without no-store, fresh or with validators, and with a Content-Length, if sent, within
+     * {@link #getMaxStoredBytes()}. A body without Content-Length, e.g. chunked, is buffered up to that size and
+     * passed through once it goes over it.
+     *
+     * @param responseInfo status and headers of the response
+     * @return true if the body can be received as bytes and stored
+     */
+    public boolean canStore(HttpResponse.ResponseInfo responseInfo) {
+        var headers = responseInfo.headers();
+        long length = headers.firstValueAsLong("Content-Length").orElse(-1);
+        return length <= getMaxStoredBytes()
+                && isStorable(responseInfo.statusCode(), CacheControl.parse(headers), headers, varyOf(headers));
+    }
+
+    /**
+     * @return size of the largest body stored: {@code maxEntryBytes}, or the size of a segment with a
+     * {@link DiskCache} when larger
+     */
+    public long getMaxStoredBytes() {
+        return disk != null ? Math.max(maxEntryBytes, disk.getMaxRecordBytes()) : maxEntryBytes;
+    }
+
+    /**
+     * Removes the stored version of the response to the request, after a 200 that can't be stored
+     *
+     * @param request {@link HttpRequest} sent
+     * @param response {@link HttpResponse} received and not stored
+     */
+    public void skip(HttpRequest request, HttpResponse<?> response) {
+        if (response.statusCode() == 200)
+            remove(CacheKey.of(request, varyOf(CacheKey.uriKey(request))));
+    }
+
+    /**
+     * Stores the response, if it can be cached
+     *
+     * @param request {@link HttpRequest} sent
+     * @param response {@link HttpResponse} received
+     * @return {@link CacheEntry} stored, null if the response can't be cached
+     */
+    public CacheEntry store(HttpRequest request, HttpResponse<byte[]> response) {
+        if (response.statusCode() != 200 || response.body() == null)
+            return null;
+
+        var headers = response.headers();
+        var control = CacheControl.parse(headers);
+        List<String> vary = varyOf(headers);
+        String uriKey = CacheKey.uriKey(request);
+
+        var entry = new CacheEntry(response.uri(), response.statusCode(), headers, response.version(),
+                ByteBuffer.wrap(response.body()), freshForNanos(control, headers));
+        boolean storable = isStorable(response.statusCode(), control, headers, vary);
+        if (!storable || (entry.size() > maxEntryBytes && disk == null)) {
+            // A stored version of the response is no longer valid
+            remove(CacheKey.of(request, varyOf(uriKey)));
+            return null;
+        }
+
+        var key = CacheKey.of(request, vary);
+        if (entry.size() <= maxEntryBytes)
+            put(key, vary, entry);
+        else
+            removeFromMemory(key);
+        if (disk != null)
+            disk.put(key, vary, entry);
+        return entry;
+    }
+
+    /**
+     * Refreshes an entry with a 304 Not Modified response, counting a revalidation
+     *
+     * @param request {@link HttpRequest} sent
+     * @param entry {@link CacheEntry} revalidated
+     * @param notModified 304 {@link HttpResponse} received
+     * @return the refreshed {@link CacheEntry}
+     */
+    public CacheEntry refresh(HttpRequest request, CacheEntry entry, HttpResponse<?> notModified) {
+        revalidated.increment();
+
+        Map<String, List<String>> merged = new TreeMap<>(String.CASE_INSENSITIVE_ORDER);
+        merged.putAll(entry.getHeaders().map());
+        notModified.headers().map().forEach((name, values) -> {
+            if (!name.equalsIgnoreCase("Content-Length"))
+                merged.put(name, values);
+        });
+        var headers = HttpHeaders.of(merged, (name, value) -> true);
+
+        var refreshed = new CacheEntry(entry.getUri(), entry.getStatusCode(), headers, entry.getVersion(),
+                entry.getBody(), freshForNanos(CacheControl.parse(headers), headers));
+        String uriKey = CacheKey.uriKey(request);
+        List<String> vary = varyOf(uriKey);
+        var key = CacheKey.of(request, vary);
+        if (refreshed.size() <= maxEntryBytes)
+            put(key, vary, refreshed);
+        if (disk != null)
+            disk.put(key, vary, refreshed);
+        return refreshed;
+    }
+
+    /**
+     * Removes all the entries of the URI, for any Vary value
+     *
+     * @param uri {@link URI} of the entries
+     */
+    public synchronized void invalidate(URI uri) {
+        Iterator<Map.Entry<CacheKey, CacheEntry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            var next = iterator.next();
+            if (next.getKey().uri().equals(uri)) {
+                size -= next.getValue().size();
+                varyByUri.remove(next.getKey().uriKey());
+                iterator.remove();
+            }
+        }
+        if (disk != null)
+            disk.invalidate(uri);
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        varyByUri.clear();
+        size = 0;
+        if (disk != null)
+            disk.clear();
+    }
+
+    /**
+     * @return requests served by a fresh entry, without asking the server
+     */
+    public long getHitCount() {
+        return hits.sum();
+    }
+
+    /**
+     * @return requests sent to the server, including the revalidations
+     */
+    public long getMissCount() {
+        return misses.sum();
+    }
+
+    /**
+     * @return requests answered with 304 Not Modified and served by the entry revalidated
+     */
+    public long getRevalidatedCount() {
+        return revalidated.sum();
+    }
+
+    /**
+     * @return entries removed to stay within {@code maxBytes}
+     */
+    public long getEvictionCount() {
+        return evictions.sum();
+    }
+
+    public synchronized int getEntryCount() {
+        return entries.size();
+    }
+
+    /**
+     * @return bytes taken by the entries, roughly
+     */
+    public synchronized long getSize() {
+        return size;
+    }
+
+    private void remove(CacheKey key) {
+        removeFromMemory(key);
+        if (disk != null)
+            disk.remove(key);
+    }
+
+    private synchronized void removeFromMemory(CacheKey key) {
+        CacheEntry previous = entries.remove(key);
+        if (previous != null) {
+            size -= previous.size();
+            varyByUri.remove(key.uriKey());
+        }
+    }
+
+    /**
+     * @return URIs whose Vary names are kept in memory
+     */
+    synchronized int getVaryCount() {
+        return varyByUri.size();
+    }
+
+    /**
+     * @return names of the headers the stored responses to the request vary on, from the disk after a restart
+     */
+    private List<String> varyOf(String uriKey) {
+        List<String> vary;
+        synchronized (this) {
+            vary = varyByUri.get(uriKey);
+        }
+        if (vary == null && disk != null)
+            vary = disk.varyOf(uriKey);
+        return vary != null ? vary : List.of();
+    }
+
+    private synchronized void put(CacheKey key, List<String> vary, CacheEntry entry) {
+        CacheEntry previous = entries.put(key, entry);
+        if (previous != null)
+            size -= previous.size();
+        size += entry.size();
+        varyByUri.put(key.uriKey(), vary, previous == null);
+
+        Iterator<Map.Entry<CacheKey, CacheEntry>> eldest = entries.entrySet().iterator();
+        while (size > maxBytes && eldest.hasNext()) {
+            var evicted = eldest.next();
+            size -= evicted.getValue().size();
+            varyByUri.remove(evicted.getKey().uriKey());
+            eldest.remove();
+            evictions.increment();
+        }
+    }
+
+    private static boolean isStorable(int statusCode, CacheControl control, HttpHeaders headers, List<String> vary) {
+        if (statusCode != 200 || control.noStore() || vary.contains("*"))
+            return false;
+        return freshForNanos(control, headers) > 0
+                || headers.firstValue("ETag").isPresent() || headers.firstValue("Last-Modified").isPresent();
+    }
+
+    /**
+     * @return how long the response is fresh: max-age less Age, or Expires less Date, 0 with no-cache
+     */
+    private static long freshForNanos(CacheControl control, HttpHeaders headers) {
+        if (control.noCache())
+            return 0;
+
+        long maxAge = control.maxAgeSeconds();
+        if (maxAge >= 0) {
+            long age = headers.firstValue("Age").map(CacheControl::parseSeconds).orElse(0L);
+            return TimeUnit.SECONDS.toNanos(Math.max(0, maxAge - Math.max(0, age)));
+        }
+
+        var expires = parseDate(headers.firstValue("Expires").orElse(null));
+        if (expires == null)
+            return 0;
+        var date = parseDate(headers.firstValue("Date").orElse(null));
+        var from = date != null ? date : ZonedDateTime.now(expires.getZone());
+        return Math.max(0, Duration.between(from, expires).toNanos());
+    }
+
+    private static ZonedDateTime parseDate(String value) {
+        if (value == null)
+            return null;
+        try {
+            return ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static List<String> varyOf(HttpHeaders headers) {
+        List<String> names = new ArrayList<>();
+        for (String value : headers.allValues("Vary")) {
+            for (String name : value.split(",")) {
+                if (!name.isBlank())
+                    names.add(name.trim().toLowerCase(Locale.ROOT));
+            }
+        }
+        return List.copyOf(names);
+    }
+
+    /**
+     * Outcome of a lookup
+     *
+     * @param entry {@link CacheEntry} matching the request, null if there's none
+     * @param fresh true if the entry can be served without asking the server, false if it has to be revalidated
+     */
+    public record Lookup(CacheEntry entry, boolean fresh) {}
+
+    //*******************************************
+    //***************** BUILDER *****************
+    //*******************************************
+    public static class Builder {
+        private long maxBytes = 32L * 1024 * 1024;
+        private long maxEntryBytes = 1024 * 1024;
+        private DiskCache diskCache;
+
+        private Builder() {}
+
+        /**
+         * Total size of the entries, 32MB by default
+         */
+        public Builder maxBytes(long maxBytes) {
+            this.maxBytes = maxBytes;
+            return this;
+        }
+
+        /**
+         * Size of the largest response stored, 1MB by default
+         */
+        public Builder maxEntryBytes(long maxEntryBytes) {
+            this.maxEntryBytes = maxEntryBytes;
+            return this;
+        }
+
+        /**
+         * Persistent tier looked up when the response isn't in memory, no disk cache by default.
+         * Responses larger than {@code maxEntryBytes} are only stored on disk.
+         */
+        public Builder diskCache(DiskCache diskCache) {
+            this.diskCache = diskCache;
+            return this;
+        }
+
+        public ResponseCache build() {
+            return new ResponseCache(maxBytes, maxEntryBytes, diskCache);
+        }
+    }
+}
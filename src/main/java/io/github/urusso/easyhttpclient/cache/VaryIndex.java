@@ -0,0 +1,56 @@
+package io.github.urusso.easyhttpclient.cache;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Vary names of the stored responses, for each "METHOD uri". The names of a URI are kept while at least one of its
+ * entries is stored, so the index never outgrows the entries. <br>
+ * Not thread-safe, the caches use it while holding their lock.
+ */
+final class VaryIndex {
+    private final Map<String, Names> byUri = new HashMap<>();
+
+    /**
+     * @return names of the headers the responses to the URI vary on, null if none of them is stored
+     */
+    List<String> get(String uriKey) {
+        Names names = byUri.get(uriKey);
+        return names != null ? names.vary : null;
+    }
+
+    /**
+     * Records the names of an entry stored for the URI
+     *
+     * @param added true if the entry is new, false if it replaces an entry with the same key
+     */
+    void put(String uriKey, List<String> vary, boolean added) {
+        Names names = byUri.computeIfAbsent(uriKey, key -> new Names());
+        names.vary = vary;
+        if (added)
+            names.entries++;
+    }
+
+    /**
+     * Records an entry of the URI removed, dropping its names with the last one
+     */
+    void remove(String uriKey) {
+        Names names = byUri.get(uriKey);
+        if (names != null && --names.entries <= 0)
+            byUri.remove(uriKey);
+    }
+
+    void clear() {
+        byUri.clear();
+    }
+
+    int size() {
+        return byUri.size();
+    }
+
+    private static final class Names {
+        private List<String> vary;
+        private int entries;
+    }
+}
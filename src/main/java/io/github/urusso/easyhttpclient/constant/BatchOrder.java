@@ -0,0 +1,6 @@
+package io.github.urusso.easyhttpclient.constant;
+
+public enum BatchOrder {
+    INPUT,
+    COMPLETION
+}
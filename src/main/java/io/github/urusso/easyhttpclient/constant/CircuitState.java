@@ -0,0 +1,7 @@
+package io.github.urusso.easyhttpclient.constant;
+
+public enum CircuitState {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+}
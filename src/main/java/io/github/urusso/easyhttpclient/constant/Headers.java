@@ -7,6 +7,7 @@ public enum Headers {
     ACCEPT_ENCODING("Accept-Encoding"),
     AUTHORIZATION("Authorization"),
     CONTENT_TYPE("Content-Type"),
+    CONTENT_ENCODING("Content-Encoding"),
     COOKIE("Cookie"),
     REFERER("Referer"),
     ORIGIN("Origin");
@@ -0,0 +1,19 @@
+package io.github.urusso.easyhttpclient.dto;
+
+import io.github.urusso.easyhttpclient.EasyHttpRequest;
+
+import java.net.http.HttpResponse;
+
+/**
+ * Outcome of a single request of a batch: either the response or the error that made it fail
+ *
+ * @param index position of the request in the batch
+ * @param request {@link EasyHttpRequest} sent
+ * @param response {@link HttpResponse} received, null if the call failed
+ * @param error exception thrown by the call, null if it succeeded
+ */
+public record BatchResult<T>(int index, EasyHttpRequest request, HttpResponse<T> response, Throwable error) {
+    public boolean isSuccess() {
+        return error == null;
+    }
+}
@@ -0,0 +1,12 @@
+package io.github.urusso.easyhttpclient.dto;
+
+import java.net.http.HttpRequest;
+
+/**
+ * Body of a request ready to be sent
+ *
+ * @param publisher {@link HttpRequest.BodyPublisher} of the bytes to send
+ * @param contentEncoding Content-Encoding of the bytes, null if they aren't encoded
+ */
+public record EncodedBody(HttpRequest.BodyPublisher publisher, String contentEncoding) {
+}
@@ -0,0 +1,7 @@
+package io.github.urusso.easyhttpclient.exception;
+
+public class CacheStorageException extends RuntimeException {
+    public CacheStorageException(Throwable cause) {
+        super(cause);
+    }
+}
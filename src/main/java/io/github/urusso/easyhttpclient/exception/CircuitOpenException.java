@@ -0,0 +1,7 @@
+package io.github.urusso.easyhttpclient.exception;
+
+public class CircuitOpenException extends RuntimeException {
+    public CircuitOpenException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package io.github.urusso.easyhttpclient.exception;
+
+public class LimitExceededException extends RuntimeException {
+    public LimitExceededException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,73 @@
+package io.github.urusso.easyhttpclient.exchange;
+
+import io.github.urusso.easyhttpclient.exception.DeserializationException;
+import io.github.urusso.easyhttpclient.exception.LimitExceededException;
+import io.github.urusso.easyhttpclient.interfaces.Exchange;
+import io.github.urusso.easyhttpclient.policy.AdaptiveLimiter;
+import io.github.urusso.easyhttpclient.utils.Futures;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sends the request if the {@link AdaptiveLimiter} has a free slot, then reports latency and outcome to it. <br>
+ * A body that can't be deserialized isn't a sign of overload: the slot is just released, also on the sync calls where
+ * the {@link java.net.http.HttpClient} throws the error as an {@link IOException}.
+ */
+public final class AdaptiveLimitedExchange implements Exchange {
+    private final Exchange next;
+    private final AdaptiveLimiter limiter;
+
+    public AdaptiveLimitedExchange(Exchange next, AdaptiveLimiter limiter) {
+        this.next = next;
+        this.limiter = limiter;
+    }
+
+    @Override
+    public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler)
+            throws IOException, InterruptedException {
+        AdaptiveLimiter.Token token = limiter.acquire();
+        try {
+            HttpResponse<T> response = next.send(request, bodyHandler);
+            token.onResponse(response.statusCode());
+            return response;
+        } catch (IOException e) {
+            if (!Futures.isCausedBy(e, DeserializationException.class))
+                token.onError();
+            throw e;
+        } finally {
+            token.release();
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) {
+        AdaptiveLimiter.Token token;
+        try {
+            token = limiter.acquire();
+        } catch (LimitExceededException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<HttpResponse<T>> future;
+        try {
+            future = next.sendAsync(request, bodyHandler);
+        } catch (RuntimeException e) {
+            token.release();
+            throw e;
+        }
+
+        future.whenComplete((response, error) -> {
+            if (response != null)
+                token.onResponse(response.statusCode());
+            else if (Futures.unwrap(error) instanceof IOException
+                    && !Futures.isCausedBy(error, DeserializationException.class))
+                token.onError();
+            else
+                token.release();
+        });
+        return future;
+    }
+}
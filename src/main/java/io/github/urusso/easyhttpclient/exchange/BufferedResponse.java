@@ -0,0 +1,140 @@
+package io.github.urusso.easyhttpclient.exchange;
+
+import io.github.urusso.easyhttpclient.utils.Futures;
+
+import javax.net.ssl.SSLSession;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Flow;
+
+/**
+ * Response whose body, already received as bytes, is read with the {@link HttpResponse.BodyHandler}
+ * the caller asked for. The buffer is handed to the body subscriber as it is, without copying it.
+ */
+final class BufferedResponse<T> implements HttpResponse<T> {
+    private final HttpRequest request;
+    private final URI uri;
+    private final int statusCode;
+    private final HttpHeaders headers;
+    private final HttpClient.Version version;
+    private final Optional<SSLSession> sslSession;
+    private final T body;
+
+    private BufferedResponse(HttpRequest request, URI uri, int statusCode, HttpHeaders headers,
+                             HttpClient.Version version, Optional<SSLSession> sslSession, T body) {
+        this.request = request;
+        this.uri = uri;
+        this.statusCode = statusCode;
+        this.headers = headers;
+        this.version = version;
+        this.sslSession = sslSession;
+        this.body = body;
+    }
+
+    /**
+     * Reads the body with the handler and builds the response
+     *
+     * @throws IOException if the handler fails to read the body, exceptions not checked are thrown as they are
+     */
+    static <T> HttpResponse<T> of(HttpRequest request, URI uri, int statusCode, HttpHeaders headers,
+                                  HttpClient.Version version, Optional<SSLSession> sslSession, ByteBuffer bytes,
+                                  BodyHandler<T> bodyHandler) throws IOException {
+        var info = new Info(statusCode, headers, version);
+        T body;
+        try {
+            body = read(bodyHandler.apply(info), bytes.asReadOnlyBuffer());
+        } catch (CompletionException e) {
+            Throwable cause = Futures.unwrap(e);
+            if (cause instanceof IOException ioException)
+                throw ioException;
+            if (cause instanceof RuntimeException runtimeException)
+                throw runtimeException;
+            throw new IOException(cause);
+        }
+        return new BufferedResponse<>(request, uri, statusCode, headers, version, sslSession, body);
+    }
+
+    /**
+     * Publishes the bytes to the subscriber as a single buffer, then waits for its body
+     */
+    private static <T> T read(BodySubscriber<T> subscriber, ByteBuffer bytes) {
+        subscriber.onSubscribe(new Flow.Subscription() {
+            private boolean delivering;
+            private boolean done;
+
+            @Override
+            public void request(long n) {
+                // A request made by the subscriber while receiving the buffer has nothing left to deliver
+                if (delivering || done || n <= 0)
+                    return;
+                delivering = true;
+                done = true;
+                if (bytes.hasRemaining())
+                    subscriber.onNext(List.of(bytes));
+                subscriber.onComplete();
+                delivering = false;
+            }
+
+            @Override
+            public void cancel() {
+                done = true;
+            }
+        });
+        return subscriber.getBody().toCompletableFuture().join();
+    }
+
+    @Override
+    public int statusCode() {
+        return statusCode;
+    }
+
+    @Override
+    public HttpRequest request() {
+        return request;
+    }
+
+    @Override
+    public Optional<HttpResponse<T>> previousResponse() {
+        return Optional.empty();
+    }
+
+    @Override
+    public HttpHeaders headers() {
+        return headers;
+    }
+
+    @Override
+    public T body() {
+        return body;
+    }
+
+    @Override
+    public Optional<SSLSession> sslSession() {
+        return sslSession;
+    }
+
+    @Override
+    public URI uri() {
+        return uri;
+    }
+
+    @Override
+    public HttpClient.Version version() {
+        return version;
+    }
+
+    @Override
+    public String toString() {
+        return "(" + request.method() + " " + uri + ") " + statusCode;
+    }
+
+    private record Info(int statusCode, HttpHeaders headers, HttpClient.Version version) implements ResponseInfo {}
+}
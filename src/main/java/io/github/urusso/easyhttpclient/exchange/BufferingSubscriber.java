@@ -0,0 +1,182 @@
+package io.github.urusso.easyhttpclient.exchange;
+
+import java.io.ByteArrayOutputStream;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.function.Supplier;
+
+/**
+ * Receives a body of unknown length as bytes while it stays within {@code maxBytes}. <br>
+ * Once it goes over, the chunks received so far are handed to the subscriber of the caller as a single item, followed
+ * by the rest of the body, so that a large body is never held in memory.
+ */
+final class BufferingSubscriber<T> implements HttpResponse.BodySubscriber<Received<T>> {
+    private final long maxBytes;
+    private final Supplier<HttpResponse.BodySubscriber<T>> passThrough;
+    private final CompletableFuture<Received<T>> body = new CompletableFuture<>();
+    private final List<ByteBuffer> buffered = new ArrayList<>();
+    private Flow.Subscription subscription;
+    private long size;
+    private Replaying replaying;
+
+    /**
+     * @param maxBytes bytes buffered at most
+     * @param passThrough creates the subscriber of the caller, once the body goes over {@code maxBytes}
+     */
+    BufferingSubscriber(long maxBytes, Supplier<HttpResponse.BodySubscriber<T>> passThrough) {
+        this.maxBytes = maxBytes;
+        this.passThrough = passThrough;
+    }
+
+    @Override
+    public CompletionStage<Received<T>> getBody() {
+        return body;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(1);
+    }
+
+    @Override
+    public void onNext(List<ByteBuffer> item) {
+        if (replaying != null) {
+            replaying.subscriber.onNext(item);
+            return;
+        }
+
+        for (ByteBuffer buffer : item) {
+            size += buffer.remaining();
+            buffered.add(buffer);
+        }
+        if (size <= maxBytes) {
+            subscription.request(1);
+            return;
+        }
+
+        HttpResponse.BodySubscriber<T> subscriber;
+        try {
+            subscriber = passThrough.get();
+        } catch (RuntimeException e) {
+            subscription.cancel();
+            body.completeExceptionally(e);
+            return;
+        }
+        subscriber.getBody().whenComplete((result, error) -> {
+            if (error != null)
+                body.completeExceptionally(error);
+            else
+                body.complete(Received.ofBody(result));
+        });
+        replaying = new Replaying(subscriber, List.copyOf(buffered));
+        buffered.clear();
+        subscriber.onSubscribe(replaying);
+        replaying.start();
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        if (replaying != null)
+            replaying.onError(throwable);
+        else
+            body.completeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        if (replaying != null) {
+            replaying.onComplete();
+            return;
+        }
+
+        var bytes = new ByteArrayOutputStream((int) size);
+        for (ByteBuffer buffer : buffered) {
+            byte[] chunk = new byte[buffer.remaining()];
+            buffer.get(chunk);
+            bytes.writeBytes(chunk);
+        }
+        buffered.clear();
+        body.complete(Received.ofBytes(bytes.toByteArray()));
+    }
+
+    /**
+     * Subscription of the caller: its first item is the chunks buffered, then its demand goes upstream.
+     * Completion and errors received before the buffered item is handed out wait for it.
+     */
+    private final class Replaying implements Flow.Subscription {
+        private final HttpResponse.BodySubscriber<T> subscriber;
+        private final List<ByteBuffer> first;
+        private boolean started;
+        private boolean delivering;
+        private boolean replayed;
+        private long pending;
+        private boolean completed;
+        private Throwable error;
+
+        private Replaying(HttpResponse.BodySubscriber<T> subscriber, List<ByteBuffer> first) {
+            this.subscriber = subscriber;
+            this.first = first;
+        }
+
+        @Override
+        public synchronized void request(long n) {
+            if (replayed || n <= 0) {
+                subscription.request(n);
+                return;
+            }
+            pending = pending + n < 0 ? Long.MAX_VALUE : pending + n;
+            if (started && !delivering)
+                replay();
+        }
+
+        @Override
+        public void cancel() {
+            subscription.cancel();
+        }
+
+        /**
+         * Called once the caller's subscriber is subscribed, so that it never gets an item while subscribing
+         */
+        private synchronized void start() {
+            started = true;
+            if (pending > 0)
+                replay();
+        }
+
+        private synchronized void onComplete() {
+            if (replayed)
+                subscriber.onComplete();
+            else
+                completed = true;
+        }
+
+        private synchronized void onError(Throwable throwable) {
+            if (replayed)
+                subscriber.onError(throwable);
+            else
+                error = throwable;
+        }
+
+        /**
+         * Hands out the buffered item, the demand added meanwhile goes upstream only after it, so that the next
+         * items never overlap it
+         */
+        private void replay() {
+            delivering = true;
+            subscriber.onNext(first);
+            replayed = true;
+            if (error != null)
+                subscriber.onError(error);
+            else if (completed)
+                subscriber.onComplete();
+            else if (pending > 1)
+                subscription.request(pending == Long.MAX_VALUE ? Long.MAX_VALUE : pending - 1);
+        }
+    }
+}
@@ -0,0 +1,135 @@
+package io.github.urusso.easyhttpclient.exchange;
+
+import io.github.urusso.easyhttpclient.cache.CacheEntry;
+import io.github.urusso.easyhttpclient.cache.ResponseCache;
+import io.github.urusso.easyhttpclient.interfaces.Exchange;
+import io.github.urusso.easyhttpclient.utils.Futures;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Serves the GET requests from the {@link ResponseCache} while the stored responses are fresh, revalidates them
+ * when they are stale and stores the new responses. <br>
+ * The responses that can be stored, as told by their status and headers, are received as bytes, then read with the
+ * body handler of the caller. A body of unknown length is received as bytes until it outgrows the largest entry. The other ones are read straight with the handler of the caller, so that streams and
+ * large bodies are never held in memory.
+ */
+public final class CachingExchange implements Exchange {
+    private final Exchange next;
+    private final ResponseCache cache;
+
+    public CachingExchange(Exchange next, ResponseCache cache) {
+        this.next = next;
+        this.cache = cache;
+    }
+
+    @Override
+    public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler)
+            throws IOException, InterruptedException {
+        if (!cache.isCacheable(request))
+            return next.send(request, bodyHandler);
+
+        var lookup = cache.lookup(request);
+        if (lookup.fresh())
+            return fromEntry(request, lookup.entry(), bodyHandler);
+
+        var response = next.send(toSend(request, lookup.entry()), new StoringHandler<>(lookup.entry(), bodyHandler));
+        return handle(request, lookup.entry(), response, bodyHandler);
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) {
+        if (!cache.isCacheable(request))
+            return next.sendAsync(request, bodyHandler);
+
+        var lookup = cache.lookup(request);
+        try {
+            if (lookup.fresh())
+                return CompletableFuture.completedFuture(fromEntry(request, lookup.entry(), bodyHandler));
+        } catch (IOException | RuntimeException e) {
+            return CompletableFuture.failedFuture(Futures.unwrap(e));
+        }
+
+        var future = next.sendAsync(toSend(request, lookup.entry()), new StoringHandler<>(lookup.entry(), bodyHandler));
+        return Futures.thenComposeCancellable(future, response -> {
+            try {
+                return CompletableFuture.completedFuture(handle(request, lookup.entry(), response, bodyHandler));
+            } catch (IOException | RuntimeException e) {
+                return CompletableFuture.failedFuture(Futures.unwrap(e));
+            }
+        });
+    }
+
+    /**
+     * Adds the validators of the stale entry to the request, so that the server can answer 304 Not Modified
+     */
+    private static HttpRequest toSend(HttpRequest request, CacheEntry stale) {
+        if (stale == null || !stale.hasValidators())
+            return request;
+
+        var builder = HttpRequest.newBuilder(request, (name, value) -> true);
+        if (stale.getETag() != null)
+            builder.header("If-None-Match", stale.getETag());
+        if (stale.getLastModified() != null)
+            builder.header("If-Modified-Since", stale.getLastModified());
+        return builder.build();
+    }
+
+    private <T> HttpResponse<T> handle(HttpRequest request, CacheEntry stale, HttpResponse<Received<T>> response,
+                                       HttpResponse.BodyHandler<T> bodyHandler) throws IOException {
+        var received = response.body();
+        if (!received.buffered()) {
+            cache.skip(request, response);
+            return new MappedResponse<>(request, response, received.body());
+        }
+
+        if (response.statusCode() == 304 && stale != null)
+            return fromEntry(request, cache.refresh(request, stale, response), bodyHandler);
+
+        var bytes = new MappedResponse<>(response.request(), response, received.bytes());
+        cache.store(request, bytes);
+        return BufferedResponse.of(request, response.uri(), response.statusCode(), response.headers(),
+                response.version(), response.sslSession(), ByteBuffer.wrap(bytes.body()), bodyHandler);
+    }
+
+    private static <T> HttpResponse<T> fromEntry(HttpRequest request, CacheEntry entry,
+                                                 HttpResponse.BodyHandler<T> bodyHandler) throws IOException {
+        return BufferedResponse.of(request, entry.getUri(), entry.getStatusCode(), entry.getHeaders(),
+                entry.getVersion(), Optional.empty(), entry.getBody(), bodyHandler);
+    }
+
+    /**
+     * Receives the body as bytes when the response can be stored, or when it's the 304 revalidating the stale entry.
+     * A body without Content-Length is received as bytes up to the size of the largest entry, then passed to the
+     * handler of the caller with the rest. The other responses are read with the handler of the caller.
+     */
+    private final class StoringHandler<T> implements HttpResponse.BodyHandler<Received<T>> {
+        private final CacheEntry stale;
+        private final HttpResponse.BodyHandler<T> bodyHandler;
+
+        private StoringHandler(CacheEntry stale, HttpResponse.BodyHandler<T> bodyHandler) {
+            this.stale = stale;
+            this.bodyHandler = bodyHandler;
+        }
+
+        @Override
+        public HttpResponse.BodySubscriber<Received<T>> apply(HttpResponse.ResponseInfo responseInfo) {
+            if (responseInfo.statusCode() == 304 && stale != null)
+                return HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofByteArray(),
+                        Received::ofBytes);
+            if (cache.canStore(responseInfo)) {
+                if (responseInfo.headers().firstValue("Content-Length").isEmpty())
+                    return new BufferingSubscriber<>(cache.getMaxStoredBytes(), () -> bodyHandler.apply(responseInfo));
+                return HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofByteArray(),
+                        Received::ofBytes);
+            }
+            return HttpResponse.BodySubscribers.mapping(bodyHandler.apply(responseInfo),
+                    Received::ofBody);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package io.github.urusso.easyhttpclient.exchange;
+
+import io.github.urusso.easyhttpclient.exception.CircuitOpenException;
+import io.github.urusso.easyhttpclient.exception.DeserializationException;
+import io.github.urusso.easyhttpclient.interfaces.Exchange;
+import io.github.urusso.easyhttpclient.policy.CircuitBreaker;
+import io.github.urusso.easyhttpclient.utils.Futures;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sends the request if the circuit of its host isn't open, then reports the outcome to the {@link CircuitBreaker}. <br>
+ * A response whose body can't be deserialized is judged by its status code, also on the sync calls where the
+ * {@link java.net.http.HttpClient} throws the error as an {@link IOException}.
+ */
+public final class CircuitBreakerExchange implements Exchange {
+    private final Exchange next;
+    private final CircuitBreaker circuitBreaker;
+
+    public CircuitBreakerExchange(Exchange next, CircuitBreaker circuitBreaker) {
+        this.next = next;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler)
+            throws IOException, InterruptedException {
+        CircuitBreaker.Call call = circuitBreaker.acquire(request.uri());
+        var handler = new StatusRecordingHandler<>(bodyHandler);
+        try {
+            HttpResponse<T> response = next.send(request, handler);
+            complete(call, response.statusCode());
+            return response;
+        } catch (IOException e) {
+            if (Futures.isCausedBy(e, DeserializationException.class) && handler.statusCode() > 0)
+                complete(call, handler.statusCode());
+            else
+                call.onFailure();
+            throw e;
+        } finally {
+            call.release();
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) {
+        CircuitBreaker.Call call;
+        try {
+            call = circuitBreaker.acquire(request.uri());
+        } catch (CircuitOpenException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        var handler = new StatusRecordingHandler<>(bodyHandler);
+        CompletableFuture<HttpResponse<T>> future;
+        try {
+            future = next.sendAsync(request, handler);
+        } catch (RuntimeException e) {
+            call.release();
+            throw e;
+        }
+
+        future.whenComplete((response, error) -> {
+            if (response != null)
+                complete(call, response.statusCode());
+            else if (Futures.isCausedBy(error, DeserializationException.class) && handler.statusCode() > 0)
+                complete(call, handler.statusCode());
+            else if (Futures.unwrap(error) instanceof IOException)
+                call.onFailure();
+            else
+                call.release();
+        });
+        return future;
+    }
+
+    private void complete(CircuitBreaker.Call call, int statusCode) {
+        if (circuitBreaker.isFailure(statusCode))
+            call.onFailure();
+        else
+            call.onSuccess();
+    }
+}
@@ -0,0 +1,179 @@
+package io.github.urusso.easyhttpclient.exchange;
+
+import io.github.urusso.easyhttpclient.interfaces.Exchange;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+
+/**
+ * Single-flight for GET requests: while a GET with the same URI and headers is in flight, an identical request waits
+ * for its response instead of sending another call. <br>
+ * The response is received as bytes and read once for each body handler that {@code shareable} accepts, every waiter
+ * with that handler gets the same body. The other handlers read their own copy, e.g. each one needs its own
+ * {@link java.io.InputStream}. The call is cancelled when all its waiters cancel.
+ */
+public final class CoalescingExchange implements Exchange {
+    private final Exchange next;
+    private final Predicate<HttpResponse.BodyHandler<?>> shareable;
+    private final Map<Key, Flight> flights = new ConcurrentHashMap<>();
+    private final LongAdder coalesced = new LongAdder();
+
+    /**
+     * @param next {@link Exchange} sending the calls
+     * @param shareable tells if the body read by a handler can be handed to every waiter
+     */
+    public CoalescingExchange(Exchange next, Predicate<HttpResponse.BodyHandler<?>> shareable) {
+        this.next = next;
+        this.shareable = shareable;
+    }
+
+    /**
+     * @return requests that waited for a call already in flight instead of sending their own
+     */
+    public long getCoalescedCount() {
+        return coalesced.sum();
+    }
+
+    @Override
+    public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler)
+            throws IOException, InterruptedException {
+        if (!"GET".equals(request.method()))
+            return next.send(request, bodyHandler);
+
+        var future = sendAsync(request, bodyHandler);
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException)
+                throw ioException;
+            if (cause instanceof RuntimeException runtimeException)
+                throw runtimeException;
+            throw new IOException(cause);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) {
+        if (!"GET".equals(request.method()))
+            return next.sendAsync(request, bodyHandler);
+
+        var key = new Key(request.uri(), request.headers());
+        Flight[] created = new Flight[1];
+        Flight flight = flights.compute(key, (k, current) -> {
+            if (current != null && current.join())
+                return current;
+            created[0] = new Flight(k);
+            return created[0];
+        });
+
+        if (flight == created[0])
+            flight.start(request);
+        else
+            coalesced.increment();
+        return flight.waiter(request, bodyHandler);
+    }
+
+    private record Key(URI uri, HttpHeaders headers) {}
+
+    /**
+     * Call in flight and its waiters
+     */
+    private final class Flight {
+        private final Key key;
+        private final CompletableFuture<HttpResponse<byte[]>> response = new CompletableFuture<>();
+        private final Map<HttpResponse.BodyHandler<?>, CompletableFuture<HttpResponse<?>>> bodies =
+                new ConcurrentHashMap<>();
+        private CompletableFuture<HttpResponse<byte[]>> call;
+        private int waiters = 1;
+        private boolean abandoned;
+
+        private Flight(Key key) {
+            this.key = key;
+        }
+
+        private void start(HttpRequest request) {
+            var future = next.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray());
+            synchronized (this) {
+                call = future;
+                if (abandoned)
+                    future.cancel(true);
+            }
+            future.whenComplete((result, error) -> {
+                flights.remove(key, this);
+                if (error != null)
+                    response.completeExceptionally(error);
+                else
+                    response.complete(result);
+            });
+        }
+
+        /**
+         * @return false if all the waiters have cancelled, the call can't be joined anymore
+         */
+        private synchronized boolean join() {
+            if (abandoned)
+                return false;
+            waiters++;
+            return true;
+        }
+
+        private void leave() {
+            CompletableFuture<?> toCancel;
+            synchronized (this) {
+                if (--waiters > 0 || response.isDone())
+                    return;
+                abandoned = true;
+                toCancel = call;
+            }
+            flights.remove(key, this);
+            if (toCancel != null)
+                toCancel.cancel(true);
+            response.cancel(true);
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T> CompletableFuture<HttpResponse<T>> waiter(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) {
+            CompletableFuture<HttpResponse<T>> waiter;
+            if (shareable.test(bodyHandler)) {
+                var body = bodies.computeIfAbsent(bodyHandler, handler -> response.thenApply(
+                        received -> read(request, received, (HttpResponse.BodyHandler<?>) handler)));
+                // A dependent stage, so that a cancelled waiter doesn't cancel the body of the others
+                waiter = body.thenApply(read -> (HttpResponse<T>) read);
+            } else {
+                waiter = response.thenApply(received -> read(request, received, bodyHandler));
+            }
+
+            waiter.whenComplete((result, error) -> {
+                if (waiter.isCancelled())
+                    leave();
+            });
+            return waiter;
+        }
+    }
+
+    private static <T> HttpResponse<T> read(HttpRequest request, HttpResponse<byte[]> received,
+                                            HttpResponse.BodyHandler<T> bodyHandler) {
+        byte[] body = received.body() != null ? received.body() : new byte[0];
+        try {
+            return BufferedResponse.of(request, received.uri(), received.statusCode(), received.headers(),
+                    received.version(), received.sslSession(), ByteBuffer.wrap(body), bodyHandler);
+        } catch (IOException e) {
+            throw new CompletionException(e);
+        }
+    }
+}
@@ -0,0 +1,152 @@
+package io.github.urusso.easyhttpclient.exchange;
+
+import io.github.urusso.easyhttpclient.interfaces.Exchange;
+import io.github.urusso.easyhttpclient.policy.HedgePolicy;
+import io.github.urusso.easyhttpclient.utils.Futures;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends duplicates of the GET and HEAD requests still waiting for a response, as allowed by the {@link HedgePolicy}.
+ * The first response is returned and the other attempts are cancelled.
+ */
+public final class HedgingExchange implements Exchange {
+    private final Exchange next;
+    private final HedgePolicy hedgePolicy;
+
+    public HedgingExchange(Exchange next, HedgePolicy hedgePolicy) {
+        this.next = next;
+        this.hedgePolicy = hedgePolicy;
+    }
+
+    @Override
+    public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler)
+            throws IOException, InterruptedException {
+        if (!hedgePolicy.isHedgeable(request))
+            return next.send(request, bodyHandler);
+
+        var future = sendAsync(request, bodyHandler);
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof IOException ioException)
+                throw ioException;
+            if (cause instanceof RuntimeException runtimeException)
+                throw runtimeException;
+            throw new IOException(cause);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            throw e;
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) {
+        if (!hedgePolicy.isHedgeable(request))
+            return next.sendAsync(request, bodyHandler);
+
+        hedgePolicy.onRequest();
+        return new Hedge<>(request, bodyHandler).start();
+    }
+
+    /**
+     * Attempts of a single request
+     */
+    private final class Hedge<T> {
+        private final HttpRequest request;
+        private final HttpResponse.BodyHandler<T> bodyHandler;
+        private final CompletableFuture<HttpResponse<T>> result = new CompletableFuture<>();
+        private final List<CompletableFuture<HttpResponse<T>>> attempts = new ArrayList<>();
+        private int pending;
+        private int hedges;
+
+        private Hedge(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) {
+            this.request = request;
+            this.bodyHandler = bodyHandler;
+        }
+
+        private CompletableFuture<HttpResponse<T>> start() {
+            result.whenComplete((response, error) -> cancelAttempts());
+            launch(false);
+            scheduleHedge();
+            return result;
+        }
+
+        private void launch(boolean hedge) {
+            long start = System.nanoTime();
+            CompletableFuture<HttpResponse<T>> attempt;
+            try {
+                attempt = next.sendAsync(request, bodyHandler);
+            } catch (RuntimeException e) {
+                attempt = CompletableFuture.failedFuture(e);
+            }
+
+            synchronized (this) {
+                attempts.add(attempt);
+                pending++;
+            }
+            // The request may have been completed before the attempt was added
+            if (result.isDone())
+                attempt.cancel(true);
+
+            attempt.whenComplete((response, error) -> onAttemptComplete(hedge, start, response, error));
+        }
+
+        private void onAttemptComplete(boolean hedge, long start, HttpResponse<T> response, Throwable error) {
+            if (error == null) {
+                hedgePolicy.recordLatency(System.nanoTime() - start);
+                if (result.complete(response)) {
+                    if (hedge)
+                        hedgePolicy.onHedgeWon();
+                } else {
+                    Responses.discard(response);
+                }
+                return;
+            }
+
+            boolean last;
+            synchronized (this) {
+                last = --pending == 0;
+            }
+            // Failures are returned only when no other attempt can still answer
+            if (last)
+                result.completeExceptionally(Futures.unwrap(error));
+        }
+
+        private void scheduleHedge() {
+            CompletableFuture.delayedExecutor(hedgePolicy.hedgeDelayNanos(), TimeUnit.NANOSECONDS).execute(() -> {
+                if (result.isDone())
+                    return;
+
+                int sent;
+                synchronized (this) {
+                    sent = hedges;
+                }
+                if (hedgePolicy.tryHedge(sent)) {
+                    synchronized (this) {
+                        hedges++;
+                    }
+                    launch(true);
+                    scheduleHedge();
+                }
+            });
+        }
+
+        private void cancelAttempts() {
+            List<CompletableFuture<HttpResponse<T>>> toCancel;
+            synchronized (this) {
+                toCancel = new ArrayList<>(attempts);
+            }
+            for (CompletableFuture<HttpResponse<T>> attempt : toCancel)
+                attempt.cancel(true);
+        }
+    }
+}
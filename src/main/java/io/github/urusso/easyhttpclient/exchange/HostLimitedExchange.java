@@ -0,0 +1,49 @@
+package io.github.urusso.easyhttpclient.exchange;
+
+import io.github.urusso.easyhttpclient.interfaces.Exchange;
+import io.github.urusso.easyhttpclient.policy.HostLimiter;
+import io.github.urusso.easyhttpclient.utils.Futures;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Sends the request once the {@link HostLimiter} grants a permit for its host
+ */
+public final class HostLimitedExchange implements Exchange {
+    private final Exchange next;
+    private final HostLimiter hostLimiter;
+
+    public HostLimitedExchange(Exchange next, HostLimiter hostLimiter) {
+        this.next = next;
+        this.hostLimiter = hostLimiter;
+    }
+
+    @Override
+    public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler)
+            throws IOException, InterruptedException {
+        HostLimiter.Permit permit = hostLimiter.acquire(request.uri());
+        try {
+            return next.send(request, bodyHandler);
+        } finally {
+            permit.release();
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) {
+        return Futures.thenComposeCancellable(hostLimiter.acquireAsync(request.uri()), permit -> {
+            CompletableFuture<HttpResponse<T>> response;
+            try {
+                response = next.sendAsync(request, bodyHandler);
+            } catch (RuntimeException e) {
+                permit.release();
+                throw e;
+            }
+            response.whenComplete((r, error) -> permit.release());
+            return response;
+        });
+    }
+}
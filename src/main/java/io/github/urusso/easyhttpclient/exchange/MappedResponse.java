@@ -0,0 +1,48 @@
+package io.github.urusso.easyhttpclient.exchange;
+
+import javax.net.ssl.SSLSession;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.Optional;
+
+/**
+ * Response received by an exchange with a body handler of its own, returned to the caller with the body it asked for
+ *
+ * @param request {@link HttpRequest} of the caller
+ * @param received {@link HttpResponse} received, giving status, headers and the rest
+ * @param body body of the response returned
+ */
+record MappedResponse<T>(HttpRequest request, HttpResponse<?> received, T body) implements HttpResponse<T> {
+    @Override
+    public int statusCode() {
+        return received.statusCode();
+    }
+
+    @Override
+    public Optional<HttpResponse<T>> previousResponse() {
+        return Optional.empty();
+    }
+
+    @Override
+    public HttpHeaders headers() {
+        return received.headers();
+    }
+
+    @Override
+    public Optional<SSLSession> sslSession() {
+        return received.sslSession();
+    }
+
+    @Override
+    public URI uri() {
+        return received.uri();
+    }
+
+    @Override
+    public HttpClient.Version version() {
+        return received.version();
+    }
+}
@@ -0,0 +1,26 @@
+package io.github.urusso.easyhttpclient.exchange;
+
+/**
+ * Body received by an exchange that decides from the status and headers how to read it: as bytes, to be read with
+ * the handler of the caller later, or straight with the handler of the caller. <br>
+ * Closing it discards the body of the caller, for the responses dropped by the exchanges below.
+ *
+ * @param buffered true if the body was received as bytes
+ * @param bytes bytes of the body, if buffered
+ * @param body body read by the handler of the caller, if not buffered
+ */
+record Received<T>(boolean buffered, byte[] bytes, T body) implements AutoCloseable {
+
+    static <T> Received<T> ofBytes(byte[] bytes) {
+        return new Received<>(true, bytes != null ? bytes : new byte[0], null);
+    }
+
+    static <T> Received<T> ofBody(T body) {
+        return new Received<>(false, null, body);
+    }
+
+    @Override
+    public void close() {
+        Responses.discardBody(body);
+    }
+}
@@ -0,0 +1,38 @@
+package io.github.urusso.easyhttpclient.exchange;
+
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Helpers for the responses handled by the exchanges
+ */
+final class Responses {
+    private Responses() {}
+
+    /**
+     * Closes the body of a response that won't be returned if it's a stream, deletes it if it's a temporary file
+     *
+     * @param response {@link HttpResponse} dropped, can be null
+     */
+    static void discard(HttpResponse<?> response) {
+        if (response != null)
+            discardBody(response.body());
+    }
+
+    /**
+     * Closes the body of a response that won't be returned if it's a stream, deletes it if it's a temporary file
+     *
+     * @param body body dropped, can be null
+     */
+    static void discardBody(Object body) {
+        try {
+            if (body instanceof AutoCloseable closeable)
+                closeable.close();
+            else if (body instanceof Path file)
+                Files.deleteIfExists(file);
+        } catch (Exception e) {
+            // Nothing to do, the response is dropped anyway
+        }
+    }
+}
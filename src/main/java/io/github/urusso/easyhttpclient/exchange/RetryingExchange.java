@@ -0,0 +1,130 @@
+package io.github.urusso.easyhttpclient.exchange;
+
+import io.github.urusso.easyhttpclient.interfaces.Exchange;
+import io.github.urusso.easyhttpclient.policy.RetryPolicy;
+import io.github.urusso.easyhttpclient.utils.Futures;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends the request again as long as the {@link RetryPolicy} allows it.
+ * Async retries are scheduled with a delayed executor, no thread is blocked while waiting. <br>
+ * Responses with a status that can be retried are received as bytes, so the decision is taken from the status before
+ * the body is read: an error page that isn't the body the caller expects doesn't prevent the retry. When they're
+ * returned, the bytes are read with the body handler of the caller.
+ */
+public final class RetryingExchange implements Exchange {
+    private final Exchange next;
+    private final RetryPolicy retryPolicy;
+
+    public RetryingExchange(Exchange next, RetryPolicy retryPolicy) {
+        this.next = next;
+        this.retryPolicy = retryPolicy;
+    }
+
+    @Override
+    public <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler)
+            throws IOException, InterruptedException {
+        var handler = new RetryStatusHandler<>(bodyHandler);
+        for (int attempt = 1; ; attempt++) {
+            HttpResponse<Received<T>> response;
+            try {
+                response = next.send(request, handler);
+            } catch (IOException | RuntimeException e) {
+                long delay = retryPolicy.retryDelayNanos(request, null, e, attempt);
+                if (delay < 0)
+                    throw e;
+                TimeUnit.NANOSECONDS.sleep(delay);
+                continue;
+            }
+
+            long delay = retryPolicy.retryDelayNanos(request, response, null, attempt);
+            if (delay < 0)
+                return toResponse(request, response, bodyHandler);
+            Responses.discard(response);
+            TimeUnit.NANOSECONDS.sleep(delay);
+        }
+    }
+
+    @Override
+    public <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler) {
+        var result = new CompletableFuture<HttpResponse<T>>();
+        attempt(request, bodyHandler, new RetryStatusHandler<>(bodyHandler), 1, result);
+        return result;
+    }
+
+    private <T> void attempt(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler,
+                             RetryStatusHandler<T> handler, int attempt, CompletableFuture<HttpResponse<T>> result) {
+        if (result.isDone())
+            return;
+
+        CompletableFuture<HttpResponse<Received<T>>> future;
+        try {
+            future = next.sendAsync(request, handler);
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+
+        var current = future;
+        result.whenComplete((r, error) -> {
+            if (result.isCancelled())
+                current.cancel(true);
+        });
+        current.whenComplete((response, error) -> {
+            Throwable cause = error != null ? Futures.unwrap(error) : null;
+            long delay = retryPolicy.retryDelayNanos(request, response, cause, attempt);
+            if (delay < 0) {
+                if (cause != null) {
+                    result.completeExceptionally(cause);
+                    return;
+                }
+                try {
+                    result.complete(toResponse(request, response, bodyHandler));
+                } catch (IOException | RuntimeException e) {
+                    result.completeExceptionally(e);
+                }
+                return;
+            }
+
+            Responses.discard(response);
+            CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS)
+                    .execute(() -> attempt(request, bodyHandler, handler, attempt + 1, result));
+        });
+    }
+
+    /**
+     * Reads the bytes of a response with a status that could be retried with the handler of the caller
+     */
+    private static <T> HttpResponse<T> toResponse(HttpRequest request, HttpResponse<Received<T>> response,
+                                                  HttpResponse.BodyHandler<T> bodyHandler) throws IOException {
+        var received = response.body();
+        if (!received.buffered())
+            return new MappedResponse<>(request, response, received.body());
+        return BufferedResponse.of(request, response.uri(), response.statusCode(), response.headers(),
+                response.version(), response.sslSession(), ByteBuffer.wrap(received.bytes()), bodyHandler);
+    }
+
+    /**
+     * Receives the body as bytes when the status can be retried, reads it with the handler of the caller otherwise
+     */
+    private final class RetryStatusHandler<T> implements HttpResponse.BodyHandler<Received<T>> {
+        private final HttpResponse.BodyHandler<T> bodyHandler;
+
+        private RetryStatusHandler(HttpResponse.BodyHandler<T> bodyHandler) {
+            this.bodyHandler = bodyHandler;
+        }
+
+        @Override
+        public HttpResponse.BodySubscriber<Received<T>> apply(HttpResponse.ResponseInfo responseInfo) {
+            if (retryPolicy.isRetryStatus(responseInfo.statusCode()))
+                return HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.ofByteArray(),
+                        Received::ofBytes);
+            return HttpResponse.BodySubscribers.mapping(bodyHandler.apply(responseInfo), Received::ofBody);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package io.github.urusso.easyhttpclient.exchange;
+
+import java.net.http.HttpResponse;
+
+/**
+ * Body handler recording the status code of the response before its body is read. <br>
+ * When the body can't be deserialized the call fails without a response, the status still tells whether the host
+ * answered well, e.g. a 200 whose body isn't the expected DTO or a 503 whose error page isn't JSON.
+ */
+final class StatusRecordingHandler<T> implements HttpResponse.BodyHandler<T> {
+    private final HttpResponse.BodyHandler<T> bodyHandler;
+    private volatile int statusCode = -1;
+
+    StatusRecordingHandler(HttpResponse.BodyHandler<T> bodyHandler) {
+        this.bodyHandler = bodyHandler;
+    }
+
+    @Override
+    public HttpResponse.BodySubscriber<T> apply(HttpResponse.ResponseInfo responseInfo) {
+        statusCode = responseInfo.statusCode();
+        return bodyHandler.apply(responseInfo);
+    }
+
+    /**
+     * @return status code of the response, -1 if no response was received
+     */
+    int statusCode() {
+        return statusCode;
+    }
+}
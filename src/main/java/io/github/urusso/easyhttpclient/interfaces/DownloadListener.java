@@ -0,0 +1,14 @@
+package io.github.urusso.easyhttpclient.interfaces;
+
+/**
+ * Receives the progress of a download, each time a chunk of the body is written to the file
+ */
+@FunctionalInterface
+public interface DownloadListener {
+
+    /**
+     * @param downloadedBytes bytes in the file, including the ones of a resumed download
+     * @param totalBytes size of the complete file, -1 if the server didn't send it
+     */
+    void onProgress(long downloadedBytes, long totalBytes);
+}
@@ -1,8 +1,116 @@
 package io.github.urusso.easyhttpclient.interfaces;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
 
 public interface EasySerializer {
     <T> String serialize(T object) throws IOException;
     <T> T deserialize(String data, Class<T> clazz) throws IOException;
+
+    /**
+     * Prepares whatever the serializer needs for the classes ahead of the first call, e.g. when the application starts.
+     * The default implementation does nothing.
+     *
+     * @param classes classes of the request and response bodies
+     */
+    default void warmUp(Class<?>... classes) {
+    }
+
+    /**
+     * Content type of the serialized data, sent as Content-Type header when the request doesn't set one
+     *
+     * @return String content type
+     */
+    default String contentType() {
+        return "application/json";
+    }
+
+    /**
+     * Serializes an object to bytes ready to be sent. The default implementation encodes
+     * {@link #serialize(Object)} as UTF-8, implementations should override it to write the bytes directly
+     *
+     * @param object object to serialize
+     * @return serialized byte array
+     */
+    default <T> byte[] serializeToBytes(T object) throws IOException {
+        return serialize(object).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Serializes an object writing it to the stream, which is left open. The default implementation writes
+     * {@link #serializeToBytes(Object)}, implementations should override it to write the stream as they go.
+     *
+     * @param object object to serialize
+     * @param out {@link OutputStream} to write to
+     */
+    default <T> void serialize(T object, OutputStream out) throws IOException {
+        out.write(serializeToBytes(object));
+    }
+
+    /**
+     * Deserializes raw bytes. The default implementation decodes them as UTF-8 and delegates to
+     * {@link #deserialize(String, Class)} (returning null for a blank body), implementations should override it
+     * to parse the bytes directly
+     *
+     * @param data byte array to parse
+     * @param clazz class of the expected object
+     * @return deserialized object
+     */
+    default <T> T deserialize(byte[] data, Class<T> clazz) throws IOException {
+        String body = new String(data, StandardCharsets.UTF_8);
+        return body.isBlank() ? null : deserialize(body, clazz);
+    }
+
+    /**
+     * Deserializes a stream, reading it while the bytes arrive. The default implementation reads the whole stream
+     * and delegates to {@link #deserialize(byte[], Class)}, implementations should override it to parse the stream
+     * without buffering it. The stream is closed once the object is read.
+     *
+     * @param data {@link InputStream} to parse
+     * @param clazz class of the expected object
+     * @return deserialized object
+     */
+    default <T> T deserialize(InputStream data, Class<T> clazz) throws IOException {
+        try (data) {
+            return deserialize(data.readAllBytes(), clazz);
+        }
+    }
+
+    /**
+     * Deserializes a stream to a generic type, like {@code List<UserDto>}. The default implementation accepts only a
+     * {@link Class} and delegates to {@link #deserialize(InputStream, Class)}, implementations should override it to
+     * support parameterized types. The stream is closed once the object is read.
+     *
+     * @param data {@link InputStream} to parse
+     * @param type {@link Type} of the expected object
+     * @return deserialized object
+     */
+    @SuppressWarnings("unchecked")
+    default <T> T deserialize(InputStream data, Type type) throws IOException {
+        if (type instanceof Class<?> clazz)
+            return deserialize(data, (Class<T>) clazz);
+        throw new UnsupportedOperationException(getClass().getSimpleName() + " can't deserialize " + type.getTypeName());
+    }
+
+    /**
+     * Deserializes the elements of a top-level array, or a sequence of values like newline-delimited JSON, one at a
+     * time while the bytes arrive. The default implementation reads the whole stream as an array of {@code clazz},
+     * implementations should override it to parse an element only when the iterator asks for it.
+     * The stream is closed once all the elements are read.
+     *
+     * @param data {@link InputStream} to parse
+     * @param clazz class of the elements
+     * @return {@link Iterator} of the elements
+     */
+    @SuppressWarnings("unchecked")
+    default <T> Iterator<T> deserializeElements(InputStream data, Class<T> clazz) throws IOException {
+        T[] elements = deserialize(data, (Class<T[]>) clazz.arrayType());
+        return elements != null ? Arrays.asList(elements).iterator() : Collections.emptyIterator();
+    }
 }
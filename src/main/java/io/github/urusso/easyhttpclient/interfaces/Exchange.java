@@ -0,0 +1,18 @@
+package io.github.urusso.easyhttpclient.interfaces;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * A step of the pipeline that takes a converted {@link HttpRequest} to the server.
+ * Each step adds its own behavior (limits, retries, caching...) and delegates to the next one,
+ * the last one sends the request with the JDK {@link java.net.http.HttpClient}.
+ */
+public interface Exchange {
+    <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler)
+            throws IOException, InterruptedException;
+
+    <T> CompletableFuture<HttpResponse<T>> sendAsync(HttpRequest request, HttpResponse.BodyHandler<T> bodyHandler);
+}
@@ -0,0 +1,24 @@
+package io.github.urusso.easyhttpclient.interfaces;
+
+/**
+ * Algorithm computing the concurrency limit of an {@link io.github.urusso.easyhttpclient.policy.AdaptiveLimiter}
+ * from the latency and the outcome of the completed requests. <br>
+ * The limiter calls it under its own lock, so implementations can keep state without being thread-safe.
+ */
+public interface LimitAlgorithm {
+    /**
+     * @return the limit used before any request completes
+     */
+    int getInitialLimit();
+
+    /**
+     * Computes the new limit after a request completed
+     *
+     * @param limit current limit
+     * @param rttNanos time between sending the request and receiving the response
+     * @param inFlight requests in flight when the request was sent, itself included
+     * @param dropped true if the request failed or the server answered that it's overloaded
+     * @return new limit, at least 1
+     */
+    int update(int limit, long rttNanos, int inFlight, boolean dropped);
+}
@@ -0,0 +1,115 @@
+package io.github.urusso.easyhttpclient.policy;
+
+import io.github.urusso.easyhttpclient.exception.LimitExceededException;
+import io.github.urusso.easyhttpclient.interfaces.LimitAlgorithm;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Client-wide concurrency limit that adapts to the latency and the errors of the completed requests,
+ * as computed by its {@link LimitAlgorithm}. Requests over the limit are rejected right away with
+ * {@link LimitExceededException}, the ones that have to wait can be queued by a {@link HostLimiter}.
+ */
+public class AdaptiveLimiter {
+    private final LimitAlgorithm algorithm;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+    private volatile int limit;
+
+    private AdaptiveLimiter(LimitAlgorithm algorithm) {
+        if(algorithm == null)
+            throw new IllegalArgumentException("LimitAlgorithm can't be null");
+
+        this.algorithm = algorithm;
+        this.limit = Math.max(1, algorithm.getInitialLimit());
+    }
+
+    /**
+     * @param algorithm {@link LimitAlgorithm} like {@link AimdLimit} or {@link GradientLimit}
+     * @return {@link AdaptiveLimiter}
+     */
+    public static AdaptiveLimiter of(LimitAlgorithm algorithm) {
+        return new AdaptiveLimiter(algorithm);
+    }
+
+    /**
+     * Takes a slot for a request
+     *
+     * @return {@link Token} to complete with the outcome of the request
+     * @throws LimitExceededException if the limit is reached
+     */
+    public Token acquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= limit) {
+                rejected.increment();
+                throw new LimitExceededException("Concurrency limit of " + limit + " reached");
+            }
+            if (inFlight.compareAndSet(current, current + 1))
+                return new Token(current + 1);
+        }
+    }
+
+    public int getLimit() {
+        return limit;
+    }
+
+    public int getInFlight() {
+        return inFlight.get();
+    }
+
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    private synchronized void update(long rttNanos, int inFlightAtStart, boolean dropped) {
+        limit = Math.max(1, algorithm.update(limit, rttNanos, inFlightAtStart, dropped));
+    }
+
+    /**
+     * Slot of a single request. Only the first call completing it has effect.
+     */
+    public final class Token {
+        private final long startNanos = System.nanoTime();
+        private final int inFlightAtStart;
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        private Token(int inFlightAtStart) {
+            this.inFlightAtStart = inFlightAtStart;
+        }
+
+        /**
+         * Completes the request with the status code received. 429 and 502-504 tell that the server is overloaded.
+         */
+        public void onResponse(int statusCode) {
+            boolean overloaded = statusCode == 429 || (statusCode >= 502 && statusCode <= 504);
+            complete(true, overloaded);
+        }
+
+        /**
+         * Completes a request that failed with an I/O error or a timeout
+         */
+        public void onError() {
+            complete(true, true);
+        }
+
+        /**
+         * Frees the slot without updating the limit, for requests whose outcome says nothing about the server
+         * (cancelled or interrupted)
+         */
+        public void release() {
+            complete(false, false);
+        }
+
+        private void complete(boolean sample, boolean dropped) {
+            if (!completed.compareAndSet(false, true))
+                return;
+
+            if (sample)
+                update(System.nanoTime() - startNanos, inFlightAtStart, dropped);
+            inFlight.decrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package io.github.urusso.easyhttpclient.policy;
+
+import io.github.urusso.easyhttpclient.interfaces.LimitAlgorithm;
+
+import java.time.Duration;
+
+/**
+ * Additive increase, multiplicative decrease: every request answered within {@code latencyThreshold} raises the
+ * limit by one, every request dropped or slower than the threshold multiplies it by {@code backoffRatio}. <br>
+ * The limit only grows while it's being used, with at least half of it in flight, so that a lightly loaded client
+ * doesn't climb to {@code maxLimit} without ever testing it.
+ */
+public class AimdLimit implements LimitAlgorithm {
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final long latencyThresholdNanos;
+
+    private AimdLimit(int initialLimit, int minLimit, int maxLimit, double backoffRatio, Duration latencyThreshold) {
+        if(minLimit < 1 || maxLimit < minLimit)
+            throw new IllegalArgumentException("Limits must satisfy 1 <= minLimit <= maxLimit");
+        if(initialLimit < minLimit || initialLimit > maxLimit)
+            throw new IllegalArgumentException("initialLimit must be between minLimit and maxLimit");
+        if(backoffRatio <= 0 || backoffRatio >= 1)
+            throw new IllegalArgumentException("backoffRatio must be between 0 and 1");
+        if(latencyThreshold == null || latencyThreshold.isNegative() || latencyThreshold.isZero())
+            throw new IllegalArgumentException("latencyThreshold must be positive");
+
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.backoffRatio = backoffRatio;
+        this.latencyThresholdNanos = latencyThreshold.toNanos();
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    @Override
+    public int update(int limit, long rttNanos, int inFlight, boolean dropped) {
+        if (dropped || rttNanos > latencyThresholdNanos)
+            return Math.max(minLimit, (int) (limit * backoffRatio));
+
+        if (inFlight * 2 < limit)
+            return limit;
+        return Math.min(maxLimit, limit + 1);
+    }
+
+    //*******************************************
+    //***************** BUILDER *****************
+    //*******************************************
+    public static class Builder {
+        private int initialLimit = 20;
+        private int minLimit = 1;
+        private int maxLimit = 200;
+        private double backoffRatio = 0.9;
+        private Duration latencyThreshold = Duration.ofSeconds(5);
+
+        private Builder() {}
+
+        public Builder initialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+            return this;
+        }
+
+        public Builder minLimit(int minLimit) {
+            this.minLimit = minLimit;
+            return this;
+        }
+
+        public Builder maxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+            return this;
+        }
+
+        public Builder backoffRatio(double backoffRatio) {
+            this.backoffRatio = backoffRatio;
+            return this;
+        }
+
+        public Builder latencyThreshold(Duration latencyThreshold) {
+            this.latencyThreshold = latencyThreshold;
+            return this;
+        }
+
+        public AimdLimit build() {
+            return new AimdLimit(initialLimit, minLimit, maxLimit, backoffRatio, latencyThreshold);
+        }
+    }
+}
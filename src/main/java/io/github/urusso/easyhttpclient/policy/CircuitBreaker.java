@@ -0,0 +1,327 @@
+package io.github.urusso.easyhttpclient.policy;
+
+import io.github.urusso.easyhttpclient.constant.CircuitState;
+import io.github.urusso.easyhttpclient.exception.CircuitOpenException;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.IntPredicate;
+
+/**
+ * Circuit breaker for each host (URI authority). <br>
+ * While CLOSED the outcomes of the calls are counted over a sliding time window: once at least {@code minimumCalls}
+ * are counted and the share of failures reaches {@code failureRateThreshold}, the circuit becomes OPEN and the calls
+ * fail right away with {@link CircuitOpenException}. After {@code openDuration} it becomes HALF_OPEN and lets
+ * {@code halfOpenCalls} trial calls through: if all of them succeed it's CLOSED again, a single failure opens it. <br>
+ * No lock is taken: the state moves with compare-and-set and the window is made of buckets of {@link LongAdder}.
+ */
+public class CircuitBreaker {
+    private final double failureRateThreshold;
+    private final int minimumCalls;
+    private final long bucketNanos;
+    private final int buckets;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final IntPredicate failureStatus;
+    private final Map<String, HostCircuit> hosts = new ConcurrentHashMap<>();
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder opened = new LongAdder();
+
+    private CircuitBreaker(Builder builder) {
+        if(builder.failureRateThreshold <= 0 || builder.failureRateThreshold > 1)
+            throw new IllegalArgumentException("failureRateThreshold must be between 0 (excluded) and 1");
+        if(builder.minimumCalls < 1)
+            throw new IllegalArgumentException("minimumCalls must be at least 1");
+        if(builder.buckets < 1)
+            throw new IllegalArgumentException("buckets must be at least 1");
+        if(builder.window == null || builder.window.toMillis() < builder.buckets)
+            throw new IllegalArgumentException("window can't be null or shorter than a millisecond per bucket");
+        if(builder.openDuration == null || builder.openDuration.isNegative())
+            throw new IllegalArgumentException("openDuration can't be null or negative");
+        if(builder.halfOpenCalls < 1)
+            throw new IllegalArgumentException("halfOpenCalls must be at least 1");
+        if(builder.failureStatus == null)
+            throw new IllegalArgumentException("failureStatus can't be null");
+
+        this.failureRateThreshold = builder.failureRateThreshold;
+        this.minimumCalls = builder.minimumCalls;
+        this.bucketNanos = builder.window.toNanos() / builder.buckets;
+        this.buckets = builder.buckets;
+        this.openNanos = builder.openDuration.toNanos();
+        this.halfOpenCalls = builder.halfOpenCalls;
+        this.failureStatus = builder.failureStatus;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Lets a call towards the host of the URI through, if its circuit allows it
+     *
+     * @param uri {@link URI} of the request
+     * @return {@link Call} to complete with the outcome of the request
+     * @throws CircuitOpenException if the circuit of the host is open, or half open with all the trial calls running
+     */
+    public Call acquire(URI uri) {
+        String host = hostOf(uri);
+        HostCircuit circuit = hosts.computeIfAbsent(host, h -> new HostCircuit());
+
+        while (true) {
+            Phase phase = circuit.phase.get();
+            switch (phase.state) {
+                case CLOSED:
+                    return new Call(circuit, phase);
+                case OPEN:
+                    if (System.nanoTime() - phase.since < openNanos)
+                        throw reject(host, phase);
+                    circuit.phase.compareAndSet(phase, new Phase(CircuitState.HALF_OPEN));
+                    break;
+                default:
+                    if (phase.trials.incrementAndGet() <= halfOpenCalls)
+                        return new Call(circuit, phase);
+                    phase.trials.decrementAndGet();
+                    throw reject(host, phase);
+            }
+        }
+    }
+
+    /**
+     * @param statusCode status code of a response
+     * @return true if the response counts as a failure of the host, 5xx by default
+     */
+    public boolean isFailure(int statusCode) {
+        return failureStatus.test(statusCode);
+    }
+
+    /**
+     * @param host authority of the URI, like "blabla.org:8080"
+     * @return {@link CircuitState} of the host
+     */
+    public CircuitState getState(String host) {
+        HostCircuit circuit = hosts.get(host);
+        return circuit != null ? circuit.phase.get().state : CircuitState.CLOSED;
+    }
+
+    /**
+     * @return calls failed right away because a circuit was open
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return times a circuit has been opened
+     */
+    public long getOpenedCount() {
+        return opened.sum();
+    }
+
+    private CircuitOpenException reject(String host, Phase phase) {
+        rejected.increment();
+        return new CircuitOpenException("Circuit " + phase.state + " for host " + host);
+    }
+
+    private static String hostOf(URI uri) {
+        String authority = uri.getRawAuthority();
+        return authority != null ? authority : "";
+    }
+
+    /**
+     * Single call through a circuit. Only the first call completing it has effect.
+     */
+    public final class Call {
+        private final HostCircuit circuit;
+        private final Phase phase;
+        private final AtomicBoolean completed = new AtomicBoolean();
+
+        private Call(HostCircuit circuit, Phase phase) {
+            this.circuit = circuit;
+            this.phase = phase;
+        }
+
+        public void onSuccess() {
+            if (completed.compareAndSet(false, true))
+                circuit.onOutcome(phase, true);
+        }
+
+        /**
+         * Completes a call failed with an I/O error, a timeout or a failure status code
+         */
+        public void onFailure() {
+            if (completed.compareAndSet(false, true))
+                circuit.onOutcome(phase, false);
+        }
+
+        /**
+         * Completes a call whose outcome says nothing about the host (cancelled or rejected before being sent)
+         */
+        public void release() {
+            if (completed.compareAndSet(false, true) && phase.state == CircuitState.HALF_OPEN)
+                phase.trials.decrementAndGet();
+        }
+    }
+
+    /**
+     * State of a circuit, replaced as a whole on each transition. The calls completed after the transition
+     * update the phase they started in, which is no longer the current one, so they have no effect.
+     */
+    private final class Phase {
+        private final CircuitState state;
+        private final long since = System.nanoTime();
+        private final Window window;
+        private final AtomicInteger trials = new AtomicInteger();
+        private final AtomicInteger successes = new AtomicInteger();
+
+        private Phase(CircuitState state) {
+            this.state = state;
+            this.window = state == CircuitState.CLOSED ? new Window() : null;
+        }
+    }
+
+    private final class HostCircuit {
+        private final AtomicReference<Phase> phase = new AtomicReference<>(new Phase(CircuitState.CLOSED));
+
+        private void onOutcome(Phase current, boolean success) {
+            if (current.state == CircuitState.CLOSED) {
+                current.window.record(success);
+                if (!success && current.window.isFailing() && phase.compareAndSet(current, new Phase(CircuitState.OPEN)))
+                    opened.increment();
+            } else if (current.state == CircuitState.HALF_OPEN) {
+                if (!success) {
+                    if (phase.compareAndSet(current, new Phase(CircuitState.OPEN)))
+                        opened.increment();
+                } else if (current.successes.incrementAndGet() >= halfOpenCalls) {
+                    phase.compareAndSet(current, new Phase(CircuitState.CLOSED));
+                }
+            }
+        }
+    }
+
+    /**
+     * Outcomes of the calls over the last {@code window}, split in buckets. A bucket left behind by the time
+     * is replaced by the first call landing in its slot again.
+     */
+    private final class Window {
+        private final AtomicReferenceArray<Bucket> slots = new AtomicReferenceArray<>(buckets);
+
+        private void record(boolean success) {
+            long epoch = System.nanoTime() / bucketNanos;
+            int slot = (int) Math.floorMod(epoch, (long) buckets);
+
+            Bucket bucket = slots.get(slot);
+            while (bucket == null || bucket.epoch != epoch) {
+                if (bucket != null && bucket.epoch > epoch)
+                    return;
+                Bucket fresh = new Bucket(epoch);
+                bucket = slots.compareAndSet(slot, bucket, fresh) ? fresh : slots.get(slot);
+            }
+
+            if (success)
+                bucket.successes.increment();
+            else
+                bucket.failures.increment();
+        }
+
+        private boolean isFailing() {
+            long oldest = System.nanoTime() / bucketNanos - buckets + 1;
+            long failures = 0;
+            long total = 0;
+            for (int i = 0; i < buckets; i++) {
+                Bucket bucket = slots.get(i);
+                if (bucket != null && bucket.epoch >= oldest) {
+                    long bucketFailures = bucket.failures.sum();
+                    failures += bucketFailures;
+                    total += bucketFailures + bucket.successes.sum();
+                }
+            }
+            return total >= minimumCalls && failures >= failureRateThreshold * total;
+        }
+    }
+
+    private static final class Bucket {
+        private final long epoch;
+        private final LongAdder successes = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+
+        private Bucket(long epoch) {
+            this.epoch = epoch;
+        }
+    }
+
+    //*******************************************
+    //***************** BUILDER *****************
+    //*******************************************
+    public static class Builder {
+        private double failureRateThreshold = 0.5;
+        private int minimumCalls = 20;
+        private Duration window = Duration.ofSeconds(10);
+        private int buckets = 10;
+        private Duration openDuration = Duration.ofSeconds(30);
+        private int halfOpenCalls = 3;
+        private IntPredicate failureStatus = status -> status >= 500;
+
+        private Builder() {}
+
+        /**
+         * Share of failed calls opening the circuit, 0.5 by default
+         */
+        public Builder failureRateThreshold(double failureRateThreshold) {
+            this.failureRateThreshold = failureRateThreshold;
+            return this;
+        }
+
+        /**
+         * Calls needed in the window before the failure rate is checked, 20 by default
+         */
+        public Builder minimumCalls(int minimumCalls) {
+            this.minimumCalls = minimumCalls;
+            return this;
+        }
+
+        /**
+         * Time the outcomes are counted over, 10s by default, split in {@code buckets} (10 by default)
+         */
+        public Builder window(Duration window, int buckets) {
+            this.window = window;
+            this.buckets = buckets;
+            return this;
+        }
+
+        /**
+         * Time the circuit stays open before letting trial calls through, 30s by default
+         */
+        public Builder openDuration(Duration openDuration) {
+            this.openDuration = openDuration;
+            return this;
+        }
+
+        /**
+         * Trial calls that must succeed to close a half-open circuit, 3 by default
+         */
+        public Builder halfOpenCalls(int halfOpenCalls) {
+            this.halfOpenCalls = halfOpenCalls;
+            return this;
+        }
+
+        /**
+         * Status codes counted as failures, 5xx by default. I/O errors and timeouts always are.
+         */
+        public Builder failureStatus(IntPredicate failureStatus) {
+            this.failureStatus = failureStatus;
+            return this;
+        }
+
+        public CircuitBreaker build() {
+            return new CircuitBreaker(this);
+        }
+    }
+}
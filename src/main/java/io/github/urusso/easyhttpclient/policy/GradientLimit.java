@@ -0,0 +1,127 @@
+package io.github.urusso.easyhttpclient.policy;
+
+import io.github.urusso.easyhttpclient.interfaces.LimitAlgorithm;
+
+/**
+ * Gradient-style limit: compares the latency of each request with a long-term average of the latency.
+ * While the two stay close the limit grows by about its square root, when the latency climbs over the average
+ * (or requests are dropped) the limit shrinks down to half. Changes are smoothed over several requests. <br>
+ * The limit only grows while it's being used, with at least half of it in flight. <br>
+ * Not thread-safe, it's meant to be used by a single {@link AdaptiveLimiter}.
+ */
+public class GradientLimit implements LimitAlgorithm {
+    private final int initialLimit;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double tolerance;
+    private final int window;
+    private final double smoothing;
+
+    private double estimatedLimit;
+    private double longRttNanos;
+
+    private GradientLimit(int initialLimit, int minLimit, int maxLimit, double tolerance, int window, double smoothing) {
+        if(minLimit < 1 || maxLimit < minLimit)
+            throw new IllegalArgumentException("Limits must satisfy 1 <= minLimit <= maxLimit");
+        if(initialLimit < minLimit || initialLimit > maxLimit)
+            throw new IllegalArgumentException("initialLimit must be between minLimit and maxLimit");
+        if(tolerance < 1)
+            throw new IllegalArgumentException("tolerance must be at least 1");
+        if(window < 1)
+            throw new IllegalArgumentException("window must be at least 1");
+        if(smoothing <= 0 || smoothing > 1)
+            throw new IllegalArgumentException("smoothing must be between 0 (excluded) and 1");
+
+        this.initialLimit = initialLimit;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.tolerance = tolerance;
+        this.window = window;
+        this.smoothing = smoothing;
+        this.estimatedLimit = initialLimit;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    @Override
+    public int getInitialLimit() {
+        return initialLimit;
+    }
+
+    @Override
+    public int update(int limit, long rttNanos, int inFlight, boolean dropped) {
+        if (longRttNanos == 0)
+            longRttNanos = rttNanos;
+        else
+            longRttNanos += (rttNanos - longRttNanos) / window;
+
+        double gradient = dropped ? 0.5 : Math.max(0.5, Math.min(1.0, tolerance * longRttNanos / Math.max(1, rttNanos)));
+        // A limit that isn't being used tells nothing about how much more the server can take
+        double queueSize = inFlight * 2 >= estimatedLimit ? Math.sqrt(estimatedLimit) : 0;
+        double newLimit = estimatedLimit * gradient + queueSize;
+
+        estimatedLimit = estimatedLimit * (1 - smoothing) + newLimit * smoothing;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, estimatedLimit));
+
+        return (int) estimatedLimit;
+    }
+
+    //*******************************************
+    //***************** BUILDER *****************
+    //*******************************************
+    public static class Builder {
+        private int initialLimit = 20;
+        private int minLimit = 1;
+        private int maxLimit = 200;
+        private double tolerance = 1.5;
+        private int window = 100;
+        private double smoothing = 0.2;
+
+        private Builder() {}
+
+        public Builder initialLimit(int initialLimit) {
+            this.initialLimit = initialLimit;
+            return this;
+        }
+
+        public Builder minLimit(int minLimit) {
+            this.minLimit = minLimit;
+            return this;
+        }
+
+        public Builder maxLimit(int maxLimit) {
+            this.maxLimit = maxLimit;
+            return this;
+        }
+
+        /**
+         * How much the latency can grow over the long-term average before the limit is reduced, 1.5 by default
+         */
+        public Builder tolerance(double tolerance) {
+            this.tolerance = tolerance;
+            return this;
+        }
+
+        /**
+         * Number of requests the long-term latency average is computed over, 100 by default
+         */
+        public Builder window(int window) {
+            this.window = window;
+            return this;
+        }
+
+        /**
+         * Weight of each new limit over the current one, 0.2 by default
+         */
+        public Builder smoothing(double smoothing) {
+            this.smoothing = smoothing;
+            return this;
+        }
+
+        public GradientLimit build() {
+            return new GradientLimit(initialLimit, minLimit, maxLimit, tolerance, window, smoothing);
+        }
+    }
+}
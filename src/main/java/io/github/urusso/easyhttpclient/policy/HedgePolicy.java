@@ -0,0 +1,215 @@
+package io.github.urusso.easyhttpclient.policy;
+
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Tells when a duplicate of a slow GET or HEAD request is sent. The first response wins and the other attempts
+ * are cancelled. <br>
+ * The hedge is sent after a fixed {@code delay}, or after a {@code percentile} of the latency recently observed,
+ * once enough responses have been received. <br>
+ * The extra load is capped by {@code maxHedgeRatio}: each request earns a share of a hedge and a hedge is sent
+ * only if a whole one has been earned, so that at most that ratio of the requests is duplicated.
+ */
+public class HedgePolicy {
+    private static final int MIN_SAMPLES = 20;
+    private static final int MAX_HEDGE_TOKENS = 10;
+
+    private final long delayNanos;
+    private final double percentile;
+    private final int maxHedges;
+    private final double maxHedgeRatio;
+
+    private final long[] samples;
+    private final int recomputeEvery;
+    private int sampleCount;
+    private int nextSample;
+    private int sinceRecompute;
+    private volatile long percentileNanos = -1;
+
+    private double hedgeTokens;
+
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder hedgesSent = new LongAdder();
+    private final LongAdder hedgesWon = new LongAdder();
+
+    private HedgePolicy(Duration delay, double percentile, int window, int maxHedges, double maxHedgeRatio) {
+        if(delay == null || delay.isNegative())
+            throw new IllegalArgumentException("delay can't be null or negative");
+        if(percentile < 0 || percentile >= 1)
+            throw new IllegalArgumentException("percentile must be between 0 (disabled) and 1 (excluded)");
+        if(window < MIN_SAMPLES)
+            throw new IllegalArgumentException("window must be at least " + MIN_SAMPLES);
+        if(maxHedges < 1)
+            throw new IllegalArgumentException("maxHedges must be at least 1");
+        if(maxHedgeRatio <= 0 || maxHedgeRatio > maxHedges)
+            throw new IllegalArgumentException("maxHedgeRatio must be positive and not greater than maxHedges");
+
+        this.delayNanos = delay.toNanos();
+        this.percentile = percentile;
+        this.maxHedges = maxHedges;
+        this.maxHedgeRatio = maxHedgeRatio;
+        this.samples = new long[window];
+        this.recomputeEvery = Math.max(1, window / 10);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @param request {@link HttpRequest} to send
+     * @return true if duplicates of the request can be sent, meaning it's a GET or a HEAD
+     */
+    public boolean isHedgeable(HttpRequest request) {
+        String method = request.method();
+        return "GET".equals(method) || "HEAD".equals(method);
+    }
+
+    /**
+     * Counts a hedgeable request, earning its share of a hedge
+     */
+    public synchronized void onRequest() {
+        requests.increment();
+        hedgeTokens = Math.min(MAX_HEDGE_TOKENS, hedgeTokens + maxHedgeRatio);
+    }
+
+    /**
+     * @return nanoseconds to wait for a response before sending a hedge
+     */
+    public long hedgeDelayNanos() {
+        long current = percentileNanos;
+        return current >= 0 ? current : delayNanos;
+    }
+
+    /**
+     * Takes a hedge from the ones earned by the requests
+     *
+     * @param hedgesAlreadySent hedges already sent for the same request
+     * @return true if the hedge can be sent
+     */
+    public synchronized boolean tryHedge(int hedgesAlreadySent) {
+        if (hedgesAlreadySent >= maxHedges || hedgeTokens < 1)
+            return false;
+
+        hedgeTokens--;
+        hedgesSent.increment();
+        return true;
+    }
+
+    /**
+     * Counts a request whose response came from a hedge
+     */
+    public void onHedgeWon() {
+        hedgesWon.increment();
+    }
+
+    /**
+     * Records the latency of an attempt answered by the server
+     */
+    public void recordLatency(long latencyNanos) {
+        if (percentile == 0)
+            return;
+
+        synchronized (samples) {
+            samples[nextSample] = latencyNanos;
+            nextSample = (nextSample + 1) % samples.length;
+            sampleCount = Math.min(sampleCount + 1, samples.length);
+            sinceRecompute++;
+
+            if (sampleCount >= MIN_SAMPLES && (sinceRecompute >= recomputeEvery || percentileNanos < 0)) {
+                long[] sorted = Arrays.copyOf(samples, sampleCount);
+                Arrays.sort(sorted);
+                percentileNanos = sorted[(int) Math.ceil(percentile * sampleCount) - 1];
+                sinceRecompute = 0;
+            }
+        }
+    }
+
+    /**
+     * @return hedgeable requests sent so far
+     */
+    public long getRequestCount() {
+        return requests.sum();
+    }
+
+    /**
+     * @return duplicate requests sent so far
+     */
+    public long getHedgesSent() {
+        return hedgesSent.sum();
+    }
+
+    /**
+     * @return requests whose response came from a hedge instead of the first attempt
+     */
+    public long getHedgesWon() {
+        return hedgesWon.sum();
+    }
+
+    /**
+     * @return current wait before sending a hedge
+     */
+    public Duration getHedgeDelay() {
+        return Duration.ofNanos(hedgeDelayNanos());
+    }
+
+    //*******************************************
+    //***************** BUILDER *****************
+    //*******************************************
+    public static class Builder {
+        private Duration delay = Duration.ofMillis(100);
+        private double percentile;
+        private int window = 1000;
+        private int maxHedges = 1;
+        private double maxHedgeRatio = 0.1;
+
+        private Builder() {}
+
+        /**
+         * Wait before sending a hedge, 100ms by default. With a percentile it's used until enough latencies are known.
+         */
+        public Builder delay(Duration delay) {
+            this.delay = delay;
+            return this;
+        }
+
+        /**
+         * Sends the hedge after this percentile of the latency, like 0.95, instead of the fixed delay
+         */
+        public Builder percentile(double percentile) {
+            this.percentile = percentile;
+            return this;
+        }
+
+        /**
+         * Number of recent latencies the percentile is computed over, 1000 by default
+         */
+        public Builder window(int window) {
+            this.window = window;
+            return this;
+        }
+
+        /**
+         * Duplicates sent at most for a single request, 1 by default
+         */
+        public Builder maxHedges(int maxHedges) {
+            this.maxHedges = maxHedges;
+            return this;
+        }
+
+        /**
+         * Hedges sent at most per request, on average, 0.1 by default
+         */
+        public Builder maxHedgeRatio(double maxHedgeRatio) {
+            this.maxHedgeRatio = maxHedgeRatio;
+            return this;
+        }
+
+        public HedgePolicy build() {
+            return new HedgePolicy(delay, percentile, window, maxHedges, maxHedgeRatio);
+        }
+    }
+}
@@ -0,0 +1,291 @@
+package io.github.urusso.easyhttpclient.policy;
+
+import io.github.urusso.easyhttpclient.exception.LimitExceededException;
+
+import java.net.URI;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caps the requests in flight towards each host (URI authority). Requests over the cap wait in a bounded queue
+ * for at most {@code maxWait}, when the queue is full they are rejected right away with
+ * {@link LimitExceededException}. <br>
+ * Waiting never blocks a thread on the async path: a queued request is a {@link CompletableFuture}
+ * completed by the release of a permit.
+ */
+public class HostLimiter {
+    private final int maxInFlightPerHost;
+    private final int maxQueuedPerHost;
+    private final Duration maxWait;
+    private final Map<String, HostState> hosts = new ConcurrentHashMap<>();
+
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+    private final LongAdder queuedAcquired = new LongAdder();
+    private final LongAdder totalWaitNanos = new LongAdder();
+
+    private HostLimiter(int maxInFlightPerHost, int maxQueuedPerHost, Duration maxWait) {
+        if(maxInFlightPerHost < 1)
+            throw new IllegalArgumentException("maxInFlightPerHost must be at least 1");
+        if(maxQueuedPerHost < 0)
+            throw new IllegalArgumentException("maxQueuedPerHost can't be negative");
+        if(maxWait == null || maxWait.isNegative())
+            throw new IllegalArgumentException("maxWait can't be null or negative");
+
+        this.maxInFlightPerHost = maxInFlightPerHost;
+        this.maxQueuedPerHost = maxQueuedPerHost;
+        this.maxWait = maxWait;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Waits for a permit to send a request to the host of the URI
+     *
+     * @param uri {@link URI} of the request
+     * @return {@link Permit} to release once the response is received
+     * @throws LimitExceededException if the queue is full or the permit isn't granted within {@code maxWait}
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public Permit acquire(URI uri) throws InterruptedException {
+        var future = acquireAsync(uri);
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            throw (RuntimeException) e.getCause();
+        } catch (InterruptedException e) {
+            // The permit may have been granted in the meantime
+            if (!future.cancel(false) && !future.isCompletedExceptionally())
+                future.join().release();
+            throw e;
+        }
+    }
+
+    /**
+     * Requests a permit to send a request to the host of the URI, without blocking
+     *
+     * @param uri {@link URI} of the request
+     * @return {@link CompletableFuture} completed with the {@link Permit}, or exceptionally with
+     * {@link LimitExceededException} if the queue is full or the permit isn't granted within {@code maxWait}.
+     * Cancelling it removes the request from the queue.
+     */
+    public CompletableFuture<Permit> acquireAsync(URI uri) {
+        String host = hostOf(uri);
+
+        while (true) {
+            HostState state = hosts.computeIfAbsent(host, HostState::new);
+            CompletableFuture<Permit> waiter;
+
+            synchronized (state) {
+                if (state.retired)
+                    continue;
+
+                if (state.inFlight < maxInFlightPerHost) {
+                    state.inFlight++;
+                    return CompletableFuture.completedFuture(new Permit(state));
+                }
+                if (state.queue.size() >= maxQueuedPerHost) {
+                    rejected.increment();
+                    return CompletableFuture.failedFuture(
+                            new LimitExceededException("Too many requests queued for host " + host));
+                }
+
+                waiter = new CompletableFuture<>();
+                state.queue.add(new Waiter(waiter, System.nanoTime()));
+            }
+
+            CompletableFuture.delayedExecutor(maxWait.toNanos(), TimeUnit.NANOSECONDS)
+                    .execute(() -> state.timeout(waiter));
+            waiter.whenComplete((permit, error) -> {
+                if (error != null)
+                    state.remove(waiter);
+            });
+
+            return waiter;
+        }
+    }
+
+    /**
+     * @param host authority of the URI, like "blabla.org:8080"
+     * @return requests currently in flight towards the host
+     */
+    public int getInFlight(String host) {
+        HostState state = hosts.get(host);
+        if (state == null)
+            return 0;
+        synchronized (state) {
+            return state.inFlight;
+        }
+    }
+
+    /**
+     * @param host authority of the URI, like "blabla.org:8080"
+     * @return requests currently waiting for a permit for the host
+     */
+    public int getQueueDepth(String host) {
+        HostState state = hosts.get(host);
+        if (state == null)
+            return 0;
+        synchronized (state) {
+            return state.queue.size();
+        }
+    }
+
+    /**
+     * @return requests currently waiting for a permit, for all the hosts
+     */
+    public int getTotalQueueDepth() {
+        int total = 0;
+        for (HostState state : hosts.values()) {
+            synchronized (state) {
+                total += state.queue.size();
+            }
+        }
+        return total;
+    }
+
+    /**
+     * @return requests rejected because the queue of their host was full
+     */
+    public long getRejectedCount() {
+        return rejected.sum();
+    }
+
+    /**
+     * @return requests rejected because they waited more than {@code maxWait}
+     */
+    public long getTimedOutCount() {
+        return timedOut.sum();
+    }
+
+    /**
+     * @return requests that got a permit after waiting in the queue
+     */
+    public long getQueuedAcquiredCount() {
+        return queuedAcquired.sum();
+    }
+
+    /**
+     * @return total time spent in the queue by the requests that got a permit after waiting
+     */
+    public Duration getTotalWaitTime() {
+        return Duration.ofNanos(totalWaitNanos.sum());
+    }
+
+    private static String hostOf(URI uri) {
+        String authority = uri.getRawAuthority();
+        return authority != null ? authority : "";
+    }
+
+    /**
+     * Permit to send a single request. Releasing it more than once has no effect.
+     */
+    public final class Permit {
+        private final HostState state;
+        private final AtomicBoolean released = new AtomicBoolean();
+
+        private Permit(HostState state) {
+            this.state = state;
+        }
+
+        public void release() {
+            if (released.compareAndSet(false, true))
+                state.release();
+        }
+    }
+
+    private record Waiter(CompletableFuture<Permit> future, long queuedAt) {}
+
+    private final class HostState {
+        private final String host;
+        private final ArrayDeque<Waiter> queue = new ArrayDeque<>();
+        private int inFlight;
+        private boolean retired;
+
+        private HostState(String host) {
+            this.host = host;
+        }
+
+        /**
+         * Hands the permit over to the first waiter still in the queue, or frees it.
+         * Waiters are completed outside the lock, so their callbacks can't run while holding it.
+         */
+        private void release() {
+            while (true) {
+                Waiter next;
+                synchronized (this) {
+                    next = queue.poll();
+                    if (next == null) {
+                        inFlight--;
+                        if (inFlight == 0) {
+                            retired = true;
+                            hosts.remove(host, this);
+                        }
+                        return;
+                    }
+                }
+
+                if (next.future().complete(new Permit(this))) {
+                    queuedAcquired.increment();
+                    totalWaitNanos.add(System.nanoTime() - next.queuedAt());
+                    return;
+                }
+            }
+        }
+
+        private synchronized boolean remove(CompletableFuture<Permit> waiter) {
+            return queue.removeIf(w -> w.future() == waiter);
+        }
+
+        /**
+         * Fails the waiter if it's still in the queue. A waiter already polled by {@link #release()}
+         * is getting the permit and is left alone.
+         */
+        private void timeout(CompletableFuture<Permit> waiter) {
+            if (remove(waiter)) {
+                timedOut.increment();
+                waiter.completeExceptionally(
+                        new LimitExceededException("Timed out waiting for a permit for host " + host));
+            }
+        }
+    }
+
+    //*******************************************
+    //***************** BUILDER *****************
+    //*******************************************
+    public static class Builder {
+        private int maxInFlightPerHost = 64;
+        private int maxQueuedPerHost = 256;
+        private Duration maxWait = Duration.ofSeconds(10);
+
+        private Builder() {}
+
+        public Builder maxInFlightPerHost(int maxInFlightPerHost) {
+            this.maxInFlightPerHost = maxInFlightPerHost;
+            return this;
+        }
+
+        public Builder maxQueuedPerHost(int maxQueuedPerHost) {
+            this.maxQueuedPerHost = maxQueuedPerHost;
+            return this;
+        }
+
+        public Builder maxWait(Duration maxWait) {
+            this.maxWait = maxWait;
+            return this;
+        }
+
+        public HostLimiter build() {
+            return new HostLimiter(maxInFlightPerHost, maxQueuedPerHost, maxWait);
+        }
+    }
+}
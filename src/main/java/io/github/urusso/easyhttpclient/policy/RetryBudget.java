@@ -0,0 +1,63 @@
+package io.github.urusso.easyhttpclient.policy;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token bucket capping the retries: each retry takes a token, tokens are refilled at {@code tokensPerSecond}
+ * up to {@code maxTokens}. During an outage the retries are limited to the refill rate, whatever the number of
+ * failing requests, so they can't multiply the load on the server. <br>
+ * A single budget can be shared by several {@link RetryPolicy}.
+ */
+public class RetryBudget {
+    private final double tokensPerNano;
+    private final double maxTokens;
+    private double tokens;
+    private long lastRefill;
+
+    private RetryBudget(double tokensPerSecond, int maxTokens) {
+        if(tokensPerSecond <= 0)
+            throw new IllegalArgumentException("tokensPerSecond must be positive");
+        if(maxTokens < 1)
+            throw new IllegalArgumentException("maxTokens must be at least 1");
+
+        this.tokensPerNano = tokensPerSecond / TimeUnit.SECONDS.toNanos(1);
+        this.maxTokens = maxTokens;
+        this.tokens = maxTokens;
+        this.lastRefill = System.nanoTime();
+    }
+
+    /**
+     * @param tokensPerSecond retries allowed per second in the long run
+     * @param maxTokens retries allowed in a burst, the bucket starts full
+     * @return {@link RetryBudget}
+     */
+    public static RetryBudget of(double tokensPerSecond, int maxTokens) {
+        return new RetryBudget(tokensPerSecond, maxTokens);
+    }
+
+    /**
+     * @return true if a token was taken, false if the budget is exhausted
+     */
+    public synchronized boolean tryAcquire() {
+        refill();
+        if (tokens < 1)
+            return false;
+
+        tokens--;
+        return true;
+    }
+
+    /**
+     * @return whole tokens currently available
+     */
+    public synchronized int getAvailableTokens() {
+        refill();
+        return (int) tokens;
+    }
+
+    private void refill() {
+        long now = System.nanoTime();
+        tokens = Math.min(maxTokens, tokens + (now - lastRefill) * tokensPerNano);
+        lastRefill = now;
+    }
+}
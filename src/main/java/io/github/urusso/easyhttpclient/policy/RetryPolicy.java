@@ -0,0 +1,292 @@
+package io.github.urusso.easyhttpclient.policy;
+
+import io.github.urusso.easyhttpclient.constant.HttpMethod;
+import io.github.urusso.easyhttpclient.exception.DeserializationException;
+import io.github.urusso.easyhttpclient.exception.SerializationException;
+import io.github.urusso.easyhttpclient.utils.Futures;
+
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+/**
+ * Tells whether a failed attempt is retried and after how long. <br>
+ * The wait grows exponentially from {@code initialBackoff} up to {@code maxBackoff}, with a random jitter so that
+ * the clients failing together don't retry together. A {@code Retry-After} header on the response is used instead,
+ * unless it asks for more than {@code maxRetryAfter}: then the response is returned as it is. <br>
+ * Every retry takes a token from the {@link RetryBudget}, when it's exhausted the last outcome is returned. <br>
+ * Only idempotent methods are retried by default, and only requests whose body can be sent again
+ * (the ones with an InputStream body can't).
+ */
+public class RetryPolicy {
+    private static final int MAX_EXPONENT = 30;
+
+    private final int maxAttempts;
+    private final long initialBackoffNanos;
+    private final long maxBackoffNanos;
+    private final double multiplier;
+    private final double jitter;
+    private final long maxRetryAfterNanos;
+    private final Set<Integer> retryStatusCodes;
+    private final Predicate<Throwable> retryOn;
+    private final Set<String> retryMethods;
+    private final RetryBudget budget;
+
+    private final LongAdder retries = new LongAdder();
+    private final LongAdder budgetExhausted = new LongAdder();
+
+    private RetryPolicy(Builder builder) {
+        if(builder.maxAttempts < 1)
+            throw new IllegalArgumentException("maxAttempts must be at least 1");
+        if(builder.initialBackoff == null || builder.initialBackoff.isNegative())
+            throw new IllegalArgumentException("initialBackoff can't be null or negative");
+        if(builder.maxBackoff == null || builder.maxBackoff.compareTo(builder.initialBackoff) < 0)
+            throw new IllegalArgumentException("maxBackoff can't be null or lower than initialBackoff");
+        if(builder.multiplier < 1)
+            throw new IllegalArgumentException("multiplier must be at least 1");
+        if(builder.jitter < 0 || builder.jitter > 1)
+            throw new IllegalArgumentException("jitter must be between 0 and 1");
+        if(builder.maxRetryAfter == null || builder.maxRetryAfter.isNegative())
+            throw new IllegalArgumentException("maxRetryAfter can't be null or negative");
+        if(builder.retryOn == null)
+            throw new IllegalArgumentException("retryOn can't be null");
+
+        this.maxAttempts = builder.maxAttempts;
+        this.initialBackoffNanos = builder.initialBackoff.toNanos();
+        this.maxBackoffNanos = builder.maxBackoff.toNanos();
+        this.multiplier = builder.multiplier;
+        this.jitter = builder.jitter;
+        this.maxRetryAfterNanos = builder.maxRetryAfter.toNanos();
+        this.retryStatusCodes = Set.copyOf(builder.retryStatusCodes);
+        this.retryOn = builder.retryOn;
+        this.retryMethods = builder.retryMethods.stream().map(Enum::name).collect(Collectors.toUnmodifiableSet());
+        this.budget = builder.budget != null ? builder.budget : RetryBudget.of(10, 100);
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return {@link RetryPolicy} with the default options
+     */
+    public static RetryPolicy defaults() {
+        return builder().build();
+    }
+
+    /**
+     * @param statusCode status code of a response
+     * @return true if responses with the status code can be retried
+     */
+    public boolean isRetryStatus(int statusCode) {
+        return retryStatusCodes.contains(statusCode);
+    }
+
+    /**
+     * Decides whether the outcome of an attempt is retried, taking a token from the budget if it is
+     *
+     * @param request {@link HttpRequest} sent
+     * @param response {@link HttpResponse} received, null if the attempt failed
+     * @param error exception thrown by the attempt, null if a response was received
+     * @param attempt number of the attempt, starting from 1
+     * @return nanoseconds to wait before the next attempt, or -1 if the outcome has to be returned
+     */
+    public long retryDelayNanos(HttpRequest request, HttpResponse<?> response, Throwable error, int attempt) {
+        if (attempt >= maxAttempts || !isRetryable(request))
+            return -1;
+
+        long delay;
+        if (response != null) {
+            if (!retryStatusCodes.contains(response.statusCode()))
+                return -1;
+            long retryAfter = retryAfterNanos(response);
+            if (retryAfter > maxRetryAfterNanos)
+                return -1;
+            delay = retryAfter >= 0 ? retryAfter : backoffNanos(attempt);
+        } else {
+            if (error == null || !retryOn.test(error))
+                return -1;
+            delay = backoffNanos(attempt);
+        }
+
+        if (!budget.tryAcquire()) {
+            budgetExhausted.increment();
+            return -1;
+        }
+        retries.increment();
+        return delay;
+    }
+
+    /**
+     * @return retries scheduled so far
+     */
+    public long getRetryCount() {
+        return retries.sum();
+    }
+
+    /**
+     * @return retries not made because the budget was exhausted
+     */
+    public long getBudgetExhaustedCount() {
+        return budgetExhausted.sum();
+    }
+
+    public RetryBudget getBudget() {
+        return budget;
+    }
+
+    private boolean isRetryable(HttpRequest request) {
+        if (!retryMethods.contains(request.method()))
+            return false;
+        // Publishers of unknown length (InputStream) can be subscribed only once
+        return request.bodyPublisher().map(publisher -> publisher.contentLength() >= 0).orElse(true);
+    }
+
+    /**
+     * Exponential backoff with jitter: the wait is reduced by a random share up to {@code jitter}
+     */
+    private long backoffNanos(int attempt) {
+        double backoff = initialBackoffNanos * Math.pow(multiplier, Math.min(attempt - 1, MAX_EXPONENT));
+        double capped = Math.min(maxBackoffNanos, backoff);
+        return (long) (capped * (1 - jitter * ThreadLocalRandom.current().nextDouble()));
+    }
+
+    /**
+     * @return nanoseconds asked by the Retry-After header, as seconds or HTTP date, or -1 if missing or invalid
+     */
+    private static long retryAfterNanos(HttpResponse<?> response) {
+        String value = response.headers().firstValue("Retry-After").orElse(null);
+        if (value == null || value.isBlank())
+            return -1;
+
+        value = value.trim();
+        try {
+            return TimeUnit.SECONDS.toNanos(Math.max(0, Long.parseLong(value)));
+        } catch (NumberFormatException e) {
+            // Not a number of seconds, must be a date
+        }
+        try {
+            var date = ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME);
+            return Math.max(0, Duration.between(ZonedDateTime.now(date.getZone()), date).toNanos());
+        } catch (DateTimeParseException | ArithmeticException e) {
+            return -1;
+        }
+    }
+
+    //*******************************************
+    //***************** BUILDER *****************
+    //*******************************************
+    public static class Builder {
+        private int maxAttempts = 3;
+        private Duration initialBackoff = Duration.ofMillis(100);
+        private Duration maxBackoff = Duration.ofSeconds(10);
+        private double multiplier = 2;
+        private double jitter = 0.5;
+        private Duration maxRetryAfter = Duration.ofSeconds(30);
+        private Set<Integer> retryStatusCodes = Set.of(429, 502, 503, 504);
+        private Predicate<Throwable> retryOn = error -> error instanceof IOException
+                && !Futures.isCausedBy(error, DeserializationException.class)
+                && !Futures.isCausedBy(error, SerializationException.class);
+        private Set<HttpMethod> retryMethods = EnumSet.of(HttpMethod.GET, HttpMethod.HEAD, HttpMethod.PUT, HttpMethod.DELETE);
+        private RetryBudget budget;
+
+        private Builder() {}
+
+        /**
+         * Attempts made at most, including the first one, 3 by default
+         */
+        public Builder maxAttempts(int maxAttempts) {
+            this.maxAttempts = maxAttempts;
+            return this;
+        }
+
+        /**
+         * Wait before the first retry, 100ms by default
+         */
+        public Builder initialBackoff(Duration initialBackoff) {
+            this.initialBackoff = initialBackoff;
+            return this;
+        }
+
+        /**
+         * Longest wait between two attempts, 10s by default
+         */
+        public Builder maxBackoff(Duration maxBackoff) {
+            this.maxBackoff = maxBackoff;
+            return this;
+        }
+
+        /**
+         * Growth of the wait at each retry, 2 by default
+         */
+        public Builder multiplier(double multiplier) {
+            this.multiplier = multiplier;
+            return this;
+        }
+
+        /**
+         * Highest share of the wait randomly removed, from 0 (no jitter) to 1 (full jitter), 0.5 by default
+         */
+        public Builder jitter(double jitter) {
+            this.jitter = jitter;
+            return this;
+        }
+
+        /**
+         * Longest Retry-After honored, 30s by default
+         */
+        public Builder maxRetryAfter(Duration maxRetryAfter) {
+            this.maxRetryAfter = maxRetryAfter;
+            return this;
+        }
+
+        /**
+         * Status codes retried, 429, 502, 503 and 504 by default
+         */
+        public Builder retryStatusCodes(Integer... statusCodes) {
+            this.retryStatusCodes = Set.of(statusCodes);
+            return this;
+        }
+
+        /**
+         * Exceptions retried, any IOException by default (connection errors and timeouts included) but the ones caused
+         * by a body that couldn't be serialized or deserialized, which the sync calls throw as IOException
+         */
+        public Builder retryOn(Predicate<Throwable> retryOn) {
+            this.retryOn = retryOn;
+            return this;
+        }
+
+        /**
+         * Methods retried, GET, HEAD, PUT and DELETE by default
+         */
+        public Builder retryMethods(HttpMethod... methods) {
+            this.retryMethods = methods.length == 0 ? EnumSet.noneOf(HttpMethod.class) : EnumSet.copyOf(Arrays.asList(methods));
+            return this;
+        }
+
+        /**
+         * Budget capping the retries, 10 per second with bursts of 100 by default
+         */
+        public Builder budget(RetryBudget budget) {
+            this.budget = budget;
+            return this;
+        }
+
+        public RetryPolicy build() {
+            return new RetryPolicy(this);
+        }
+    }
+}
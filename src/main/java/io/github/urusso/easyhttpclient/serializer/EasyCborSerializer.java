@@ -0,0 +1,24 @@
+package io.github.urusso.easyhttpclient.serializer;
+
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+
+/**
+ * {@link EasyJacksonSerializer} of the CBOR binary format (RFC 8949), with the same readers and writers cached per
+ * type. The bodies are smaller than JSON and parsed without decoding text. <br>
+ * It needs {@code com.fasterxml.jackson.dataformat:jackson-dataformat-cbor} on the classpath. Being binary, the format
+ * can't be written to or read from a String, only the byte and stream methods work.
+ */
+public class EasyCborSerializer extends EasyJacksonSerializer {
+    public static final String CONTENT_TYPE = "application/cbor";
+
+    public EasyCborSerializer() {
+        this(new CBORMapper());
+    }
+
+    /**
+     * @param mapper {@link CBORMapper} used as it is, it shouldn't be configured anymore once the serializer is used
+     */
+    public EasyCborSerializer(CBORMapper mapper) {
+        super(mapper, CONTENT_TYPE);
+    }
+}
@@ -1,20 +1,229 @@
 package io.github.urusso.easyhttpclient.serializer;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.Module;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import io.github.urusso.easyhttpclient.interfaces.EasySerializer;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
 
+/**
+ * {@link EasySerializer} backed by a Jackson {@link ObjectMapper}. <br>
+ * An {@link ObjectReader} and an {@link ObjectWriter} are built once for each type and reused by every call, so
+ * the type and its (de)serializer aren't looked up again each time. {@link #warmUp(Class[])} builds them ahead of
+ * the first call. The mapper can be tuned through the {@link Builder}, e.g. with the Blackbird module.
+ */
 public class EasyJacksonSerializer implements EasySerializer {
-    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private final ObjectMapper mapper;
+    private final String contentType;
+    private final Map<Type, ObjectReader> readers = new ConcurrentHashMap<>();
+    private final Map<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    public EasyJacksonSerializer() {
+        this(new ObjectMapper());
+    }
+
+    /**
+     * @param mapper {@link ObjectMapper} used as it is, it shouldn't be configured anymore once the serializer is used
+     */
+    public EasyJacksonSerializer(ObjectMapper mapper) {
+        this(mapper, "application/json");
+    }
+
+    /**
+     * @param mapper {@link ObjectMapper} used as it is, e.g. a mapper of a binary format like {@code CBORMapper}
+     * @param contentType media type of the format written and read by the mapper
+     */
+    public EasyJacksonSerializer(ObjectMapper mapper, String contentType) {
+        this.mapper = Objects.requireNonNull(mapper, "mapper");
+        this.contentType = Objects.requireNonNull(contentType, "contentType");
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Builds the readers and writers of the classes, so that the first calls don't pay for it
+     *
+     * @param classes classes of the request and response bodies
+     */
+    @Override
+    public void warmUp(Class<?>... classes) {
+        for (Class<?> clazz : classes) {
+            reader(clazz);
+            writer(clazz);
+        }
+    }
+
+    @Override
+    public String contentType() {
+        return contentType;
+    }
 
     @Override
     public <T> String serialize(T object) throws IOException {
-        return MAPPER.writeValueAsString(object);
+        return writer(object).writeValueAsString(object);
+    }
+
+    @Override
+    public <T> byte[] serializeToBytes(T object) throws IOException {
+        return writer(object).writeValueAsBytes(object);
+    }
+
+    /**
+     * Writes through a generator that leaves the stream open, Jackson would close it by default
+     */
+    @Override
+    public <T> void serialize(T object, OutputStream out) throws IOException {
+        ObjectWriter writer = writer(object);
+        try (JsonGenerator generator = writer.createGenerator(out).disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            writer.writeValue(generator, object);
+        }
     }
 
     @Override
     public <T> T deserialize(String data, Class<T> clazz) throws IOException {
-        return MAPPER.readValue(data, clazz);
+        return reader(clazz).readValue(data);
+    }
+
+    @Override
+    public <T> T deserialize(byte[] data, Class<T> clazz) throws IOException {
+        ObjectReader reader = reader(clazz);
+        return read(reader, reader.createParser(data));
+    }
+
+    /**
+     * Parses the stream token by token, so the body is never copied into a String
+     */
+    @Override
+    public <T> T deserialize(InputStream data, Class<T> clazz) throws IOException {
+        ObjectReader reader = reader(clazz);
+        return read(reader, reader.createParser(data));
+    }
+
+    @Override
+    public <T> T deserialize(InputStream data, Type type) throws IOException {
+        ObjectReader reader = reader(type);
+        return read(reader, reader.createParser(data));
+    }
+
+    /**
+     * Unwraps a top-level array, otherwise reads the values one after the other, e.g. newline-delimited JSON.
+     * Jackson binds each element when the iterator gets to it, and closes the stream after the last one.
+     */
+    @Override
+    public <T> Iterator<T> deserializeElements(InputStream data, Class<T> clazz) throws IOException {
+        return reader(clazz).readValues(data);
+    }
+
+    private ObjectReader reader(Type type) {
+        return readers.computeIfAbsent(type, key -> mapper.readerFor(mapper.getTypeFactory().constructType(key)));
+    }
+
+    /**
+     * The writer of the runtime class serializes like {@link ObjectMapper#writeValueAsBytes(Object)}
+     */
+    private ObjectWriter writer(Object object) {
+        return object != null ? writer(object.getClass()) : mapper.writer();
+    }
+
+    private ObjectWriter writer(Class<?> clazz) {
+        return writers.computeIfAbsent(clazz, mapper::writerFor);
+    }
+
+    /**
+     * Reads a single value from the parser and closes it.
+     * An empty or whitespace-only input is deserialized to null, like a blank String body.
+     *
+     * @param reader {@link ObjectReader} of the expected type
+     * @param parser {@link JsonParser} positioned before the first token
+     * @return deserialized object or null
+     */
+    private static <T> T read(ObjectReader reader, JsonParser parser) throws IOException {
+        try (parser) {
+            if (parser.nextToken() == null)
+                return null;
+
+            return reader.readValue(parser);
+        }
+    }
+
+    //*******************************************
+    //***************** BUILDER *****************
+    //*******************************************
+    public static class Builder {
+        private ObjectMapper mapper;
+        private String contentType = "application/json";
+        private final List<Module> modules = new ArrayList<>();
+        private final List<Consumer<ObjectMapper>> configurations = new ArrayList<>();
+        private final List<Class<?>> warmUpClasses = new ArrayList<>();
+
+        private Builder() {}
+
+        /**
+         * {@link ObjectMapper} the modules and configurations are applied to. Default a new {@link ObjectMapper}.
+         */
+        public Builder mapper(ObjectMapper mapper) {
+            this.mapper = mapper;
+            return this;
+        }
+
+        /**
+         * Media type of the format of the mapper, to be set with the mapper of a format other than JSON.
+         * Default application/json.
+         */
+        public Builder contentType(String contentType) {
+            this.contentType = contentType;
+            return this;
+        }
+
+        /**
+         * Registers a Jackson module, e.g. {@code new BlackbirdModule()} or {@code new JavaTimeModule()}. Default none.
+         */
+        public Builder module(Module module) {
+            this.modules.add(module);
+            return this;
+        }
+
+        /**
+         * Configures the mapper, e.g. {@code mapper -> mapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)}.
+         * Applied after the modules, in the order they're added. Default none.
+         */
+        public Builder configure(Consumer<ObjectMapper> configuration) {
+            this.configurations.add(configuration);
+            return this;
+        }
+
+        /**
+         * Classes whose readers and writers are built with the serializer, see {@link #warmUp(Class[])}. Default none.
+         */
+        public Builder warmUp(Class<?>... classes) {
+            this.warmUpClasses.addAll(List.of(classes));
+            return this;
+        }
+
+        public EasyJacksonSerializer build() {
+            ObjectMapper objectMapper = mapper != null ? mapper : new ObjectMapper();
+            modules.forEach(objectMapper::registerModule);
+            configurations.forEach(configuration -> configuration.accept(objectMapper));
+
+            var serializer = new EasyJacksonSerializer(objectMapper, contentType);
+            serializer.warmUp(warmUpClasses.toArray(Class<?>[]::new));
+            return serializer;
+        }
     }
 }
@@ -0,0 +1,113 @@
+package io.github.urusso.easyhttpclient.utils;
+
+import java.io.OutputStream;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stream of bytes written into a chain of buffers of a {@link BufferPool}. Each buffer is twice as large as the
+ * previous one up to the largest class, or large enough for the rest of the body when its size is expected. <br>
+ * It collects the {@link PooledBody} responses and the serialized request bodies.
+ */
+final class BufferChain extends OutputStream {
+    private final BufferPool pool;
+    private final long expected;
+    private final List<ByteBuffer> buffers = new ArrayList<>();
+    private ByteBuffer current;
+    private long size;
+
+    /**
+     * @param pool {@link BufferPool} the buffers are acquired from
+     * @param expected size the body is expected to have, e.g. its Content-Length, negative if it isn't known
+     */
+    BufferChain(BufferPool pool, long expected) {
+        this.pool = pool;
+        this.expected = expected;
+    }
+
+    @Override
+    public void write(int b) {
+        ensureSpace();
+        current.put((byte) b);
+        size++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) {
+        while (len > 0) {
+            ensureSpace();
+            int length = Math.min(len, current.remaining());
+            current.put(b, off, length);
+            off += length;
+            len -= length;
+            size += length;
+        }
+    }
+
+    /**
+     * Copies the remaining bytes of {@code source}, moving its position to its limit
+     */
+    void write(ByteBuffer source) {
+        while (source.hasRemaining()) {
+            ensureSpace();
+            int length = Math.min(source.remaining(), current.remaining());
+            current.put(current.position(), source, source.position(), length);
+            current.position(current.position() + length);
+            source.position(source.position() + length);
+            size += length;
+        }
+    }
+
+    long size() {
+        return size;
+    }
+
+    /**
+     * @return buffers with the bytes written, ready to be read, owned by the caller from now on
+     */
+    List<ByteBuffer> finish() {
+        if (current != null) {
+            if (current.position() > 0)
+                buffers.add(current.flip());
+            else
+                pool.release(current);
+            current = null;
+        }
+        return buffers;
+    }
+
+    /**
+     * Publishes the bytes written with their exact length. The buffers go back to the pool once the request is
+     * released, see {@link PooledRequestBody}.
+     *
+     * @return {@link HttpRequest.BodyPublisher} of the bytes written
+     */
+    HttpRequest.BodyPublisher toPublisher() {
+        List<ByteBuffer> written = finish();
+        if (size == 0)
+            return HttpRequest.BodyPublishers.noBody();
+
+        return new PooledRequestBody(pool, written);
+    }
+
+    /**
+     * Gives the buffers back to the pool, when the bytes written aren't needed anymore
+     */
+    void release() {
+        finish().forEach(pool::release);
+        buffers.clear();
+    }
+
+    private void ensureSpace() {
+        if (current != null && current.hasRemaining())
+            return;
+
+        long rest = expected - size;
+        ByteBuffer next = pool.acquire(rest > 0 ? rest : pool.nextCapacity(current));
+        if (current != null)
+            buffers.add(current.flip());
+        current = next;
+    }
+}
@@ -0,0 +1,260 @@
+package io.github.urusso.easyhttpclient.utils;
+
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Pool of the buffers that {@link PooledBody} responses are collected into and request bodies are serialized into.
+ * Large bodies then don't allocate new arrays sized to the payload. <br>
+ * Buffers come in size classes, powers of two from {@code minBufferSize} to {@code maxBufferSize}. A body larger than
+ * the largest class is held in a chain of buffers, so no single allocation goes over it. Each platform thread keeps a
+ * few released buffers of each class for itself. The rest go to a queue shared by the threads, up to
+ * {@code maxPooledBuffers} for each class, and the GC takes the ones over it. Virtual threads use the shared queue only.
+ */
+public final class BufferPool {
+    private static final Cleaner CLEANER = Cleaner.create();
+    private static final System.Logger LOGGER = System.getLogger(BufferPool.class.getName());
+
+    private final int minBufferSize;
+    private final int maxBufferSize;
+    private final boolean direct;
+    private final int maxPooledBuffers;
+    private final int threadCacheBuffers;
+    private final boolean leakDetection;
+    private final int minShift;
+    private final Queue<ByteBuffer>[] shared;
+    private final AtomicInteger[] sharedCounts;
+    private final ThreadLocal<ArrayDeque<ByteBuffer>[]> threadCaches;
+    private final LongAdder allocations = new LongAdder();
+    private final LongAdder leaks = new LongAdder();
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private BufferPool(Builder builder) {
+        this.minBufferSize = builder.minBufferSize;
+        this.maxBufferSize = builder.maxBufferSize;
+        this.direct = builder.direct;
+        this.maxPooledBuffers = builder.maxPooledBuffers;
+        this.threadCacheBuffers = builder.threadCacheBuffers;
+        this.leakDetection = builder.leakDetection;
+        this.minShift = Integer.numberOfTrailingZeros(minBufferSize);
+
+        int classes = Integer.numberOfTrailingZeros(maxBufferSize) - minShift + 1;
+        this.shared = new Queue[classes];
+        this.sharedCounts = new AtomicInteger[classes];
+        for (int i = 0; i < classes; i++) {
+            shared[i] = new ConcurrentLinkedQueue<>();
+            sharedCounts[i] = new AtomicInteger();
+        }
+        this.threadCaches = ThreadLocal.withInitial(() -> {
+            ArrayDeque<ByteBuffer>[] cache = new ArrayDeque[classes];
+            for (int i = 0; i < classes; i++)
+                cache[i] = new ArrayDeque<>(threadCacheBuffers);
+            return cache;
+        });
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @return buffers allocated because none of their class was pooled
+     */
+    public long getAllocationCount() {
+        return allocations.sum();
+    }
+
+    /**
+     * @return {@link PooledBody} collected by the GC without being closed, counted only with leak detection on
+     */
+    public long getLeakCount() {
+        return leaks.sum();
+    }
+
+    /**
+     * @param capacity bytes wanted
+     * @return empty buffer of the smallest class holding {@code capacity}, of the largest class if none does
+     */
+    ByteBuffer acquire(long capacity) {
+        int index = sizeClass(capacity);
+        ByteBuffer buffer = null;
+
+        ArrayDeque<ByteBuffer>[] cache = threadCache();
+        if (cache != null)
+            buffer = cache[index].pollLast();
+        if (buffer == null) {
+            buffer = shared[index].poll();
+            if (buffer != null)
+                sharedCounts[index].decrementAndGet();
+        }
+        if (buffer == null) {
+            allocations.increment();
+            int size = minBufferSize << index;
+            buffer = direct ? ByteBuffer.allocateDirect(size) : ByteBuffer.allocate(size);
+        }
+        return buffer;
+    }
+
+    /**
+     * @return size of the buffer to chain after {@code previous}, twice as large up to the largest class
+     */
+    int nextCapacity(ByteBuffer previous) {
+        return previous == null ? minBufferSize : (int) Math.min(maxBufferSize, previous.capacity() * 2L);
+    }
+
+    /**
+     * Gives a buffer back to the thread cache or to the shared queue. It mustn't be used anymore by the caller.
+     * Buffers not acquired from a pool like this one are ignored.
+     */
+    void release(ByteBuffer buffer) {
+        if (!isPoolable(buffer))
+            return;
+
+        int index = sizeClass(buffer.capacity());
+        buffer.clear();
+
+        ArrayDeque<ByteBuffer>[] cache = threadCache();
+        if (cache != null && cache[index].size() < threadCacheBuffers)
+            cache[index].addLast(buffer);
+        else
+            releaseShared(buffer, index);
+    }
+
+    /**
+     * Gives the buffers back to the shared queue only, for the threads that don't acquire any, like the cleaner's
+     */
+    void releaseShared(Iterable<ByteBuffer> buffers) {
+        for (ByteBuffer buffer : buffers) {
+            if (!isPoolable(buffer))
+                continue;
+            buffer.clear();
+            releaseShared(buffer, sizeClass(buffer.capacity()));
+        }
+    }
+
+    /**
+     * Runs {@code action} once {@code owner} is only phantom reachable, unless the returned handle is cleaned first
+     */
+    Cleaner.Cleanable onUnreachable(Object owner, Runnable action) {
+        return CLEANER.register(owner, action);
+    }
+
+    /**
+     * @return where the body is received, to be logged if it leaks, null when leak detection is off
+     */
+    Throwable leakTrace() {
+        return leakDetection ? new Throwable("PooledBody received here and never closed") : null;
+    }
+
+    void leaked(Throwable trace) {
+        leaks.increment();
+        LOGGER.log(System.Logger.Level.WARNING, "PooledBody collected without being closed, its buffers are lost", trace);
+    }
+
+    private void releaseShared(ByteBuffer buffer, int index) {
+        if (sharedCounts[index].incrementAndGet() <= maxPooledBuffers)
+            shared[index].offer(buffer);
+        else
+            sharedCounts[index].decrementAndGet();
+    }
+
+    private boolean isPoolable(ByteBuffer buffer) {
+        return buffer != null && buffer.isDirect() == direct && !buffer.isReadOnly()
+                && Integer.bitCount(buffer.capacity()) == 1
+                && buffer.capacity() >= minBufferSize && buffer.capacity() <= maxBufferSize;
+    }
+
+    private ArrayDeque<ByteBuffer>[] threadCache() {
+        if (threadCacheBuffers == 0 || Thread.currentThread().isVirtual())
+            return null;
+        return threadCaches.get();
+    }
+
+    private int sizeClass(long capacity) {
+        if (capacity >= maxBufferSize)
+            return shared.length - 1;
+        if (capacity <= minBufferSize)
+            return 0;
+        return 64 - Long.numberOfLeadingZeros(capacity - 1) - minShift;
+    }
+
+    //*******************************************
+    //***************** BUILDER *****************
+    //*******************************************
+    public static class Builder {
+        private int minBufferSize = 4 * 1024;
+        private int maxBufferSize = 256 * 1024;
+        private boolean direct;
+        private int maxPooledBuffers = 64;
+        private int threadCacheBuffers = 4;
+        private boolean leakDetection;
+
+        private Builder() {}
+
+        /**
+         * Size of the smallest class, a power of two. Default 4 KiB.
+         */
+        public Builder minBufferSize(int minBufferSize) {
+            this.minBufferSize = minBufferSize;
+            return this;
+        }
+
+        /**
+         * Size of the largest class, a power of two. Larger bodies take a chain of buffers. Default 256 KiB,
+         * under the half region size from which G1 allocates humongous objects.
+         */
+        public Builder maxBufferSize(int maxBufferSize) {
+            this.maxBufferSize = maxBufferSize;
+            return this;
+        }
+
+        /**
+         * Allocates direct buffers, off the heap. Default heap buffers.
+         */
+        public Builder direct() {
+            this.direct = true;
+            return this;
+        }
+
+        /**
+         * Buffers of each class kept by the queue shared by the threads. Default 64.
+         */
+        public Builder maxPooledBuffers(int maxPooledBuffers) {
+            this.maxPooledBuffers = maxPooledBuffers;
+            return this;
+        }
+
+        /**
+         * Buffers of each class kept by each platform thread, 0 to share all of them. Default 4.
+         */
+        public Builder threadCacheBuffers(int threadCacheBuffers) {
+            this.threadCacheBuffers = threadCacheBuffers;
+            return this;
+        }
+
+        /**
+         * Records where each {@link PooledBody} is received and logs a warning with it when the body is collected
+         * by the GC without being closed. Costs a stack trace per response, meant for debugging. Off by default.
+         */
+        public Builder leakDetection() {
+            this.leakDetection = true;
+            return this;
+        }
+
+        public BufferPool build() {
+            if (Integer.bitCount(minBufferSize) != 1 || Integer.bitCount(maxBufferSize) != 1)
+                throw new IllegalArgumentException("Buffer sizes must be powers of two");
+            if (minBufferSize > maxBufferSize)
+                throw new IllegalArgumentException("minBufferSize can't be larger than maxBufferSize");
+            if (maxPooledBuffers < 0 || threadCacheBuffers < 0)
+                throw new IllegalArgumentException("Pooled buffers can't be negative");
+
+            return new BufferPool(this);
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package io.github.urusso.easyhttpclient.utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Publishes {@link ByteBuffer}s or a region of a {@link FileChannel} as slices of the same memory, never copying
+ * the bytes on the heap. The channel is memory-mapped a region at a time while the slices are requested. <br>
+ * Every subscription starts again from the first byte, so that the request can be sent again by a retry.
+ */
+final class ByteBufferPublisher implements Flow.Publisher<ByteBuffer> {
+    private static final int SLICE_BYTES = 64 * 1024;
+    private static final long MAP_BYTES = 64L * 1024 * 1024;
+
+    private final List<ByteBuffer> buffers;
+    private final FileChannel channel;
+    private final long position;
+    private final long length;
+
+    private ByteBufferPublisher(List<ByteBuffer> buffers, FileChannel channel, long position, long length) {
+        this.buffers = buffers;
+        this.channel = channel;
+        this.position = position;
+        this.length = length;
+    }
+
+    /**
+     * @param buffer {@link ByteBuffer} whose remaining bytes are published, its position isn't changed
+     */
+    static ByteBufferPublisher of(ByteBuffer buffer) {
+        return of(List.of(buffer));
+    }
+
+    /**
+     * @param buffers {@link ByteBuffer}s whose remaining bytes are published one after the other, their positions
+     *                aren't changed
+     */
+    static ByteBufferPublisher of(List<ByteBuffer> buffers) {
+        List<ByteBuffer> published = buffers.stream()
+                .filter(ByteBuffer::hasRemaining)
+                .map(ByteBuffer::duplicate)
+                .toList();
+        return new ByteBufferPublisher(published, null, 0, published.stream().mapToLong(ByteBuffer::remaining).sum());
+    }
+
+    /**
+     * @param channel {@link FileChannel} whose bytes from its current position to its end are published,
+     *                its position isn't changed
+     */
+    static ByteBufferPublisher of(FileChannel channel) throws IOException {
+        long position = channel.position();
+        return new ByteBufferPublisher(List.of(), channel, position, Math.max(0, channel.size() - position));
+    }
+
+    /**
+     * @return bytes published to each subscriber
+     */
+    long contentLength() {
+        return length;
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+        var subscription = new Slices(subscriber);
+        subscriber.onSubscribe(subscription);
+        subscription.drain();
+    }
+
+    /**
+     * Hands out the slices as they're requested, a single thread at a time
+     */
+    private final class Slices implements Flow.Subscription {
+        private final Flow.Subscriber<? super ByteBuffer> subscriber;
+        private final AtomicLong demand = new AtomicLong();
+        private final AtomicInteger draining = new AtomicInteger();
+        private ByteBuffer region;
+        private int next;
+        private long mapped;
+        private volatile boolean done;
+
+        private Slices(Flow.Subscriber<? super ByteBuffer> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (done)
+                return;
+            if (n <= 0) {
+                done = true;
+                subscriber.onError(new IllegalArgumentException("Requested " + n + " slices, must be positive"));
+                return;
+            }
+            demand.getAndAccumulate(n, (current, added) -> current + added < 0 ? Long.MAX_VALUE : current + added);
+            drain();
+        }
+
+        @Override
+        public void cancel() {
+            done = true;
+        }
+
+        /**
+         * Publishes while there's demand, the thread that finds the others draining leaves the work to them.
+         * Completes as soon as the last slice is published, without waiting for more demand.
+         */
+        private void drain() {
+            if (draining.getAndIncrement() != 0)
+                return;
+            do {
+                while (!done) {
+                    if (exhausted()) {
+                        done = true;
+                        subscriber.onComplete();
+                        return;
+                    }
+                    if (demand.get() == 0)
+                        break;
+
+                    ByteBuffer slice;
+                    try {
+                        slice = nextSlice();
+                    } catch (IOException e) {
+                        done = true;
+                        subscriber.onError(e);
+                        return;
+                    }
+                    demand.decrementAndGet();
+                    subscriber.onNext(slice);
+                }
+            } while (draining.decrementAndGet() != 0);
+        }
+
+        private boolean exhausted() {
+            return (region == null || !region.hasRemaining()) && next == buffers.size()
+                    && (channel == null || mapped >= length);
+        }
+
+        private ByteBuffer nextSlice() throws IOException {
+            if ((region == null || !region.hasRemaining()) && next < buffers.size()) {
+                region = buffers.get(next++).duplicate();
+            } else if (region == null || !region.hasRemaining()) {
+                long size = Math.min(MAP_BYTES, length - mapped);
+                region = channel.map(FileChannel.MapMode.READ_ONLY, position + mapped, size);
+                mapped += size;
+            }
+
+            int size = Math.min(SLICE_BYTES, region.remaining());
+            ByteBuffer slice = region.slice(region.position(), size);
+            region.position(region.position() + size);
+            return slice;
+        }
+    }
+}
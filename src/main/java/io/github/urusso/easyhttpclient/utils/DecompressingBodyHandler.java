@@ -0,0 +1,281 @@
+package io.github.urusso.easyhttpclient.utils;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import java.util.zip.ZipException;
+
+/**
+ * Decodes the gzip and deflate responses before the wrapped {@link HttpResponse.BodyHandler} reads them. <br>
+ * Each chunk is inflated as soon as it's received and passed on, so the compressed body is never collected in full.
+ * The wrapped handler sees the headers without Content-Encoding and Content-Length, the other encodings are
+ * passed on as they are.
+ */
+final class DecompressingBodyHandler<T> implements HttpResponse.BodyHandler<T> {
+    private static final int CHUNK_BYTES = 16 * 1024;
+
+    private final HttpResponse.BodyHandler<T> handler;
+
+    private DecompressingBodyHandler(HttpResponse.BodyHandler<T> handler) {
+        this.handler = handler;
+    }
+
+    static <T> HttpResponse.BodyHandler<T> of(HttpResponse.BodyHandler<T> handler) {
+        return new DecompressingBodyHandler<>(handler);
+    }
+
+    @Override
+    public HttpResponse.BodySubscriber<T> apply(HttpResponse.ResponseInfo responseInfo) {
+        String encoding = responseInfo.headers().firstValue("Content-Encoding")
+                .map(value -> value.trim().toLowerCase(Locale.ROOT))
+                .orElse("");
+        boolean gzip = encoding.equals("gzip") || encoding.equals("x-gzip");
+        if (!gzip && !encoding.equals("deflate"))
+            return handler.apply(responseInfo);
+
+        var decoded = HttpHeaders.of(responseInfo.headers().map(), (name, value) ->
+                !name.equalsIgnoreCase("Content-Encoding") && !name.equalsIgnoreCase("Content-Length"));
+        var info = new Info(responseInfo.statusCode(), decoded, responseInfo.version());
+        return new InflatingSubscriber<>(handler.apply(info), gzip);
+    }
+
+    private record Info(int statusCode, HttpHeaders headers, HttpClient.Version version)
+            implements HttpResponse.ResponseInfo {}
+
+    /**
+     * Inflates the chunks and publishes them to the subscriber of the wrapped handler.
+     * The gzip header is parsed here, the deflate data is inflated by {@link Inflater}.
+     */
+    private static final class InflatingSubscriber<T> implements HttpResponse.BodySubscriber<T> {
+        private static final int GZIP_TRAILER_BYTES = 8;
+        private static final int FHCRC = 2;
+        private static final int FEXTRA = 4;
+        private static final int FNAME = 8;
+        private static final int FCOMMENT = 16;
+
+        private final HttpResponse.BodySubscriber<T> downstream;
+        private final boolean gzip;
+        private final CRC32 crc = new CRC32();
+        private Flow.Subscription subscription;
+        private Inflater inflater;
+        // Bytes received before the inflater could start: the gzip header, or the first byte of the zlib header
+        private byte[] pending = new byte[0];
+        private byte[] trailer = new byte[0];
+        private long inflatedBytes;
+        private boolean failed;
+
+        private InflatingSubscriber(HttpResponse.BodySubscriber<T> downstream, boolean gzip) {
+            this.downstream = downstream;
+            this.gzip = gzip;
+        }
+
+        @Override
+        public CompletionStage<T> getBody() {
+            return downstream.getBody();
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            downstream.onSubscribe(subscription);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> item) {
+            if (failed)
+                return;
+
+            List<ByteBuffer> inflated = new ArrayList<>();
+            try {
+                for (ByteBuffer chunk : item)
+                    inflate(chunk, inflated);
+            } catch (IOException e) {
+                fail(e);
+                return;
+            }
+
+            if (inflated.isEmpty())
+                subscription.request(1);
+            else
+                downstream.onNext(inflated);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            end();
+            if (!failed)
+                downstream.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            if (failed)
+                return;
+            try {
+                checkComplete();
+            } catch (IOException e) {
+                end();
+                failed = true;
+                downstream.onError(e);
+                return;
+            }
+            end();
+            downstream.onComplete();
+        }
+
+        private void inflate(ByteBuffer chunk, List<ByteBuffer> inflated) throws IOException {
+            if (inflater == null) {
+                ByteBuffer rest = start(chunk);
+                if (rest != null)
+                    inflateInput(rest, inflated);
+                return;
+            }
+            inflateInput(chunk, inflated);
+        }
+
+        private void inflateInput(ByteBuffer input, List<ByteBuffer> inflated) throws IOException {
+            if (inflater.finished()) {
+                keepTrailer(input);
+                return;
+            }
+
+            inflater.setInput(input);
+            while (!inflater.finished() && !inflater.needsInput()) {
+                ByteBuffer out = ByteBuffer.allocate(CHUNK_BYTES);
+                try {
+                    if (inflater.inflate(out) == 0 && inflater.needsDictionary())
+                        throw new ZipException("deflate data needs a preset dictionary");
+                } catch (DataFormatException e) {
+                    throw new ZipException(e.getMessage());
+                }
+                out.flip();
+                if (out.hasRemaining()) {
+                    crc.update(out.duplicate());
+                    inflatedBytes += out.remaining();
+                    inflated.add(out);
+                }
+            }
+            if (inflater.finished())
+                keepTrailer(input);
+        }
+
+        /**
+         * Collects the bytes before the compressed data, then creates the inflater
+         *
+         * @return the bytes collected after the header, null if more bytes are needed
+         */
+        private ByteBuffer start(ByteBuffer chunk) throws IOException {
+            int previous = pending.length;
+            pending = Arrays.copyOf(pending, previous + chunk.remaining());
+            chunk.get(pending, previous, pending.length - previous);
+
+            int headerLength = gzip ? gzipHeaderLength(pending) : 0;
+            if (headerLength < 0 || (!gzip && pending.length < 2))
+                return null;
+
+            inflater = new Inflater(gzip || !isZlib(pending));
+            ByteBuffer rest = ByteBuffer.wrap(pending, headerLength, pending.length - headerLength);
+            pending = null;
+            return rest;
+        }
+
+        private void keepTrailer(ByteBuffer chunk) {
+            if (!gzip || !chunk.hasRemaining())
+                return;
+            int previous = trailer.length;
+            int length = Math.min(chunk.remaining(), GZIP_TRAILER_BYTES - previous);
+            trailer = Arrays.copyOf(trailer, previous + length);
+            chunk.get(trailer, previous, length);
+            chunk.position(chunk.limit());
+        }
+
+        /**
+         * Fails if the body ended before the compressed data, or the gzip checksum doesn't match
+         */
+        private void checkComplete() throws IOException {
+            if (inflater == null) {
+                if (pending.length > 0 && (gzip || pending.length > 1))
+                    throw new EOFException("compressed body ended early");
+                // Empty body, e.g. a HEAD or a 204 with a Content-Encoding
+                return;
+            }
+            if (!inflater.finished())
+                throw new EOFException("compressed body ended early");
+            if (!gzip)
+                return;
+            if (trailer.length < GZIP_TRAILER_BYTES)
+                throw new EOFException("gzip trailer is missing");
+
+            var buffer = ByteBuffer.wrap(trailer).order(ByteOrder.LITTLE_ENDIAN);
+            if ((buffer.getInt(0) & 0xffffffffL) != crc.getValue()
+                    || (buffer.getInt(4) & 0xffffffffL) != (inflatedBytes & 0xffffffffL))
+                throw new ZipException("gzip checksum doesn't match");
+        }
+
+        private void fail(IOException e) {
+            failed = true;
+            end();
+            subscription.cancel();
+            downstream.onError(e);
+        }
+
+        private void end() {
+            if (inflater != null)
+                inflater.end();
+        }
+
+        /**
+         * @return length of the gzip header, -1 if more bytes are needed
+         */
+        private static int gzipHeaderLength(byte[] bytes) throws ZipException {
+            if (bytes.length < 10)
+                return -1;
+            if ((bytes[0] & 0xff) != 0x1f || (bytes[1] & 0xff) != 0x8b || bytes[2] != 8)
+                throw new ZipException("not in gzip format");
+
+            int flags = bytes[3];
+            int length = 10;
+            if ((flags & FEXTRA) != 0) {
+                if (bytes.length < length + 2)
+                    return -1;
+                length += 2 + ((bytes[length] & 0xff) | (bytes[length + 1] & 0xff) << 8);
+            }
+            if ((flags & FNAME) != 0)
+                length = skipZeroTerminated(bytes, length);
+            if (length >= 0 && (flags & FCOMMENT) != 0)
+                length = skipZeroTerminated(bytes, length);
+            if (length >= 0 && (flags & FHCRC) != 0)
+                length += 2;
+            return length >= 0 && length <= bytes.length ? length : -1;
+        }
+
+        private static int skipZeroTerminated(byte[] bytes, int from) {
+            for (int i = from; i < bytes.length; i++) {
+                if (bytes[i] == 0)
+                    return i + 1;
+            }
+            return -1;
+        }
+
+        /**
+         * The deflate encoding should be zlib wrapped, but some servers send raw deflate data
+         */
+        private static boolean isZlib(byte[] bytes) {
+            int header = (bytes[0] & 0xff) << 8 | (bytes[1] & 0xff);
+            return (bytes[0] & 0x0f) == 8 && header % 31 == 0;
+        }
+    }
+}
@@ -1,43 +1,246 @@
 package io.github.urusso.easyhttpclient.utils;
 
 import io.github.urusso.easyhttpclient.dto.Body;
+import io.github.urusso.easyhttpclient.dto.EncodedBody;
 import io.github.urusso.easyhttpclient.exception.DeserializationException;
 import io.github.urusso.easyhttpclient.exception.FileNotFoundRuntimeException;
 import io.github.urusso.easyhttpclient.exception.SerializationException;
 import io.github.urusso.easyhttpclient.interfaces.EasySerializer;
 
+import java.io.ByteArrayInputStream;
 import java.io.FileNotFoundException;
+import java.io.IOException;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
 import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Flow;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 public final class EasyBodyHandler {
+    private static final BufferPool UNPOOLED = BufferPool.builder().maxPooledBuffers(0).threadCacheBuffers(0).build();
+
     private final EasySerializer serializer;
+    private final SerializerRegistry serializers;
+    private final boolean decompress;
+    private final BufferPool pool;
+    private final Map<Type, HttpResponse.BodyHandler<?>> responseHandlers = new ConcurrentHashMap<>();
+    private final HttpResponse.BodyHandler<InputStream> inputStreamHandler;
 
     public EasyBodyHandler(EasySerializer serializer) {
+        this(serializer, false);
+    }
+
+    /**
+     * @param serializer {@link EasySerializer} of the request and response bodies
+     * @param decompress true to decode the gzip and deflate responses before reading them
+     */
+    public EasyBodyHandler(EasySerializer serializer, boolean decompress) {
+        this(serializer, decompress, List.of());
+    }
+
+    /**
+     * @param serializer {@link EasySerializer} of the request and response bodies whose format isn't known
+     * @param decompress true to decode the gzip and deflate responses before reading them
+     * @param formats {@link EasySerializer} of other formats, picked by the Content-Type of the request or response
+     */
+    public EasyBodyHandler(EasySerializer serializer, boolean decompress, Collection<EasySerializer> formats) {
+        this(serializer, decompress, formats, null);
+    }
+
+    /**
+     * @param serializer {@link EasySerializer} of the request and response bodies whose format isn't known
+     * @param decompress true to decode the gzip and deflate responses before reading them
+     * @param formats {@link EasySerializer} of other formats, picked by the Content-Type of the request or response
+     * @param pool {@link BufferPool} the {@link PooledBody} responses and the serialized request bodies are written
+     *             into, null to allocate new buffers for the former and arrays for the latter
+     */
+    public EasyBodyHandler(EasySerializer serializer, boolean decompress, Collection<EasySerializer> formats,
+                           BufferPool pool) {
         this.serializer = serializer;
+        this.serializers = new SerializerRegistry(serializer, formats);
+        this.decompress = decompress;
+        this.pool = pool;
+        this.inputStreamHandler = decoding(HttpResponse.BodyHandlers.ofInputStream());
     }
 
     @SuppressWarnings("unchecked")
     public <T> HttpResponse.BodyHandler<T> getResponseBodyHandler(Class<T> responseClass) {
-        if(responseClass == null || responseClass == Void.class) {
-            return (HttpResponse.BodyHandler<T>) HttpResponse.BodyHandlers.discarding();
+        if (responseClass == InputStream.class)
+            return (HttpResponse.BodyHandler<T>) inputStreamHandler;
+
+        Class<?> key = responseClass != null ? responseClass : Void.class;
+        return (HttpResponse.BodyHandler<T>) responseHandlers.computeIfAbsent(key,
+                clazz -> decoding(newResponseBodyHandler(key)));
+    }
+
+    /**
+     * Like {@link #getResponseBodyHandler(Class)} for a generic type, like {@code List<UserDto>}.
+     * The handler is built once for each type and reused by every call.
+     *
+     * @param type {@link Type} of the body, a {@link Class} or a {@link java.lang.reflect.ParameterizedType}
+     * @return {@link HttpResponse.BodyHandler} deserializing the body to the type
+     */
+    @SuppressWarnings("unchecked")
+    public <T> HttpResponse.BodyHandler<T> getResponseBodyHandler(Type type) {
+        if (type instanceof Class<?> clazz)
+            return (HttpResponse.BodyHandler<T>) getResponseBodyHandler(clazz);
+
+        return (HttpResponse.BodyHandler<T>) responseHandlers.computeIfAbsent(type,
+                key -> decoding(jacksonResponseHandler(serializers, key)));
+    }
+
+    /**
+     * @return value of the Accept-Encoding header the responses can be decoded from, null if they aren't decoded
+     */
+    public String getAcceptEncoding() {
+        return decompress ? "gzip, deflate" : null;
+    }
+
+    /**
+     * @return value of the Accept header listing the formats of the serializers, the default one first,
+     * null if there's only the default one
+     */
+    public String getAccept() {
+        return serializers.getAccept();
+    }
+
+    private <T> HttpResponse.BodyHandler<T> decoding(HttpResponse.BodyHandler<T> handler) {
+        return decompress ? DecompressingBodyHandler.of(handler) : handler;
+    }
+
+    private HttpResponse.BodyHandler<?> newResponseBodyHandler(Class<?> responseClass) {
+        if(responseClass == Void.class) {
+            return HttpResponse.BodyHandlers.discarding();
         } else if (responseClass == String.class) {
-            return (HttpResponse.BodyHandler<T>) HttpResponse.BodyHandlers.ofString();
+            return HttpResponse.BodyHandlers.ofString();
         } else if (responseClass == byte[].class) {
-            return (HttpResponse.BodyHandler<T>) HttpResponse.BodyHandlers.ofByteArray();
-        } else if (responseClass == InputStream.class) {
-            return (HttpResponse.BodyHandler<T>) HttpResponse.BodyHandlers.ofInputStream();
+            return HttpResponse.BodyHandlers.ofByteArray();
         } else if (responseClass == Path.class) {
-            return (HttpResponse.BodyHandler<T>) HttpResponse.BodyHandlers.ofFile(Path.of("response.tmp"));
+            return tempFileHandler();
+        } else if (responseClass == PooledBody.class) {
+            return PooledBodySubscriber.handler(pool != null ? pool : UNPOOLED);
         } else {
-            return jacksonResponseHandler(serializer, responseClass);
+            return jacksonResponseHandler(serializers, responseClass);
+        }
+    }
+
+    /**
+     * Saves each response to a new temporary file, so that concurrent calls never write the same one.
+     * The caller owns the file and should delete it, {@code EasyHttpClient.download} saves it to a chosen path.
+     */
+    private static HttpResponse.BodyHandler<Path> tempFileHandler() {
+        return responseInfo -> {
+            try {
+                return HttpResponse.BodySubscribers.ofFile(Files.createTempFile("easy-http-", ".tmp"));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    /**
+     * Parses the elements of a JSON array or newline-delimited JSON body while they're received. <br>
+     * The response is returned once the headers arrive, the body is parsed only when the stream is consumed, on the
+     * thread consuming it. The next chunks are asked for only when the parser needs them, so the memory taken doesn't
+     * grow with the body. Closing the stream before its end cancels the rest of the body.
+     *
+     * @param elementClass class of the elements
+     * @return {@link HttpResponse.BodyHandler} of the {@link Stream} of the elements
+     */
+    public <T> HttpResponse.BodyHandler<Stream<T>> getStreamingBodyHandler(Class<T> elementClass) {
+        return decoding(responseInfo -> {
+            var format = serializers.forContentType(contentType(responseInfo));
+            return HttpResponse.BodySubscribers.mapping(
+                    HttpResponse.BodySubscribers.ofInputStream(),
+                    body -> elements(format, body, elementClass));
+        });
+    }
+
+    private static <T> Stream<T> elements(EasySerializer serializer, InputStream body, Class<T> elementClass) {
+        Supplier<Spliterator<T>> spliterator = () -> {
+            try {
+                return Spliterators.spliteratorUnknownSize(
+                        new ElementIterator<>(serializer.deserializeElements(body, elementClass)),
+                        Spliterator.ORDERED | Spliterator.NONNULL);
+            } catch (IOException | RuntimeException e) {
+                throw new DeserializationException(e);
+            }
+        };
+        return StreamSupport.stream(spliterator, Spliterator.ORDERED | Spliterator.NONNULL, false)
+                .onClose(() -> {
+                    try {
+                        body.close();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    /**
+     * Throws the errors of the serializer while parsing an element as {@link DeserializationException}
+     */
+    private record ElementIterator<T>(Iterator<T> elements) implements Iterator<T> {
+        @Override
+        public boolean hasNext() {
+            try {
+                return elements.hasNext();
+            } catch (RuntimeException e) {
+                throw new DeserializationException(e);
+            }
         }
+
+        @Override
+        public T next() {
+            try {
+                return elements.next();
+            } catch (NoSuchElementException e) {
+                throw e;
+            } catch (RuntimeException e) {
+                throw new DeserializationException(e);
+            }
+        }
+    }
+
+    /**
+     * The handlers returned by {@link #getResponseBodyHandler(Class)} are the same for each class, so a body read by
+     * one of them can be handed to every caller asking for that class. The {@link InputStream} can be read only once,
+     * a {@link PooledBody} is closed by its caller and a {@link Path} is a temporary file deleted by its caller.
+     *
+     * @param handler {@link HttpResponse.BodyHandler} returned by {@link #getResponseBodyHandler(Class)}
+     * @return true if the body read by the handler can be shared
+     */
+    public boolean isShareable(HttpResponse.BodyHandler<?> handler) {
+        return handler != inputStreamHandler && handler != responseHandlers.get(PooledBody.class)
+                && handler != responseHandlers.get(Path.class);
     }
 
     public HttpRequest.BodyPublisher getRequestBodyPublisher(Body body) {
+        return getRequestBodyPublisher(body, null);
+    }
+
+    /**
+     * @param body {@link Body} of the request
+     * @param contentType Content-Type set on the request, picking the serializer of a serialized body, can be null
+     * @return {@link HttpRequest.BodyPublisher} of the body
+     */
+    public HttpRequest.BodyPublisher getRequestBodyPublisher(Body body, String contentType) {
         if (body == null || body.content() == null)
             return HttpRequest.BodyPublishers.noBody();
 
@@ -55,31 +258,186 @@ public final class EasyBodyHandler {
             } catch (FileNotFoundException e) {
                 throw new FileNotFoundRuntimeException(e);
             }
+        } else if (ByteBuffer.class.isAssignableFrom(bodyClass)) {
+            return ofSlices(ByteBufferPublisher.of((ByteBuffer) body.content()));
+        } else if (FileChannel.class.isAssignableFrom(bodyClass)) {
+            try {
+                return ofSlices(ByteBufferPublisher.of((FileChannel) body.content()));
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        } else if (Flow.Publisher.class.isAssignableFrom(bodyClass)) {
+            return ofStream(body.content());
         } else {
-            return jacksonRequestHandler(serializer, body.content());
+            return serializedBody(serializers.forContentType(contentType), body.content());
         }
     }
 
-    private static <T> HttpResponse.BodyHandler<T> jacksonResponseHandler(EasySerializer serializer, Class<T> clazz) {
-        return responseInfo -> HttpResponse.BodySubscribers.mapping(
-                HttpResponse.BodySubscribers.ofString(StandardCharsets.UTF_8),
-                body -> {
-                    try {
-                        if(body != null && !body.isBlank())
+    /**
+     * Publishes the slices of a {@link ByteBuffer} or a {@link FileChannel} as they are, with their exact length.
+     * Direct and mapped buffers reach the socket without being copied on the heap.
+     */
+    private static HttpRequest.BodyPublisher ofSlices(ByteBufferPublisher publisher) {
+        if (publisher.contentLength() == 0)
+            return HttpRequest.BodyPublishers.noBody();
+        return HttpRequest.BodyPublishers.fromPublisher(publisher, publisher.contentLength());
+    }
+
+    /**
+     * Sends the buffers of a {@link Flow.Publisher} while they're produced, with a chunked body of unknown length.
+     * A retry subscribes again, so the publisher has to replay the buffers to be retried.
+     */
+    @SuppressWarnings("unchecked")
+    private static HttpRequest.BodyPublisher ofStream(Object publisher) {
+        return HttpRequest.BodyPublishers.fromPublisher((Flow.Publisher<? extends ByteBuffer>) publisher);
+    }
+
+    /**
+     * Like {@link #getRequestBodyPublisher(Body)}, gzip compressing the body when it's larger than {@code gzipMinBytes}.
+     * Serialized bodies are compressed while the serializer writes them, Strings and byte arrays as they are.
+     * InputStream, Path, ByteBuffer, FileChannel and Flow.Publisher bodies are never compressed, they're sent
+     * without being read on the heap.
+     *
+     * @param body {@link Body} of the request
+     * @param gzipMinBytes size over which the body is compressed, negative to never compress it
+     * @return {@link EncodedBody} with the publisher and its Content-Encoding
+     */
+    public EncodedBody getRequestBody(Body body, int gzipMinBytes) {
+        return getRequestBody(body, gzipMinBytes, null);
+    }
+
+    /**
+     * Like {@link #getRequestBody(Body, int)}, serializing the body with the serializer of {@code contentType}
+     *
+     * @param body {@link Body} of the request
+     * @param gzipMinBytes size over which the body is compressed, negative to never compress it
+     * @param contentType Content-Type set on the request, can be null
+     * @return {@link EncodedBody} with the publisher and its Content-Encoding
+     */
+    public EncodedBody getRequestBody(Body body, int gzipMinBytes, String contentType) {
+        if (gzipMinBytes < 0 || body == null || body.content() == null)
+            return new EncodedBody(getRequestBodyPublisher(body, contentType), null);
+
+        Class<?> bodyClass = body.type();
+        var stream = new GzipBodyStream(gzipMinBytes);
+        try (stream) {
+            if (bodyClass == String.class)
+                stream.write(((String) body.content()).getBytes(StandardCharsets.UTF_8));
+            else if (bodyClass == byte[].class)
+                stream.write((byte[]) body.content());
+            else if (isSerialized(bodyClass))
+                serializers.forContentType(contentType).serialize(body.content(), stream);
+            else
+                return new EncodedBody(getRequestBodyPublisher(body, contentType), null);
+        } catch (Exception e) {
+            throw new SerializationException(e);
+        }
+
+        return new EncodedBody(stream.toPublisher(), stream.isCompressed() ? "gzip" : null);
+    }
+
+    /**
+     * Gives the pooled buffers of a serialized body back to the pool, once the request won't be sent again.
+     * A subscription still reading them keeps them until it ends. Other bodies are left as they are.
+     *
+     * @param request {@link HttpRequest} whose body was created by this handler
+     */
+    public void releaseRequestBody(HttpRequest request) {
+        request.bodyPublisher().ifPresent(publisher -> {
+            if (publisher instanceof PooledRequestBody pooled)
+                pooled.release();
+        });
+    }
+
+    /**
+     * Collects the response as bytes, then deserializes them once the body is complete, so the body is never
+     * decoded into a String first. The serializer is the one of the Content-Type of the response. <br>
+     * The mapping runs on the client executor, so it must never wait for the network: a mapper blocking on a stream
+     * fed by the same executor can stall it for good, as the {@code BodySubscribers.mapping} javadoc warns.
+     */
+    private static <T> HttpResponse.BodyHandler<T> jacksonResponseHandler(SerializerRegistry serializers,
+                                                                          Class<T> clazz) {
+        return responseInfo -> {
+            var serializer = serializers.forContentType(contentType(responseInfo));
+            return HttpResponse.BodySubscribers.mapping(
+                    HttpResponse.BodySubscribers.ofByteArray(),
+                    body -> {
+                        try {
                             return serializer.deserialize(body, clazz);
-                        else
-                            return null;
-                    } catch (Exception e) {
-                        throw new DeserializationException(e);
+                        } catch (Exception e) {
+                            throw new DeserializationException(e);
+                        }
+                    }
+            );
+        };
+    }
+
+    private static <T> HttpResponse.BodyHandler<T> jacksonResponseHandler(SerializerRegistry serializers, Type type) {
+        return responseInfo -> {
+            var serializer = serializers.forContentType(contentType(responseInfo));
+            return HttpResponse.BodySubscribers.mapping(
+                    HttpResponse.BodySubscribers.ofByteArray(),
+                    body -> {
+                        try {
+                            return serializer.<T>deserialize(new ByteArrayInputStream(body), type);
+                        } catch (Exception e) {
+                            throw new DeserializationException(e);
+                        }
                     }
-                }
-        );
+            );
+        };
+    }
+
+    private static String contentType(HttpResponse.ResponseInfo responseInfo) {
+        return responseInfo.headers().firstValue("Content-Type").orElse(null);
+    }
+
+    /**
+     * Returns the Content-Type of the body produced by {@link #getRequestBodyPublisher(Body)}.
+     * Only bodies converted by the serializer have a known content type.
+     *
+     * @param body {@link Body} of the request
+     * @return String content type or null if it's not known
+     */
+    public String getRequestContentType(Body body) {
+        if (body == null || body.content() == null || !isSerialized(body.type()))
+            return null;
+
+        return serializer.contentType();
+    }
+
+    private static boolean isSerialized(Class<?> bodyClass) {
+        return bodyClass != String.class && bodyClass != byte[].class
+                && !InputStream.class.isAssignableFrom(bodyClass) && !Path.class.isAssignableFrom(bodyClass)
+                && !ByteBuffer.class.isAssignableFrom(bodyClass) && !FileChannel.class.isAssignableFrom(bodyClass)
+                && !Flow.Publisher.class.isAssignableFrom(bodyClass);
+    }
+
+    /**
+     * Serializes the body into buffers of the pool, if there's one, the publisher then knows the exact Content-Length
+     */
+    private <T> HttpRequest.BodyPublisher serializedBody(EasySerializer serializer, T data) {
+        return pool != null ? pooledRequestHandler(serializer, data) : jacksonRequestHandler(serializer, data);
+    }
+
+    private <T> HttpRequest.BodyPublisher pooledRequestHandler(EasySerializer serializer, T data) {
+        var chain = new BufferChain(pool, -1);
+        try {
+            serializer.serialize(data, chain);
+            return chain.toPublisher();
+        } catch (Exception e) {
+            chain.release();
+            throw new SerializationException(e);
+        }
     }
 
+    /**
+     * Serializes the body straight to bytes, the publisher then knows the exact Content-Length
+     */
     private static <T> HttpRequest.BodyPublisher jacksonRequestHandler(EasySerializer serializer, T data) {
         try {
-            String json = serializer.serialize(data);
-            return HttpRequest.BodyPublishers.ofString(json);
+            byte[] bytes = serializer.serializeToBytes(data);
+            return HttpRequest.BodyPublishers.ofByteArray(bytes);
         } catch (Exception e) {
             throw new SerializationException(e);
         }
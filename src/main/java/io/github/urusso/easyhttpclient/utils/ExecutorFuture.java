@@ -0,0 +1,50 @@
+package io.github.urusso.easyhttpclient.utils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * {@link CompletableFuture} whose default executor is the one passed, so the async stages added by the caller
+ * without an explicit executor run there instead of the common pool.
+ */
+public final class ExecutorFuture<T> extends CompletableFuture<T> {
+    private final Executor executor;
+
+    private ExecutorFuture(Executor executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * Completes a new future on the executor once the source completes. Cancelling the new future cancels the source.
+     *
+     * @param source {@link CompletableFuture} to follow
+     * @param executor {@link Executor} that completes the future and runs the async stages
+     * @return {@link CompletableFuture} completed on the executor
+     */
+    public static <T> CompletableFuture<T> completeOn(CompletableFuture<T> source, Executor executor) {
+        var future = new ExecutorFuture<T>(executor);
+
+        source.whenCompleteAsync((result, error) -> {
+            if (error != null)
+                future.completeExceptionally(error);
+            else
+                future.complete(result);
+        }, executor);
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled())
+                source.cancel(true);
+        });
+
+        return future;
+    }
+
+    @Override
+    public Executor defaultExecutor() {
+        return executor;
+    }
+
+    @Override
+    public <U> CompletableFuture<U> newIncompleteFuture() {
+        return new ExecutorFuture<>(executor);
+    }
+}
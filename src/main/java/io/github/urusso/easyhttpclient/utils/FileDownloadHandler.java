@@ -0,0 +1,287 @@
+package io.github.urusso.easyhttpclient.utils;
+
+import io.github.urusso.easyhttpclient.interfaces.DownloadListener;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Writes the body of a download to a partial file next to the target through a {@link FileChannel}, then moves it
+ * to the target once complete. <br>
+ * A 200 response starts the file from the beginning, a 206 one continues it from the offset asked with the Range
+ * header. A 416 response to a Range starting at the end of the file means that it was already complete.
+ * The body of any other response is discarded and the response has a null body, a partial file that can't be
+ * resumed is deleted. <br>
+ * When the size is known and the download isn't resumable, the file is extended to it before the first write.
+ * A resumable partial file is never extended, so that its size is always the number of bytes received. <br>
+ * Before the move the size of the file is checked against the size sent by the server and, if given, its SHA-256
+ * against the expected one.
+ */
+public final class FileDownloadHandler implements HttpResponse.BodyHandler<Path> {
+    private static final Pattern CONTENT_RANGE = Pattern.compile("bytes\\s+(\\d+)-\\d+/(\\d+|\\*)");
+    private static final Pattern UNSATISFIED_RANGE = Pattern.compile("bytes\\s+\\*/(\\d+)");
+
+    private final Path target;
+    private final Path partial;
+    private final long offset;
+    private final boolean resumable;
+    private final String sha256;
+    private final DownloadListener listener;
+
+    /**
+     * @param target {@link Path} of the complete file
+     * @param offset bytes already in the partial file, asked to the server with a Range header
+     * @param resumable true to keep the partial file when the download fails
+     * @param listener {@link DownloadListener} told about the progress, can be null
+     */
+    public FileDownloadHandler(Path target, long offset, boolean resumable, DownloadListener listener) {
+        this(target, offset, resumable, null, listener);
+    }
+
+    /**
+     * @param target {@link Path} of the complete file
+     * @param offset bytes already in the partial file, asked to the server with a Range header
+     * @param resumable true to keep the partial file when the download fails
+     * @param sha256 hex SHA-256 the complete file must have, null to skip the check
+     * @param listener {@link DownloadListener} told about the progress, can be null
+     */
+    public FileDownloadHandler(Path target, long offset, boolean resumable, String sha256, DownloadListener listener) {
+        this.target = target;
+        this.partial = partialFile(target);
+        this.offset = offset;
+        this.resumable = resumable;
+        this.sha256 = sha256;
+        this.listener = listener;
+    }
+
+    /**
+     * @param target {@link Path} of the complete file
+     * @return {@link Path} of the file the body is written to while it's received
+     */
+    public static Path partialFile(Path target) {
+        return target.resolveSibling(target.getFileName() + ".part");
+    }
+
+    @Override
+    public HttpResponse.BodySubscriber<Path> apply(HttpResponse.ResponseInfo responseInfo) {
+        var headers = responseInfo.headers();
+        switch (responseInfo.statusCode()) {
+            case 200 -> {
+                return new FileSubscriber(0, contentLength(headers));
+            }
+            case 206 -> {
+                Matcher range = CONTENT_RANGE.matcher(headers.firstValue("Content-Range").orElse(""));
+                if (!range.matches() || Long.parseLong(range.group(1)) != offset)
+                    return failed(new IOException("Content-Range doesn't start at " + offset));
+                long total = range.group(2).equals("*") ? -1 : Long.parseLong(range.group(2));
+                return new FileSubscriber(offset, total);
+            }
+            case 416 -> {
+                Matcher range = UNSATISFIED_RANGE.matcher(headers.firstValue("Content-Range").orElse(""));
+                if (offset > 0 && range.matches() && Long.parseLong(range.group(1)) == offset)
+                    return alreadyComplete();
+                return nothingSaved();
+            }
+            default -> {
+                return nothingSaved();
+            }
+        }
+    }
+
+    /**
+     * Discards the body of a response that isn't saved, deleting the partial file if the download isn't resumable,
+     * e.g. the one reserving the name in a directory
+     */
+    private HttpResponse.BodySubscriber<Path> nothingSaved() {
+        if (!resumable) {
+            try {
+                Files.deleteIfExists(partial);
+            } catch (IOException e) {
+                return failed(e);
+            }
+        }
+        return HttpResponse.BodySubscribers.replacing(null);
+    }
+
+    private HttpResponse.BodySubscriber<Path> alreadyComplete() {
+        try {
+            if (sha256 != null)
+                checkSha256(partial, sha256);
+            moveToTarget();
+        } catch (IOException e) {
+            return failed(e);
+        }
+        if (listener != null)
+            listener.onProgress(offset, offset);
+        return HttpResponse.BodySubscribers.replacing(target);
+    }
+
+    private static HttpResponse.BodySubscriber<Path> failed(IOException error) {
+        return HttpResponse.BodySubscribers.mapping(HttpResponse.BodySubscribers.discarding(), ignored -> {
+            throw new UncheckedIOException(error);
+        });
+    }
+
+    private void moveToTarget() throws IOException {
+        try {
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /**
+     * @param file {@link Path} of the downloaded file
+     * @param expected hex SHA-256 the file must have
+     * @throws IOException if the file can't be read or its SHA-256 is different
+     */
+    public static void checkSha256(Path file, String expected) throws IOException {
+        String sha256;
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            var digest = MessageDigest.getInstance("SHA-256");
+            var buffer = ByteBuffer.allocate(64 * 1024);
+            while (channel.read(buffer) >= 0) {
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+            sha256 = HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        if (!sha256.equalsIgnoreCase(expected))
+            throw new IOException("SHA-256 of the file is " + sha256 + ", expected " + expected);
+    }
+
+    private static long contentLength(HttpHeaders headers) {
+        return headers.firstValueAsLong("Content-Length").orElse(-1);
+    }
+
+    /**
+     * Writes the chunks to the partial file as they're received, one at a time
+     */
+    private final class FileSubscriber implements HttpResponse.BodySubscriber<Path> {
+        private final long start;
+        private final long total;
+        private final CompletableFuture<Path> body = new CompletableFuture<>();
+        private Flow.Subscription subscription;
+        private FileChannel channel;
+        private long position;
+
+        private FileSubscriber(long start, long total) {
+            this.start = start;
+            this.total = total;
+            this.position = start;
+        }
+
+        @Override
+        public CompletionStage<Path> getBody() {
+            return body;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            this.subscription = subscription;
+            try {
+                channel = FileChannel.open(partial, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                // Drops what's past the start, e.g. the bytes of a failed attempt or of a server ignoring the Range
+                channel.truncate(start);
+                if (!resumable && total > start)
+                    channel.write(ByteBuffer.allocate(1), total - 1);
+            } catch (IOException e) {
+                subscription.cancel();
+                fail(e);
+                return;
+            }
+            subscription.request(1);
+        }
+
+        @Override
+        public void onNext(List<ByteBuffer> item) {
+            try {
+                for (ByteBuffer buffer : item) {
+                    while (buffer.hasRemaining())
+                        position += channel.write(buffer, position);
+                }
+            } catch (IOException e) {
+                subscription.cancel();
+                fail(e);
+                return;
+            }
+            if (listener != null)
+                listener.onProgress(position, total);
+            subscription.request(1);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            fail(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            try {
+                channel.truncate(position);
+                channel.close();
+                channel = null;
+                if (total >= 0 && position != total)
+                    throw new IOException("Downloaded " + position + " bytes, expected " + total);
+                if (sha256 != null)
+                    checkComplete();
+                moveToTarget();
+            } catch (IOException e) {
+                fail(e);
+                return;
+            }
+            body.complete(target);
+        }
+
+        /**
+         * Checks the SHA-256 of the file, a damaged file is deleted even if the download can be resumed
+         */
+        private void checkComplete() throws IOException {
+            try {
+                checkSha256(partial, sha256);
+            } catch (IOException e) {
+                Files.deleteIfExists(partial);
+                throw e;
+            }
+        }
+
+        /**
+         * Keeps the bytes received if the download can be resumed, deletes the partial file otherwise
+         */
+        private void fail(Throwable error) {
+            try {
+                if (channel != null) {
+                    if (resumable)
+                        channel.truncate(position);
+                    channel.close();
+                }
+                if (!resumable)
+                    Files.deleteIfExists(partial);
+            } catch (IOException e) {
+                error.addSuppressed(e);
+            }
+            body.completeExceptionally(error);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package io.github.urusso.easyhttpclient.utils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Names of the files the responses are saved to
+ */
+public final class FileNames {
+    private static final String DEFAULT_NAME = "download";
+
+    private FileNames() {}
+
+    /**
+     * @param uri {@link URI} of the request
+     * @return last segment of the path, "download" if it's empty
+     */
+    public static String fromUri(URI uri) {
+        String path = uri.getPath();
+        if (path == null)
+            return DEFAULT_NAME;
+
+        String name = path.substring(path.lastIndexOf('/') + 1).replaceAll("[\\\\:*?\"<>|]", "_");
+        return name.isBlank() || name.equals(".") || name.equals("..") ? DEFAULT_NAME : name;
+    }
+
+    /**
+     * Picks the name of a file downloaded to the directory and creates its empty partial file, so that a concurrent
+     * call can't pick the same one. Names taken by a complete or a partial file are skipped, a number is added to them.
+     * When resuming, the first name with a partial file and no complete file is picked instead, so that the download
+     * continues it. <br>
+     * Only the partial file is created: a download that fails leaves no empty file under the complete name.
+     *
+     * @param directory {@link Path} of the directory, created if missing
+     * @param name name of the file, e.g. "report.pdf"
+     * @param resume true to pick the name of a partial file left by a failed download
+     * @return {@link Path} of the complete file, e.g. "report.pdf" or "report-1.pdf"
+     */
+    public static Path reserve(Path directory, String name, boolean resume) throws IOException {
+        Files.createDirectories(directory);
+        int dot = name.lastIndexOf('.');
+        String base = dot > 0 ? name.substring(0, dot) : name;
+        String extension = dot > 0 ? name.substring(dot) : "";
+
+        for (int i = 0; ; i++) {
+            Path file = directory.resolve(i == 0 ? name : base + "-" + i + extension);
+            Path partial = FileDownloadHandler.partialFile(file);
+            if (Files.exists(file))
+                continue;
+            if (resume && Files.exists(partial))
+                return file;
+
+            try {
+                Files.createFile(partial);
+            } catch (FileAlreadyExistsException e) {
+                // Taken by a download in progress, try the next number
+                continue;
+            }
+            // A concurrent download may have completed the name between the check and the creation
+            if (!Files.exists(file))
+                return file;
+            Files.deleteIfExists(partial);
+        }
+    }
+}
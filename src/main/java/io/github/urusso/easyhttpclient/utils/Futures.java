@@ -0,0 +1,62 @@
+package io.github.urusso.easyhttpclient.utils;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.function.Function;
+
+/**
+ * Helpers to compose {@link CompletableFuture}s
+ */
+public final class Futures {
+    private Futures() {}
+
+    /**
+     * Like {@link CompletableFuture#thenCompose}, but cancelling the returned future also cancels
+     * the first stage, or the second one if it has already started
+     *
+     * @param first {@link CompletableFuture} to wait for
+     * @param next function starting the second stage with the result of the first one
+     * @return {@link CompletableFuture} of the second stage
+     */
+    public static <A, B> CompletableFuture<B> thenComposeCancellable(CompletableFuture<A> first,
+                                                                     Function<A, CompletableFuture<B>> next) {
+        var started = new CompletableFuture<CompletableFuture<B>>();
+        var future = first.thenCompose(a -> {
+            var second = next.apply(a);
+            started.complete(second);
+            return second;
+        });
+        future.whenComplete((b, error) -> {
+            if (future.isCancelled()) {
+                first.cancel(true);
+                started.thenAccept(second -> second.cancel(true));
+            }
+        });
+
+        return future;
+    }
+
+    /**
+     * @param error exception thrown by a stage
+     * @return the cause of a {@link CompletionException}, the exception itself otherwise
+     */
+    public static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    /**
+     * The sync calls of the {@link java.net.http.HttpClient} wrap the exceptions of the body handlers in an
+     * {@link java.io.IOException}, the async ones in a {@link CompletionException}: the type is looked for in the causes
+     *
+     * @param error exception thrown by a call, can be null
+     * @param type type of exception looked for
+     * @return true if the exception or one of its causes is of the type
+     */
+    public static boolean isCausedBy(Throwable error, Class<? extends Throwable> type) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (type.isInstance(cause))
+                return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,123 @@
+package io.github.urusso.easyhttpclient.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.http.HttpRequest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Stream the request body is written to, gzip compressing it once it goes over {@code minBytes}. <br>
+ * Up to {@code minBytes} are kept as they are, then they and the rest of the body go through the compressor as they
+ * are written, so the full uncompressed body is never held. The compressed bytes are kept in chunks to be published
+ * with their exact length, which lets the request be sent again by a retry.
+ */
+final class GzipBodyStream extends OutputStream {
+    private static final int CHUNK_BYTES = 16 * 1024;
+
+    private final int minBytes;
+    private ByteArrayOutputStream head = new ByteArrayOutputStream();
+    private final Chunks chunks = new Chunks();
+    private GZIPOutputStream gzip;
+    private boolean closed;
+
+    /**
+     * @param minBytes size over which the body is compressed
+     */
+    GzipBodyStream(int minBytes) {
+        this.minBytes = minBytes;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        write(new byte[]{(byte) b}, 0, 1);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (closed)
+            throw new IOException("stream closed");
+        if (gzip == null && head.size() + len <= minBytes) {
+            head.write(b, off, len);
+            return;
+        }
+
+        if (gzip == null) {
+            gzip = new GZIPOutputStream(chunks, CHUNK_BYTES);
+            head.writeTo(gzip);
+            head = null;
+        }
+        gzip.write(b, off, len);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed)
+            return;
+        closed = true;
+        // Also closes the chunks, and frees the native memory of the Deflater right away instead of on GC
+        if (gzip != null)
+            gzip.close();
+    }
+
+    /**
+     * @return true if the body went over {@code minBytes} and was compressed
+     */
+    boolean isCompressed() {
+        return gzip != null;
+    }
+
+    /**
+     * @return {@link HttpRequest.BodyPublisher} of the body written, compressed or not
+     */
+    HttpRequest.BodyPublisher toPublisher() {
+        if (gzip == null)
+            return HttpRequest.BodyPublishers.ofByteArray(head.toByteArray());
+
+        return HttpRequest.BodyPublishers.fromPublisher(
+                HttpRequest.BodyPublishers.ofByteArrays(chunks.list), chunks.size);
+    }
+
+    /**
+     * Collects the compressed bytes in chunks, never copying the ones already written
+     */
+    private static final class Chunks extends OutputStream {
+        private final List<byte[]> list = new ArrayList<>();
+        private byte[] current = new byte[CHUNK_BYTES];
+        private int position;
+        private long size;
+
+        @Override
+        public void write(int b) {
+            write(new byte[]{(byte) b}, 0, 1);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            while (len > 0) {
+                if (position == current.length) {
+                    list.add(current);
+                    current = new byte[CHUNK_BYTES];
+                    position = 0;
+                }
+                int length = Math.min(len, current.length - position);
+                System.arraycopy(b, off, current, position, length);
+                position += length;
+                off += length;
+                len -= length;
+                size += length;
+            }
+        }
+
+        @Override
+        public void close() {
+            if (position > 0)
+                list.add(Arrays.copyOf(current, position));
+            current = new byte[0];
+            position = 0;
+        }
+    }
+}
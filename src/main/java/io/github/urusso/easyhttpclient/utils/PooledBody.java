@@ -0,0 +1,148 @@
+package io.github.urusso.easyhttpclient.utils;
+
+import java.io.InputStream;
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Response body collected into buffers of a {@link BufferPool}. <br>
+ * The buffers go back to the pool when the body is closed, e.g. with try-with-resources, so the body and everything
+ * read from it without copying, like {@link #buffers()} and {@link #inputStream()}, can't be used afterwards.
+ * A body that isn't closed is left to the GC and its buffers aren't reused.
+ */
+public final class PooledBody implements AutoCloseable {
+    private final BufferPool pool;
+    private final List<ByteBuffer> buffers;
+    private final long size;
+    private final Release release;
+    private final Cleaner.Cleanable cleanable;
+
+    PooledBody(BufferPool pool, List<ByteBuffer> buffers, long size) {
+        this.pool = pool;
+        this.buffers = buffers;
+        this.size = size;
+        this.release = new Release(pool, pool.leakTrace(), new AtomicBoolean());
+        this.cleanable = release.trace() != null ? pool.onUnreachable(this, release) : null;
+    }
+
+    /**
+     * @return bytes of the body
+     */
+    public long size() {
+        return size;
+    }
+
+    /**
+     * @return read-only views of the buffers holding the body, in order
+     */
+    public List<ByteBuffer> buffers() {
+        checkOpen();
+        return buffers.stream().map(ByteBuffer::asReadOnlyBuffer).toList();
+    }
+
+    /**
+     * @return {@link InputStream} reading the buffers without copying them, e.g. to be deserialized
+     */
+    public InputStream inputStream() {
+        checkOpen();
+        return new BuffersInputStream(buffers().iterator());
+    }
+
+    /**
+     * @return copy of the body in a new array
+     */
+    public byte[] toByteArray() {
+        checkOpen();
+        byte[] bytes = new byte[Math.toIntExact(size)];
+        int offset = 0;
+        for (ByteBuffer buffer : buffers) {
+            buffer.get(0, bytes, offset, buffer.remaining());
+            offset += buffer.remaining();
+        }
+        return bytes;
+    }
+
+    public String asString() {
+        return asString(StandardCharsets.UTF_8);
+    }
+
+    public String asString(Charset charset) {
+        return new String(toByteArray(), charset);
+    }
+
+    /**
+     * Gives the buffers back to the pool, only the first call has an effect
+     */
+    @Override
+    public void close() {
+        if (!release.released().compareAndSet(false, true))
+            return;
+
+        buffers.forEach(pool::release);
+        if (cleanable != null)
+            cleanable.clean();
+    }
+
+    private void checkOpen() {
+        if (release.released().get())
+            throw new IllegalStateException("PooledBody already closed");
+    }
+
+    /**
+     * Run by the cleaner when the body is collected by the GC, it mustn't reference the body
+     */
+    private record Release(BufferPool pool, Throwable trace, AtomicBoolean released) implements Runnable {
+        @Override
+        public void run() {
+            if (released.compareAndSet(false, true))
+                pool.leaked(trace);
+        }
+    }
+
+    private static final class BuffersInputStream extends InputStream {
+        private final Iterator<ByteBuffer> buffers;
+        private ByteBuffer current = ByteBuffer.allocate(0);
+
+        private BuffersInputStream(Iterator<ByteBuffer> buffers) {
+            this.buffers = buffers;
+        }
+
+        @Override
+        public int read() {
+            return advance() ? current.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            Objects.checkFromIndexSize(off, len, b.length);
+            if (len == 0)
+                return 0;
+            if (!advance())
+                return -1;
+
+            int length = Math.min(len, current.remaining());
+            current.get(b, off, length);
+            return length;
+        }
+
+        @Override
+        public int available() {
+            return current.remaining();
+        }
+
+        private boolean advance() {
+            while (!current.hasRemaining()) {
+                if (!buffers.hasNext())
+                    return false;
+                current = buffers.next();
+            }
+            return true;
+        }
+    }
+}
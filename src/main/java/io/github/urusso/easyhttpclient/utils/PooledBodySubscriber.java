@@ -0,0 +1,63 @@
+package io.github.urusso.easyhttpclient.utils;
+
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Flow;
+
+/**
+ * Copies the chunks of the response into buffers of a {@link BufferPool} as they're received.
+ * The buffers go back to the pool if the body fails before it's complete.
+ */
+final class PooledBodySubscriber implements HttpResponse.BodySubscriber<PooledBody> {
+    private final BufferPool pool;
+    private final BufferChain chain;
+    private final CompletableFuture<PooledBody> body = new CompletableFuture<>();
+
+    /**
+     * @param pool {@link BufferPool} the buffers are acquired from
+     * @param contentLength Content-Length of the response, negative if it isn't known
+     */
+    PooledBodySubscriber(BufferPool pool, long contentLength) {
+        this.pool = pool;
+        this.chain = new BufferChain(pool, contentLength);
+    }
+
+    /**
+     * @param pool {@link BufferPool} the buffers are acquired from
+     * @return {@link HttpResponse.BodyHandler} collecting each response into buffers of the pool
+     */
+    static HttpResponse.BodyHandler<PooledBody> handler(BufferPool pool) {
+        return responseInfo -> new PooledBodySubscriber(pool,
+                responseInfo.headers().firstValueAsLong("Content-Length").orElse(-1));
+    }
+
+    @Override
+    public CompletionStage<PooledBody> getBody() {
+        return body;
+    }
+
+    @Override
+    public void onSubscribe(Flow.Subscription subscription) {
+        subscription.request(Long.MAX_VALUE);
+    }
+
+    @Override
+    public void onNext(List<ByteBuffer> items) {
+        items.forEach(chain::write);
+    }
+
+    @Override
+    public void onError(Throwable throwable) {
+        chain.release();
+        body.completeExceptionally(throwable);
+    }
+
+    @Override
+    public void onComplete() {
+        long size = chain.size();
+        body.complete(new PooledBody(pool, chain.finish(), size));
+    }
+}
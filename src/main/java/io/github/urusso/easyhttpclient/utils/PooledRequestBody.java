@@ -0,0 +1,123 @@
+package io.github.urusso.easyhttpclient.utils;
+
+import java.lang.ref.Cleaner;
+import java.net.http.HttpRequest;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.Flow;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Request body serialized into buffers of a {@link BufferPool}, published with its exact length. <br>
+ * The buffers go back to the pool once the request is released with {@link #release()} and no subscription is still
+ * reading them, so that an attempt sent while the response arrives can't see them reused. A request that is never
+ * released, like a prepared one, gives them back once the body isn't referenced anymore.
+ */
+final class PooledRequestBody implements HttpRequest.BodyPublisher {
+    private final ByteBufferPublisher publisher;
+    private final Cleaner.Cleanable cleanable;
+    private final AtomicBoolean released = new AtomicBoolean();
+    // The request itself plus the subscriptions in progress
+    private final AtomicInteger references = new AtomicInteger(1);
+
+    PooledRequestBody(BufferPool pool, List<ByteBuffer> buffers) {
+        this.publisher = ByteBufferPublisher.of(buffers);
+        this.cleanable = pool.onUnreachable(this, () -> pool.releaseShared(buffers));
+    }
+
+    @Override
+    public long contentLength() {
+        return publisher.contentLength();
+    }
+
+    @Override
+    public void subscribe(Flow.Subscriber<? super ByteBuffer> subscriber) {
+        if (!retain()) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {}
+
+                @Override
+                public void cancel() {}
+            });
+            subscriber.onError(new IllegalStateException("The request body was released"));
+            return;
+        }
+        publisher.subscribe(new Releasing(subscriber));
+    }
+
+    /**
+     * Tells that the request won't be sent again, the buffers go back to the pool once the last subscription ends.
+     * Calling it more than once has no effect.
+     */
+    void release() {
+        if (released.compareAndSet(false, true))
+            dereference();
+    }
+
+    private boolean retain() {
+        int current;
+        do {
+            current = references.get();
+            if (current == 0)
+                return false;
+        } while (!references.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    private void dereference() {
+        if (references.decrementAndGet() == 0)
+            cleanable.clean();
+    }
+
+    /**
+     * Passes the slices on, dropping its reference once the subscription completes, fails or is cancelled
+     */
+    private final class Releasing implements Flow.Subscriber<ByteBuffer> {
+        private final Flow.Subscriber<? super ByteBuffer> subscriber;
+        private final AtomicBoolean ended = new AtomicBoolean();
+
+        private Releasing(Flow.Subscriber<? super ByteBuffer> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void onSubscribe(Flow.Subscription subscription) {
+            subscriber.onSubscribe(new Flow.Subscription() {
+                @Override
+                public void request(long n) {
+                    subscription.request(n);
+                }
+
+                @Override
+                public void cancel() {
+                    subscription.cancel();
+                    end();
+                }
+            });
+        }
+
+        @Override
+        public void onNext(ByteBuffer item) {
+            subscriber.onNext(item);
+        }
+
+        @Override
+        public void onError(Throwable throwable) {
+            end();
+            subscriber.onError(throwable);
+        }
+
+        @Override
+        public void onComplete() {
+            end();
+            subscriber.onComplete();
+        }
+
+        private void end() {
+            if (ended.compareAndSet(false, true))
+                dereference();
+        }
+    }
+}
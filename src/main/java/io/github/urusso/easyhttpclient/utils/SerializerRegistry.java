@@ -0,0 +1,73 @@
+package io.github.urusso.easyhttpclient.utils;
+
+import io.github.urusso.easyhttpclient.interfaces.EasySerializer;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Serializers of the formats a client speaks, by the media type of their {@link EasySerializer#contentType()}. <br>
+ * A Content-Type picks the serializer of its media type, ignoring the parameters. A structured syntax suffix like
+ * {@code application/problem+json} falls back to the serializer of {@code application/json}. Any other type gets
+ * the default serializer.
+ */
+final class SerializerRegistry {
+    private final EasySerializer defaultSerializer;
+    private final Map<String, EasySerializer> byMediaType = new LinkedHashMap<>();
+    private final String accept;
+
+    /**
+     * @param defaultSerializer {@link EasySerializer} of the bodies whose format isn't known
+     * @param formats {@link EasySerializer} of the other formats, the default one wins a media type they share
+     */
+    SerializerRegistry(EasySerializer defaultSerializer, Collection<EasySerializer> formats) {
+        this.defaultSerializer = defaultSerializer;
+        byMediaType.put(mediaType(defaultSerializer.contentType()), defaultSerializer);
+        for (EasySerializer format : formats)
+            byMediaType.putIfAbsent(mediaType(format.contentType()), format);
+
+        this.accept = byMediaType.size() == 1 ? null : byMediaType.keySet().stream()
+                .map(type -> type.equals(mediaType(defaultSerializer.contentType())) ? type : type + ";q=0.9")
+                .collect(Collectors.joining(", "));
+    }
+
+    EasySerializer getDefault() {
+        return defaultSerializer;
+    }
+
+    /**
+     * @param contentType Content-Type header, can be null
+     * @return {@link EasySerializer} of the media type, the default one if it isn't known
+     */
+    EasySerializer forContentType(String contentType) {
+        if (contentType == null)
+            return defaultSerializer;
+
+        String mediaType = mediaType(contentType);
+        EasySerializer serializer = byMediaType.get(mediaType);
+        if (serializer != null)
+            return serializer;
+
+        int suffix = mediaType.lastIndexOf('+');
+        int slash = mediaType.indexOf('/');
+        if (suffix > slash && slash > 0)
+            serializer = byMediaType.get(mediaType.substring(0, slash + 1) + mediaType.substring(suffix + 1));
+        return serializer != null ? serializer : defaultSerializer;
+    }
+
+    /**
+     * @return Accept header listing the formats, the default one first, null if there's only the default one
+     */
+    String getAccept() {
+        return accept;
+    }
+
+    private static String mediaType(String contentType) {
+        int parameters = contentType.indexOf(';');
+        String type = parameters >= 0 ? contentType.substring(0, parameters) : contentType;
+        return type.trim().toLowerCase(Locale.ROOT);
+    }
+}
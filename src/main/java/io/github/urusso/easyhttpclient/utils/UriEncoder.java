@@ -0,0 +1,119 @@
+package io.github.urusso.easyhttpclient.utils;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * RFC 3986 percent-encoder for the parts of the URL set through {@link io.github.urusso.easyhttpclient.EasyHttpRequest}.
+ * Each part has its own set of characters that can be left as they are. <br>
+ * If nothing needs to be escaped the original String is returned, otherwise it's encoded in a single pass.
+ */
+public final class UriEncoder {
+    private static final char[] HEX = "0123456789ABCDEF".toCharArray();
+
+    private static final boolean[] PATH_SEGMENT = allowed("!$&'()*+,;=:@");
+    // '&', '=' and '+' are left out since servers split and decode query strings like HTML forms
+    private static final boolean[] QUERY_COMPONENT = allowed("!$'()*,;:@/?");
+    private static final boolean[] FRAGMENT = allowed("!$&'()*+,;=:@/?");
+
+    private UriEncoder() {}
+
+    /**
+     * Encodes a value used as a single path segment, '/' included
+     *
+     * @param value String to encode
+     * @return String encoded
+     */
+    public static String encodePathSegment(String value) {
+        return encode(value, PATH_SEGMENT);
+    }
+
+    /**
+     * Encodes a query param key or value
+     *
+     * @param value String to encode
+     * @return String encoded
+     */
+    public static String encodeQueryComponent(String value) {
+        return encode(value, QUERY_COMPONENT);
+    }
+
+    /**
+     * Encodes the fragment
+     *
+     * @param value String to encode
+     * @return String encoded
+     */
+    public static String encodeFragment(String value) {
+        return encode(value, FRAGMENT);
+    }
+
+    private static String encode(String value, boolean[] allowed) {
+        int length = value.length();
+        int i = 0;
+        while (i < length) {
+            char c = value.charAt(i);
+            if (c >= 128 || !allowed[c])
+                break;
+            i++;
+        }
+        if (i == length)
+            return value;
+
+        // Escaped characters take at least 3 chars
+        var encoded = new StringBuilder(length + 16);
+        encoded.append(value, 0, i);
+
+        while (i < length) {
+            char c = value.charAt(i);
+            if (c < 128) {
+                if (allowed[c])
+                    encoded.append(c);
+                else
+                    appendEscaped(encoded, c);
+            } else if (c < 0x800) {
+                appendEscaped(encoded, 0xC0 | (c >> 6));
+                appendEscaped(encoded, 0x80 | (c & 0x3F));
+            } else if (Character.isHighSurrogate(c) && i + 1 < length && Character.isLowSurrogate(value.charAt(i + 1))) {
+                int codePoint = Character.toCodePoint(c, value.charAt(++i));
+                appendEscaped(encoded, 0xF0 | (codePoint >> 18));
+                appendEscaped(encoded, 0x80 | ((codePoint >> 12) & 0x3F));
+                appendEscaped(encoded, 0x80 | ((codePoint >> 6) & 0x3F));
+                appendEscaped(encoded, 0x80 | (codePoint & 0x3F));
+            } else if (Character.isSurrogate(c)) {
+                // Unpaired surrogates can't be encoded in UTF-8, they are replaced like the JDK encoder does
+                appendEscaped(encoded, '?');
+            } else {
+                appendEscaped(encoded, 0xE0 | (c >> 12));
+                appendEscaped(encoded, 0x80 | ((c >> 6) & 0x3F));
+                appendEscaped(encoded, 0x80 | (c & 0x3F));
+            }
+            i++;
+        }
+
+        return encoded.toString();
+    }
+
+    private static void appendEscaped(StringBuilder builder, int b) {
+        builder.append('%').append(HEX[(b >> 4) & 0xF]).append(HEX[b & 0xF]);
+    }
+
+    /**
+     * Builds the table of the ASCII characters that can be left unescaped: the RFC 3986 unreserved ones
+     * plus the extra characters passed
+     */
+    private static boolean[] allowed(String extra) {
+        boolean[] allowed = new boolean[128];
+        for (char c = 'a'; c <= 'z'; c++)
+            allowed[c] = true;
+        for (char c = 'A'; c <= 'Z'; c++)
+            allowed[c] = true;
+        for (char c = '0'; c <= '9'; c++)
+            allowed[c] = true;
+        for (char c : "-._~".toCharArray())
+            allowed[c] = true;
+        for (byte c : extra.getBytes(StandardCharsets.US_ASCII))
+            allowed[c] = true;
+
+        return allowed;
+    }
+}
@@ -0,0 +1,152 @@
+package io.github.urusso.easyhttpclient.utils;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * URL parsed once into literal segments and path param placeholders, so building the {@link URI} of a request
+ * is a single pass into one pre-sized {@link StringBuilder}. <br>
+ * Templates are cached by their raw URL string in a bounded cache shared by all the clients.
+ */
+public final class UrlTemplate {
+    static final int MAX_CACHED_TEMPLATES = 512;
+    private static final Map<String, UrlTemplate> CACHE = new ConcurrentHashMap<>();
+
+    private final String[] literals;
+    private final String[] placeholders;
+    private final int literalsLength;
+
+    private UrlTemplate(String[] literals, String[] placeholders) {
+        this.literals = literals;
+        this.placeholders = placeholders;
+
+        int length = 0;
+        for (String literal : literals)
+            length += literal.length();
+        this.literalsLength = length;
+    }
+
+    /**
+     * Returns the cached template for the URL, parsing it if it's not cached yet.
+     * Once the cache is full the new URLs are parsed on every call and not cached, so URLs that are built by
+     * concatenation instead of path params can't grow it without limits, nor evict the templates already cached.
+     *
+     * @param url raw String URL, with path params in curly braces
+     * @return {@link UrlTemplate}
+     */
+    public static UrlTemplate of(String url) {
+        UrlTemplate template = CACHE.get(url);
+        if (template != null)
+            return template;
+
+        template = parse(url);
+        if (CACHE.size() < MAX_CACHED_TEMPLATES) {
+            UrlTemplate cached = CACHE.putIfAbsent(url, template);
+            if (cached != null)
+                return cached;
+        }
+
+        return template;
+    }
+
+    static int cacheSize() {
+        return CACHE.size();
+    }
+
+    /**
+     * Splits the URL in literals and placeholders. Unnecessary end slashes are removed, an URL like
+     * "blabla.com/api/user///" becomes "blabla.com/api/user"
+     *
+     * @param url String URL to parse
+     * @return {@link UrlTemplate}
+     */
+    static UrlTemplate parse(String url) {
+        url = removeEndSlashes(url);
+
+        List<String> literals = new ArrayList<>();
+        List<String> placeholders = new ArrayList<>();
+
+        int literalStart = 0;
+        int open = url.indexOf('{');
+        while (open >= 0) {
+            int close = url.indexOf('}', open);
+            if (close < 0)
+                break;
+
+            // With nested braces like "{{user}}" the innermost one is the placeholder
+            open = url.lastIndexOf('{', close);
+            literals.add(url.substring(literalStart, open));
+            placeholders.add(url.substring(open + 1, close));
+
+            literalStart = close + 1;
+            open = url.indexOf('{', literalStart);
+        }
+        literals.add(url.substring(literalStart));
+
+        return new UrlTemplate(literals.toArray(new String[0]), placeholders.toArray(new String[0]));
+    }
+
+    /**
+     * Builds the URI replacing the path params, then adding query params and fragment.
+     * Placeholders without a value are kept as they are.
+     *
+     * @param pathParams {@link Map} containing the key to replace and the value to replace it with
+     * @param queryParams {@link Map} containing the key-value params to add
+     * @param fragment String fragment to add, ignored if blank
+     * @return {@link URI}
+     * @throws IllegalArgumentException if the resulting String is not a valid URI
+     */
+    public URI expand(Map<String, String> pathParams, Map<String, String> queryParams, String fragment) {
+        var url = new StringBuilder(estimateLength(pathParams, queryParams, fragment));
+
+        for (int i = 0; i < placeholders.length; i++) {
+            url.append(literals[i]);
+
+            String value = pathParams.get(placeholders[i]);
+            if (value != null)
+                url.append(UriEncoder.encodePathSegment(value));
+            else
+                url.append('{').append(placeholders[i]).append('}');
+        }
+        url.append(literals[placeholders.length]);
+
+        char separator = '?';
+        for (Map.Entry<String, String> e : queryParams.entrySet()) {
+            url.append(separator).append(UriEncoder.encodeQueryComponent(e.getKey()))
+                    .append('=').append(UriEncoder.encodeQueryComponent(e.getValue()));
+            separator = '&';
+        }
+
+        if (fragment != null && !fragment.isBlank())
+            url.append('#').append(UriEncoder.encodeFragment(fragment));
+
+        return URI.create(url.toString());
+    }
+
+    private int estimateLength(Map<String, String> pathParams, Map<String, String> queryParams, String fragment) {
+        int length = literalsLength;
+
+        for (String placeholder : placeholders) {
+            String value = pathParams.get(placeholder);
+            length += value != null ? value.length() : placeholder.length() + 2;
+        }
+        for (Map.Entry<String, String> e : queryParams.entrySet())
+            length += e.getKey().length() + e.getValue().length() + 2;
+        if (fragment != null)
+            length += fragment.length() + 1;
+
+        // Room for a few escaped characters before the builder has to grow
+        return length + 16;
+    }
+
+    private static String removeEndSlashes(String url) {
+        int substringEnd = url.length();
+        while (substringEnd > 0 && url.charAt(substringEnd - 1) == '/')
+            substringEnd--;
+
+        return url.substring(0, substringEnd);
+    }
+}
@@ -0,0 +1,95 @@
+package io.github.urusso.easyhttpclient;
+
+import io.github.urusso.easyhttpclient.constant.BatchOrder;
+import io.github.urusso.easyhttpclient.dto.BatchResult;
+import io.github.urusso.easyhttpclient.exception.MalformedUriException;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BatchTest {
+    private final EasyHttpClient httpClient = EasyHttpClient.defaultClient();
+    private final MockWebServer mockServer = new MockWebServer();
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        // Echoes the path after a small delay, tracking how many requests are handled at the same time
+        mockServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                Thread.sleep(20);
+                inFlight.decrementAndGet();
+                return new MockResponse().setResponseCode(200).setBody(request.getPath());
+            }
+        });
+        mockServer.start();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        mockServer.shutdown();
+    }
+
+    @Test
+    public void sendBatchTest_BoundedAndInputOrder() {
+        List<EasyHttpRequest> requests = IntStream.range(0, 12)
+                .mapToObj(i -> EasyHttpRequest.builder(mockServer.url("/").toString() + "items/" + i).GET().build())
+                .toList();
+
+        List<BatchResult<String>> results = httpClient.sendBatch(requests, String.class,
+                BatchOptions.builder().maxInFlight(3).build());
+
+        assertEquals(12, results.size());
+        assertTrue(maxInFlight.get() <= 3);
+        for (int i = 0; i < 12; i++) {
+            assertTrue(results.get(i).isSuccess());
+            assertEquals(i, results.get(i).index());
+            assertEquals("/items/" + i, results.get(i).response().body());
+        }
+    }
+
+    @Test
+    public void sendBatchTest_FailuresCaptured() {
+        List<EasyHttpRequest> requests = List.of(
+                EasyHttpRequest.builder(mockServer.url("/ok").toString()).GET().build(),
+                EasyHttpRequest.builder("/relative").GET().build(),
+                EasyHttpRequest.builder(mockServer.url("/ok").toString()).GET().build());
+
+        List<BatchResult<String>> results = httpClient.sendBatch(requests, String.class, BatchOptions.defaults());
+
+        assertTrue(results.get(0).isSuccess());
+        assertFalse(results.get(1).isSuccess());
+        assertInstanceOf(MalformedUriException.class, results.get(1).error());
+        assertNull(results.get(1).response());
+        assertTrue(results.get(2).isSuccess());
+    }
+
+    @Test
+    public void sendBatchAsyncTest_StreamedInCompletionOrder() throws Exception {
+        List<EasyHttpRequest> requests = Collections.nCopies(6,
+                EasyHttpRequest.builder(mockServer.url("/stream").toString()).GET().build());
+        List<BatchResult<String>> streamed = Collections.synchronizedList(new ArrayList<>());
+
+        List<BatchResult<String>> results = httpClient.sendBatchAsync(requests, String.class,
+                BatchOptions.builder().maxInFlight(2).order(BatchOrder.COMPLETION).build(), streamed::add).get();
+
+        assertEquals(6, results.size());
+        assertEquals(results, streamed);
+    }
+}
@@ -0,0 +1,109 @@
+package io.github.urusso.easyhttpclient;
+
+import io.github.urusso.easyhttpclient.dto.SampleResponse;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CoalescingTest {
+    private static final String BODY = "{\"result\":\"ok\"}";
+
+    @Test
+    public void sendAsyncTest_IdenticalGetsShareOneCall() throws Exception {
+        try (var mockServer = new MockWebServer()) {
+            mockServer.enqueue(new MockResponse().setBody(BODY).setHeadersDelay(300, TimeUnit.MILLISECONDS));
+            mockServer.enqueue(new MockResponse().setBody(BODY));
+            mockServer.start();
+
+            var httpClient = EasyHttpClient.builder().coalesceRequests().build();
+            var request = EasyHttpRequest.builder(mockServer.url("/config").toString()).GET().build();
+
+            List<CompletableFuture<HttpResponse<SampleResponse>>> dtos = new ArrayList<>();
+            for (int i = 0; i < 10; i++)
+                dtos.add(httpClient.sendAsync(request, SampleResponse.class));
+            var string = httpClient.sendAsync(request);
+            var firstStream = httpClient.sendAsync(request, InputStream.class);
+            var secondStream = httpClient.sendAsync(request, InputStream.class);
+            var firstFile = httpClient.sendAsync(request, Path.class);
+            var secondFile = httpClient.sendAsync(request, Path.class);
+
+            // Deserialized once, every waiter gets the same body
+            var body = dtos.get(0).get().body();
+            assertEquals(new SampleResponse("ok"), body);
+            for (var dto : dtos)
+                assertSame(body, dto.get().body());
+            assertEquals(BODY, string.get().body());
+            try (InputStream first = firstStream.get().body(); InputStream second = secondStream.get().body()) {
+                assertEquals(BODY, new String(first.readAllBytes(), StandardCharsets.UTF_8));
+                assertEquals(BODY, new String(second.readAllBytes(), StandardCharsets.UTF_8));
+            }
+            // Each caller owns its temporary file
+            Path first = firstFile.get().body();
+            Path second = secondFile.get().body();
+            assertNotEquals(first, second);
+            Files.delete(first);
+            assertEquals(BODY, Files.readString(second));
+            Files.delete(second);
+            assertEquals(1, mockServer.getRequestCount());
+
+            // Once the call is over, a new request sends its own
+            assertEquals(BODY, httpClient.send(request).body());
+            assertEquals(2, mockServer.getRequestCount());
+        }
+    }
+
+    @Test
+    public void sendAsyncTest_DifferentHeadersNotCoalesced() throws Exception {
+        try (var mockServer = new MockWebServer()) {
+            mockServer.enqueue(new MockResponse().setBody("en").setHeadersDelay(200, TimeUnit.MILLISECONDS));
+            mockServer.enqueue(new MockResponse().setBody("it").setHeadersDelay(200, TimeUnit.MILLISECONDS));
+            mockServer.start();
+
+            var httpClient = EasyHttpClient.builder().coalesceRequests().build();
+            var english = httpClient.sendAsync(EasyHttpRequest.builder(mockServer.url("/text").toString())
+                    .GET().header("Accept-Language", "en").build());
+            var italian = httpClient.sendAsync(EasyHttpRequest.builder(mockServer.url("/text").toString())
+                    .GET().header("Accept-Language", "it").build());
+
+            assertNotEquals(english.get().body(), italian.get().body());
+            assertEquals(2, mockServer.getRequestCount());
+        }
+    }
+
+    @Test
+    public void sendAsyncTest_CallCancelledWithAllWaiters() throws Exception {
+        try (var mockServer = new MockWebServer()) {
+            mockServer.enqueue(new MockResponse().setBody(BODY).setHeadersDelay(2, TimeUnit.SECONDS));
+            mockServer.enqueue(new MockResponse().setBody(BODY));
+            mockServer.start();
+
+            var httpClient = EasyHttpClient.builder().coalesceRequests().build();
+            var request = EasyHttpRequest.builder(mockServer.url("/config").toString()).GET().build();
+
+            var first = httpClient.sendAsync(request, SampleResponse.class);
+            var second = httpClient.sendAsync(request, SampleResponse.class);
+            mockServer.takeRequest();
+
+            first.cancel(true);
+            assertFalse(second.isDone());
+            second.cancel(true);
+
+            // The abandoned call can't be joined, a new request sends its own
+            var response = httpClient.sendAsync(request, SampleResponse.class).get(1, TimeUnit.SECONDS);
+            assertEquals(new SampleResponse("ok"), response.body());
+            assertEquals(2, mockServer.getRequestCount());
+        }
+    }
+}
@@ -0,0 +1,374 @@
+package io.github.urusso.easyhttpclient;
+
+import io.github.urusso.easyhttpclient.exception.HttpCallException;
+import io.github.urusso.easyhttpclient.policy.RetryPolicy;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import okhttp3.mockwebserver.SocketPolicy;
+import okio.Buffer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DownloadTest {
+    private static final byte[] CONTENT = new byte[256 * 1024];
+
+    static {
+        new Random(42).nextBytes(CONTENT);
+    }
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void downloadTest_ParallelDownloadsToUniqueFiles() throws Exception {
+        try (var mockServer = new MockWebServer()) {
+            mockServer.setDispatcher(new RangeDispatcher());
+            mockServer.start();
+
+            var httpClient = EasyHttpClient.builder().build();
+            var request = EasyHttpRequest.builder(mockServer.url("/files/data.bin").toString()).GET().build();
+            var options = DownloadOptions.toDirectory(directory).build();
+
+            List<CompletableFuture<HttpResponse<Path>>> downloads = new ArrayList<>();
+            for (int i = 0; i < 8; i++)
+                downloads.add(httpClient.downloadAsync(request, options));
+
+            var files = new HashSet<Path>();
+            for (var download : downloads) {
+                Path file = download.get().body();
+                assertArrayEquals(CONTENT, Files.readAllBytes(file));
+                files.add(file);
+            }
+            assertEquals(8, files.size());
+            assertTrue(files.contains(directory.resolve("data.bin")));
+            assertTrue(files.contains(directory.resolve("data-7.bin")));
+            try (var list = Files.list(directory)) {
+                assertEquals(8, list.count());
+            }
+        }
+    }
+
+    @Test
+    public void downloadTest_ResumedWithRange() throws Exception {
+        try (var mockServer = new MockWebServer()) {
+            var dispatcher = new RangeDispatcher();
+            dispatcher.failFirst = true;
+            mockServer.setDispatcher(dispatcher);
+            mockServer.start();
+
+            var httpClient = EasyHttpClient.builder().build();
+            var request = EasyHttpRequest.builder(mockServer.url("/files/data.bin").toString()).GET().build();
+            Path target = directory.resolve("data.bin");
+            var progress = new AtomicLong();
+            var options = DownloadOptions.toFile(target).resume()
+                    .listener((downloaded, total) -> {
+                        assertEquals(CONTENT.length, total);
+                        progress.set(downloaded);
+                    })
+                    .build();
+
+            // The connection drops halfway, the partial file is kept
+            assertThrows(RuntimeException.class, () -> httpClient.download(request, options));
+            long partial = Files.size(directory.resolve("data.bin.part"));
+            assertTrue(partial > 0 && partial < CONTENT.length);
+            assertFalse(Files.exists(target));
+
+            var response = httpClient.download(request, options);
+            assertEquals(206, response.statusCode());
+            assertArrayEquals(CONTENT, Files.readAllBytes(target));
+            assertFalse(Files.exists(directory.resolve("data.bin.part")));
+            assertEquals(CONTENT.length, progress.get());
+
+            mockServer.takeRequest();
+            assertEquals("bytes=" + partial + "-", mockServer.takeRequest().getHeader("Range"));
+        }
+    }
+
+    @Test
+    public void downloadTest_DirectoryResumedWithSameName() throws Exception {
+        try (var mockServer = new MockWebServer()) {
+            var dispatcher = new RangeDispatcher();
+            dispatcher.failFirst = true;
+            mockServer.setDispatcher(dispatcher);
+            mockServer.start();
+
+            var httpClient = EasyHttpClient.builder().build();
+            var request = EasyHttpRequest.builder(mockServer.url("/files/data.bin").toString()).GET().build();
+            var options = DownloadOptions.toDirectory(directory).resume().build();
+
+            // The failed download leaves only its partial file, which the next one picks again
+            assertThrows(RuntimeException.class, () -> httpClient.download(request, options));
+            long partial = Files.size(directory.resolve("data.bin.part"));
+            assertFalse(Files.exists(directory.resolve("data.bin")));
+
+            var response = httpClient.download(request, options);
+            assertEquals(206, response.statusCode());
+            assertEquals(directory.resolve("data.bin"), response.body());
+            assertArrayEquals(CONTENT, Files.readAllBytes(response.body()));
+            try (var list = Files.list(directory)) {
+                assertEquals(1, list.count());
+            }
+
+            mockServer.takeRequest();
+            assertEquals("bytes=" + partial + "-", mockServer.takeRequest().getHeader("Range"));
+        }
+    }
+
+    @Test
+    public void downloadTest_DirectoryErrorStatusLeavesNoFile() throws Exception {
+        try (var mockServer = new MockWebServer()) {
+            mockServer.enqueue(new MockResponse().setResponseCode(404).setBody("not found"));
+            mockServer.enqueue(new MockResponse().setResponseCode(404).setBody("not found"));
+            mockServer.start();
+
+            var httpClient = EasyHttpClient.builder().build();
+            var request = EasyHttpRequest.builder(mockServer.url("/missing.bin").toString()).GET().build();
+            var options = DownloadOptions.toDirectory(directory).build();
+
+            assertNull(httpClient.download(request, options).body());
+            assertNull(httpClient.downloadAsync(request, options).get().body());
+            try (var list = Files.list(directory)) {
+                assertEquals(0, list.count());
+            }
+        }
+    }
+
+    @Test
+    public void downloadTest_ErrorStatusLeavesNoFile() throws Exception {
+        try (var mockServer = new MockWebServer()) {
+            mockServer.enqueue(new MockResponse().setResponseCode(404).setBody("not found"));
+            mockServer.start();
+
+            var httpClient = EasyHttpClient.builder().build();
+            var request = EasyHttpRequest.builder(mockServer.url("/missing.bin").toString()).GET().build();
+            Path target = directory.resolve("missing.bin");
+
+            var response = httpClient.download(request, DownloadOptions.toFile(target).build());
+            assertEquals(404, response.statusCode());
+            assertNull(response.body());
+            assertFalse(Files.exists(target));
+        }
+    }
+
+    @Test
+    public void sendTest_PathResponsesNeverShareAFile() throws Exception {
+        try (var mockServer = new MockWebServer()) {
+            mockServer.enqueue(new MockResponse().setBody("first"));
+            mockServer.enqueue(new MockResponse().setBody("second"));
+            mockServer.start();
+
+            var httpClient = EasyHttpClient.builder().build();
+            var request = EasyHttpRequest.builder(mockServer.url("/text").toString()).GET().build();
+
+            Path first = httpClient.send(request, Path.class).body();
+            Path second = httpClient.send(request, Path.class).body();
+            assertNotEquals(first, second);
+            assertEquals("first", Files.readString(first));
+            assertEquals("second", Files.readString(second));
+            Files.delete(first);
+            Files.delete(second);
+        }
+    }
+
+    @Test
+    public void downloadTest_SegmentsFetchedInParallelAndRetried() throws Exception {
+        try (var mockServer = new MockWebServer()) {
+            var dispatcher = new RangeDispatcher();
+            dispatcher.failFirst = true;
+            mockServer.setDispatcher(dispatcher);
+            mockServer.start();
+
+            var httpClient = EasyHttpClient.builder().build();
+            var request = EasyHttpRequest.builder(mockServer.url("/files/data.bin").toString()).GET().build();
+            Path target = directory.resolve("data.bin");
+            var progress = new AtomicLong();
+            var options = DownloadOptions.toFile(target).segments(4)
+                    .sha256(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(CONTENT)))
+                    .listener((downloaded, total) -> progress.set(downloaded))
+                    .build();
+
+            var response = httpClient.download(request, options);
+            assertEquals(target, response.body());
+            assertArrayEquals(CONTENT, Files.readAllBytes(target));
+            assertFalse(Files.exists(directory.resolve("data.bin.part")));
+            assertEquals(CONTENT.length, progress.get());
+
+            assertEquals("HEAD", mockServer.takeRequest().getMethod());
+            // 4 segments plus the one asked again for the bytes missing after the dropped connection
+            assertEquals(6, mockServer.getRequestCount());
+            List<String> ranges = new ArrayList<>();
+            for (int i = 0; i < 5; i++) {
+                var ranged = mockServer.takeRequest();
+                assertEquals("\"v1\"", ranged.getHeader("If-Range"));
+                ranges.add(ranged.getHeader("Range"));
+            }
+            assertTrue(ranges.containsAll(List.of("bytes=0-65535", "bytes=65536-131071",
+                    "bytes=131072-196607", "bytes=196608-262143")));
+        }
+    }
+
+    @Test
+    public void downloadTest_SegmentedFallsBackWithoutRanges() throws Exception {
+        try (var mockServer = new MockWebServer()) {
+            var dispatcher = new RangeDispatcher();
+            dispatcher.acceptRanges = false;
+            mockServer.setDispatcher(dispatcher);
+            mockServer.start();
+
+            var httpClient = EasyHttpClient.builder().build();
+            var request = EasyHttpRequest.builder(mockServer.url("/files/data.bin").toString()).GET().build();
+            Path target = directory.resolve("data.bin");
+
+            var response = httpClient.downloadAsync(request, DownloadOptions.toFile(target).segments(4).build()).get();
+            assertEquals(200, response.statusCode());
+            assertArrayEquals(CONTENT, Files.readAllBytes(target));
+
+            assertEquals("HEAD", mockServer.takeRequest().getMethod());
+            assertNull(mockServer.takeRequest().getHeader("Range"));
+            assertEquals(2, mockServer.getRequestCount());
+        }
+    }
+
+    @Test
+    public void downloadTest_SegmentRetriedByRetryPolicyWrittenAtItsOffset() throws Exception {
+        try (var mockServer = new MockWebServer()) {
+            var dispatcher = new RangeDispatcher();
+            dispatcher.failFirst = true;
+            mockServer.setDispatcher(dispatcher);
+            mockServer.start();
+
+            var httpClient = EasyHttpClient.builder().retryPolicy(RetryPolicy.builder().build()).build();
+            var request = EasyHttpRequest.builder(mockServer.url("/files/data.bin").toString()).GET().build();
+            Path target = directory.resolve("data.bin");
+            var progress = new AtomicLong();
+            var options = DownloadOptions.toFile(target).segments(2)
+                    .listener((downloaded, total) -> progress.set(downloaded))
+                    .build();
+
+            var response = httpClient.download(request, options);
+            assertArrayEquals(CONTENT, Files.readAllBytes(response.body()));
+            assertEquals(CONTENT.length, progress.get());
+        }
+    }
+
+    @Test
+    public void downloadTest_SegmentedChecksumMismatchLeavesNoFile() throws Exception {
+        try (var mockServer = new MockWebServer()) {
+            mockServer.setDispatcher(new RangeDispatcher());
+            mockServer.start();
+
+            var httpClient = EasyHttpClient.builder().build();
+            var request = EasyHttpRequest.builder(mockServer.url("/files/data.bin").toString()).GET().build();
+            Path target = directory.resolve("data.bin");
+            var options = DownloadOptions.toFile(target).segments(3).sha256("0".repeat(64)).build();
+
+            var exception = assertThrows(HttpCallException.class, () -> httpClient.download(request, options));
+            assertTrue(exception.getCause().getMessage().contains("SHA-256"));
+            assertFalse(Files.exists(target));
+            assertFalse(Files.exists(directory.resolve("data.bin.part")));
+        }
+    }
+
+    @Test
+    public void downloadTest_ChecksumVerifiedWithoutSegments() throws Exception {
+        try (var mockServer = new MockWebServer()) {
+            var dispatcher = new RangeDispatcher();
+            dispatcher.acceptRanges = false;
+            mockServer.setDispatcher(dispatcher);
+            mockServer.start();
+
+            var httpClient = EasyHttpClient.builder().build();
+            var request = EasyHttpRequest.builder(mockServer.url("/files/data.bin").toString()).GET().build();
+            Path target = directory.resolve("data.bin");
+            String wrong = "0".repeat(64);
+
+            // A single request
+            var single = DownloadOptions.toFile(target).sha256(wrong).build();
+            var exception = assertThrows(HttpCallException.class, () -> httpClient.download(request, single));
+            assertTrue(hasMessage(exception, "SHA-256"));
+            assertFalse(Files.exists(target));
+
+            // The fallback of a server not accepting ranges
+            var fallback = DownloadOptions.toFile(target).segments(3).sha256(wrong).build();
+            exception = assertThrows(HttpCallException.class, () -> httpClient.download(request, fallback));
+            assertTrue(hasMessage(exception, "SHA-256"));
+            assertFalse(Files.exists(target));
+            assertFalse(Files.exists(directory.resolve("data.bin.part")));
+
+            var right = DownloadOptions.toFile(target).segments(3)
+                    .sha256(HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(CONTENT)))
+                    .build();
+            assertArrayEquals(CONTENT, Files.readAllBytes(httpClient.download(request, right).body()));
+        }
+    }
+
+    @Test
+    public void downloadOptionsTest_SegmentsCantBeResumed() {
+        var builder = DownloadOptions.toFile(directory.resolve("data.bin")).resume().segments(2);
+        assertThrows(IllegalArgumentException.class, builder::build);
+    }
+
+    private static boolean hasMessage(Throwable error, String text) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause.getMessage() != null && cause.getMessage().contains(text))
+                return true;
+        }
+        return false;
+    }
+
+    /**
+     * Serves {@link #CONTENT}, only the bytes asked by a Range header if any
+     */
+    private static final class RangeDispatcher extends Dispatcher {
+        private volatile boolean failFirst;
+        private volatile boolean acceptRanges = true;
+
+        @Override
+        public MockResponse dispatch(RecordedRequest request) {
+            if ("HEAD".equals(request.getMethod())) {
+                var response = new MockResponse().setHeader("Content-Length", CONTENT.length);
+                if (acceptRanges)
+                    response.setHeader("Accept-Ranges", "bytes").setHeader("ETag", "\"v1\"");
+                return response;
+            }
+
+            String range = request.getHeader("Range");
+            MockResponse response;
+            if (range == null || !acceptRanges) {
+                response = new MockResponse().setBody(new Buffer().write(CONTENT));
+            } else {
+                String[] bounds = range.substring("bytes=".length()).split("-", -1);
+                int start = Integer.parseInt(bounds[0]);
+                int end = bounds[1].isEmpty() ? CONTENT.length - 1 : Integer.parseInt(bounds[1]);
+                var body = new Buffer().write(CONTENT, start, end - start + 1);
+                response = new MockResponse().setResponseCode(206).setBody(body)
+                        .setHeader("ETag", "\"v1\"")
+                        .setHeader("Content-Range", "bytes " + start + "-" + end + "/" + CONTENT.length);
+            }
+
+            if (failFirst) {
+                failFirst = false;
+                response.throttleBody(16 * 1024, 10, TimeUnit.MILLISECONDS)
+                        .setSocketPolicy(SocketPolicy.DISCONNECT_DURING_RESPONSE_BODY);
+            }
+            return response;
+        }
+    }
+}
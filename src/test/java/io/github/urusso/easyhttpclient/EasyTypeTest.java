@@ -0,0 +1,57 @@
+package io.github.urusso.easyhttpclient;
+
+import io.github.urusso.easyhttpclient.dto.SampleResponse;
+import io.github.urusso.easyhttpclient.serializer.EasyJacksonSerializer;
+import io.github.urusso.easyhttpclient.utils.EasyBodyHandler;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EasyTypeTest {
+    private static final EasyType<List<SampleResponse>> RESPONSES = new EasyType<>() {};
+
+    @Test
+    public void sendTest_GenericBodies() throws Exception {
+        try (var mockServer = new MockWebServer()) {
+            mockServer.enqueue(new MockResponse().setBody("[{\"result\":\"a\"},{\"result\":\"b\"}]"));
+            mockServer.enqueue(new MockResponse().setBody("{\"it\":{\"result\":\"ciao\"},\"en\":{\"result\":\"hi\"}}"));
+            mockServer.start();
+
+            var httpClient = EasyHttpClient.builder().build();
+            var request = EasyHttpRequest.builder(mockServer.url("/results").toString()).GET().build();
+
+            List<SampleResponse> list = httpClient.send(request, RESPONSES).body();
+            assertEquals(List.of(new SampleResponse("a"), new SampleResponse("b")), list);
+
+            Map<String, SampleResponse> map = httpClient.sendAsync(httpClient.prepare(request),
+                    new EasyType<Map<String, SampleResponse>>() {}).get().body();
+            assertEquals(Map.of("it", new SampleResponse("ciao"), "en", new SampleResponse("hi")), map);
+        }
+    }
+
+    @Test
+    public void bodyHandlerTest_BuiltOncePerType() {
+        var bodyHandler = new EasyBodyHandler(new EasyJacksonSerializer());
+
+        var first = bodyHandler.getResponseBodyHandler(RESPONSES.getType());
+        var second = bodyHandler.getResponseBodyHandler(new EasyType<List<SampleResponse>>() {}.getType());
+
+        assertSame(first, second);
+        assertNotSame(first, bodyHandler.getResponseBodyHandler(new EasyType<List<String>>() {}.getType()));
+        assertSame(bodyHandler.getResponseBodyHandler(String.class),
+                bodyHandler.getResponseBodyHandler(EasyType.of(String.class).getType()));
+    }
+
+    @Test
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public void easyTypeTest_RawSubclassRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new EasyType() {});
+        assertEquals(RESPONSES, new EasyType<List<SampleResponse>>() {});
+        assertEquals(SampleResponse.class, EasyType.of(SampleResponse.class).getType());
+    }
+}
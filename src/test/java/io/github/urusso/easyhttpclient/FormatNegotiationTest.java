@@ -0,0 +1,75 @@
+package io.github.urusso.easyhttpclient;
+
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import io.github.urusso.easyhttpclient.dto.SampleRequest;
+import io.github.urusso.easyhttpclient.dto.SampleResponse;
+import io.github.urusso.easyhttpclient.serializer.EasyCborSerializer;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okio.Buffer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class FormatNegotiationTest {
+    private static final CBORMapper CBOR = new CBORMapper();
+
+    @Test
+    public void sendTest_ResponseParsedByItsContentType() throws Exception {
+        try (var mockServer = new MockWebServer()) {
+            mockServer.enqueue(new MockResponse().setHeader("Content-Type", "application/cbor")
+                    .setBody(new Buffer().write(CBOR.writeValueAsBytes(new SampleResponse("binary")))));
+            mockServer.enqueue(new MockResponse().setHeader("Content-Type", "application/problem+json; charset=utf-8")
+                    .setBody("{\"result\":\"text\"}"));
+            mockServer.enqueue(new MockResponse().setBody("{\"result\":\"default\"}"));
+            mockServer.start();
+
+            var httpClient = EasyHttpClient.builder().format(new EasyCborSerializer()).build();
+            var request = EasyHttpRequest.builder(mockServer.url("/result").toString()).GET().build();
+
+            assertEquals(new SampleResponse("binary"), httpClient.send(request, SampleResponse.class).body());
+            assertEquals(new SampleResponse("text"), httpClient.send(request, SampleResponse.class).body());
+            assertEquals(new SampleResponse("default"), httpClient.send(request, SampleResponse.class).body());
+
+            assertEquals("application/json, application/cbor;q=0.9", mockServer.takeRequest().getHeader("Accept"));
+        }
+    }
+
+    @Test
+    public void sendTest_BodySerializedByRequestContentType() throws Exception {
+        try (var mockServer = new MockWebServer()) {
+            mockServer.enqueue(new MockResponse());
+            mockServer.enqueue(new MockResponse());
+            mockServer.start();
+
+            var httpClient = EasyHttpClient.builder().format(new EasyCborSerializer()).build();
+            String url = mockServer.url("/users").toString();
+
+            httpClient.send(EasyHttpRequest.builder(url).POST().contentType("application/cbor").accept("application/cbor")
+                    .body(new SampleRequest("binary"), SampleRequest.class).build());
+            httpClient.send(EasyHttpRequest.builder(url).POST()
+                    .body(new SampleRequest("text"), SampleRequest.class).build());
+
+            var binary = mockServer.takeRequest();
+            assertEquals("application/cbor", binary.getHeader("Accept"));
+            assertEquals(new SampleRequest("binary"), CBOR.readValue(binary.getBody().readByteArray(), SampleRequest.class));
+
+            var text = mockServer.takeRequest();
+            assertEquals("application/json", text.getHeader("Content-Type"));
+            assertEquals("{\"username\":\"text\"}", text.getBody().readUtf8());
+        }
+    }
+
+    @Test
+    public void sendTest_NoAcceptWithASingleFormat() throws Exception {
+        try (var mockServer = new MockWebServer()) {
+            mockServer.enqueue(new MockResponse().setBody("{\"result\":\"ok\"}"));
+            mockServer.start();
+
+            var httpClient = EasyHttpClient.builder().build();
+            httpClient.send(EasyHttpRequest.builder(mockServer.url("/result").toString()).GET().build(), SampleResponse.class);
+
+            assertNull(mockServer.takeRequest().getHeader("Accept"));
+        }
+    }
+}
@@ -0,0 +1,120 @@
+package io.github.urusso.easyhttpclient;
+
+import io.github.urusso.easyhttpclient.dto.SampleRequest;
+import io.github.urusso.easyhttpclient.dto.SampleResponse;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.util.LinkedHashMap;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PreparedEasyRequestTest {
+    private final EasyHttpClient httpClient = EasyHttpClient.defaultClient();
+    private final MockWebServer mockServer = new MockWebServer();
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        mockServer.start();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        mockServer.shutdown();
+    }
+
+    @Test
+    public void sendTest_ReusedWithBody() throws InterruptedException {
+        for (int i = 0; i < 2; i++)
+            mockServer.enqueue(new MockResponse().setResponseCode(200).setBody("{\"result\": \"OK\"}"));
+
+        var prepared = httpClient.prepare(EasyHttpRequest.builder(mockServer.url("/").toString() + "users/{user}")
+                .POST()
+                .pathParam("user", "1")
+                .body(new SampleRequest("test"), SampleRequest.class)
+                .build());
+
+        for (int i = 0; i < 2; i++) {
+            HttpResponse<SampleResponse> response = httpClient.send(prepared, SampleResponse.class);
+            RecordedRequest recorded = mockServer.takeRequest();
+
+            assertEquals("OK", response.body().result());
+            assertEquals("/users/1", recorded.getPath());
+            assertEquals("{\"username\":\"test\"}", recorded.getBody().readUtf8());
+            assertEquals("application/json", recorded.getHeader("Content-Type"));
+        }
+    }
+
+    @Test
+    public void sendTest_Variants() throws Exception {
+        for (int i = 0; i < 3; i++)
+            mockServer.enqueue(new MockResponse().setResponseCode(200));
+
+        var prepared = httpClient.prepare(EasyHttpRequest.builder(mockServer.url("/").toString() + "users/{user}")
+                .GET()
+                .pathParam("user", "1")
+                .queryParam("page", "1")
+                .header("Authorization", "token")
+                .build());
+
+        httpClient.send(prepared.withPathParam("user", "2"), String.class);
+        httpClient.sendAsync(prepared.withQueryParam("page", "2"), String.class).get();
+        httpClient.send(prepared.withHeader("authorization", "other"), String.class);
+
+        assertEquals("/users/2?page=1", mockServer.takeRequest().getPath());
+        assertEquals("/users/1?page=2", mockServer.takeRequest().getPath());
+        RecordedRequest recorded = mockServer.takeRequest();
+        assertEquals("/users/1?page=1", recorded.getPath());
+        assertEquals("other", recorded.getHeader("Authorization"));
+        assertEquals(1, recorded.getHeaders().values("Authorization").size());
+    }
+
+    @Test
+    public void sendTest_VariantsKeepQueryOrder() throws InterruptedException {
+        for (int i = 0; i < 3; i++)
+            mockServer.enqueue(new MockResponse().setResponseCode(200));
+
+        var query = new LinkedHashMap<String, String>();
+        query.put("sort", "name");
+        query.put("page", "1");
+        query.put("filter", "active");
+        var prepared = httpClient.prepare(EasyHttpRequest.builder(mockServer.url("/users").toString())
+                .GET()
+                .queryMap(query)
+                .build());
+
+        httpClient.send(prepared, String.class);
+        httpClient.send(prepared.withQueryParam("page", "2"), String.class);
+        httpClient.send(prepared.withQueryParam("page", "2").withQueryParam("size", "10"), String.class);
+
+        assertEquals("/users?sort=name&page=1&filter=active", mockServer.takeRequest().getPath());
+        assertEquals("/users?sort=name&page=2&filter=active", mockServer.takeRequest().getPath());
+        assertEquals("/users?sort=name&page=2&filter=active&size=10", mockServer.takeRequest().getPath());
+    }
+
+    @Test
+    public void prepareTest_OneShotBodyRejected() {
+        var streamed = EasyHttpRequest.builder(mockServer.url("/").toString())
+                .POST()
+                .body(new ByteArrayInputStream(new byte[]{1, 2, 3}), InputStream.class)
+                .build();
+        var published = EasyHttpRequest.builder(mockServer.url("/").toString())
+                .POST()
+                .body(new SubmissionPublisher<ByteBuffer>(), Flow.Publisher.class)
+                .build();
+
+        assertThrows(IllegalArgumentException.class, () -> httpClient.prepare(streamed));
+        assertThrows(IllegalArgumentException.class, () -> httpClient.prepare(published));
+    }
+}
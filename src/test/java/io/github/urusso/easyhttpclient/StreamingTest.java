@@ -0,0 +1,117 @@
+package io.github.urusso.easyhttpclient;
+
+import io.github.urusso.easyhttpclient.dto.SampleResponse;
+import io.github.urusso.easyhttpclient.exception.DeserializationException;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class StreamingTest {
+
+    @Test
+    public void sendStreamingTest_JsonArrayElements() throws Exception {
+        try (var mockServer = new MockWebServer()) {
+            String array = IntStream.range(0, 10_000)
+                    .mapToObj(i -> "{\"result\":\"" + i + "\"}")
+                    .collect(Collectors.joining(",", "[", "]"));
+            mockServer.enqueue(new MockResponse().setBody(array));
+            mockServer.start();
+
+            var httpClient = EasyHttpClient.builder().build();
+            var request = EasyHttpRequest.builder(mockServer.url("/users").toString()).GET().build();
+
+            var response = httpClient.sendStreaming(request, SampleResponse.class);
+            try (var elements = response.body()) {
+                var list = elements.toList();
+                assertEquals(10_000, list.size());
+                assertEquals(new SampleResponse("0"), list.get(0));
+                assertEquals(new SampleResponse("9999"), list.get(9_999));
+            }
+        }
+    }
+
+    @Test
+    public void sendStreamingAsyncTest_NewlineDelimitedElements() throws Exception {
+        try (var mockServer = new MockWebServer()) {
+            mockServer.enqueue(new MockResponse().setBody("{\"result\":\"a\"}\n{\"result\":\"b\"}\n{\"result\":\"c\"}\n"));
+            mockServer.enqueue(new MockResponse().setResponseCode(204));
+            mockServer.start();
+
+            var httpClient = EasyHttpClient.builder().build();
+            var request = EasyHttpRequest.builder(mockServer.url("/events").toString()).GET().build();
+
+            try (var elements = httpClient.sendStreamingAsync(request, SampleResponse.class).get().body()) {
+                assertEquals(List.of(new SampleResponse("a"), new SampleResponse("b"), new SampleResponse("c")),
+                        elements.toList());
+            }
+            try (var empty = httpClient.sendStreaming(request, SampleResponse.class).body()) {
+                assertEquals(0, empty.count());
+            }
+        }
+    }
+
+    @Test
+    public void sendStreamingTest_ElementsParsedWhileReceived() throws Exception {
+        try (var mockServer = new MockWebServer()) {
+            // About 8 seconds to send the whole body
+            String array = IntStream.range(0, 4_000)
+                    .mapToObj(i -> "{\"result\":\"" + i + "\"}")
+                    .collect(Collectors.joining(",", "[", "]"));
+            mockServer.enqueue(new MockResponse().setBody(array).throttleBody(8 * 1024, 1, TimeUnit.SECONDS));
+            mockServer.start();
+
+            var httpClient = EasyHttpClient.builder().build();
+            var request = EasyHttpRequest.builder(mockServer.url("/users").toString()).GET().build();
+
+            long start = System.nanoTime();
+            try (var elements = httpClient.sendStreaming(request, SampleResponse.class).body()) {
+                assertEquals(List.of(new SampleResponse("0"), new SampleResponse("1")), elements.limit(2).toList());
+            }
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(4));
+        }
+    }
+
+    @Test
+    public void sendStreamingTest_MalformedElementThrownWhenReached() throws Exception {
+        try (var mockServer = new MockWebServer()) {
+            mockServer.enqueue(new MockResponse().setBody("[{\"result\":\"ok\"},{\"result\":]"));
+            mockServer.start();
+
+            var httpClient = EasyHttpClient.builder().build();
+            var request = EasyHttpRequest.builder(mockServer.url("/users").toString()).GET().build();
+
+            try (var elements = httpClient.sendStreaming(request, SampleResponse.class).body()) {
+                var iterator = elements.iterator();
+                assertEquals(new SampleResponse("ok"), iterator.next());
+                assertThrows(DeserializationException.class, iterator::hasNext);
+            }
+        }
+    }
+
+    @Test
+    public void sendAsyncTest_LargeBodyOnSingleThreadExecutor() throws Exception {
+        var executor = Executors.newFixedThreadPool(1);
+        try (var mockServer = new MockWebServer()) {
+            String body = "{\"result\":\"" + "x".repeat(2 * 1024 * 1024) + "\"}";
+            mockServer.enqueue(new MockResponse().setBody(body).throttleBody(256 * 1024, 10, TimeUnit.MILLISECONDS));
+            mockServer.start();
+
+            var httpClient = EasyHttpClient.builder().executor(executor).build();
+            var request = EasyHttpRequest.builder(mockServer.url("/large").toString()).GET().build();
+
+            // Reading the body must not wait for the network on the only thread of the executor
+            var response = httpClient.sendAsync(request, SampleResponse.class).get(10, TimeUnit.SECONDS);
+            assertEquals(2 * 1024 * 1024, response.body().result().length());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
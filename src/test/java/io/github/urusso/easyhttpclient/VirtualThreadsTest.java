@@ -0,0 +1,77 @@
+package io.github.urusso.easyhttpclient;
+
+import io.github.urusso.easyhttpclient.exception.HttpCallException;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.http.HttpResponse;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class VirtualThreadsTest {
+    private final EasyHttpClient httpClient = EasyHttpClient.builder().virtualThreads().build();
+    private final MockWebServer mockServer = new MockWebServer();
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        // Echoes the path, so every response can be matched with its request
+        mockServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse().setResponseCode(200).setBody(request.getPath());
+            }
+        });
+        mockServer.start();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        mockServer.shutdown();
+    }
+
+    @Test
+    public void sendAllTest_ResponsesInRequestOrder() {
+        List<EasyHttpRequest> requests = IntStream.range(0, 20)
+                .mapToObj(i -> EasyHttpRequest.builder(mockServer.url("/").toString() + "users/" + i).GET().build())
+                .toList();
+
+        List<HttpResponse<String>> responses = httpClient.sendAll(requests, String.class);
+
+        assertEquals(20, responses.size());
+        for (int i = 0; i < 20; i++)
+            assertEquals("/users/" + i, responses.get(i).body());
+    }
+
+    @Test
+    public void sendAllTest_FailureIsThrown() {
+        List<EasyHttpRequest> requests = List.of(
+                EasyHttpRequest.builder(mockServer.url("/ok").toString()).GET().build(),
+                EasyHttpRequest.builder("https://localhost:1/down").GET().build());
+
+        assertThrows(HttpCallException.class, () -> httpClient.sendAll(requests, String.class));
+    }
+
+    @Test
+    public void sendAsyncTest_StagesOnVirtualThreads() throws Exception {
+        var request = EasyHttpRequest.builder(mockServer.url("/async").toString()).GET().build();
+        var virtual = new AtomicBoolean();
+
+        httpClient.sendAsync(request)
+                .thenApplyAsync(response -> {
+                    virtual.set(Thread.currentThread().isVirtual());
+                    return response;
+                })
+                .get();
+
+        assertTrue(virtual.get());
+    }
+}
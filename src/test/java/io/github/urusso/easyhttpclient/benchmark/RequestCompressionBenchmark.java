@@ -0,0 +1,65 @@
+package io.github.urusso.easyhttpclient.benchmark;
+
+import io.github.urusso.easyhttpclient.dto.Body;
+import io.github.urusso.easyhttpclient.serializer.EasyJacksonSerializer;
+import io.github.urusso.easyhttpclient.utils.EasyBodyHandler;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the CPU cost of gzip compressing a serialized request body against the bytes it saves. Both benchmarks
+ * serialize the same document, one of them through the compressor. The {@code sentBytes} counter is the total
+ * sent by each one in the iteration, divided by its operation count it's the size of a single body. <br>
+ * Run with {@code mvn test -Pbenchmark -Dbenchmark=RequestCompression}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RequestCompressionBenchmark {
+    @Param({"10", "1000", "10000"})
+    private int records;
+
+    private final EasyBodyHandler bodyHandler = new EasyBodyHandler(new EasyJacksonSerializer());
+    private Body body;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Bytes {
+        public long sentBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            sentBytes = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        List<Map<String, Object>> document = new ArrayList<>(records);
+        for (int i = 0; i < records; i++)
+            document.add(Map.of("id", i, "name", "device-" + i, "status", i % 3 == 0 ? "ONLINE" : "OFFLINE",
+                    "temperature", 20.0 + i % 17 / 10.0));
+        body = new Body(document, List.class);
+    }
+
+    @Benchmark
+    public long plain(Bytes bytes) {
+        long length = bodyHandler.getRequestBody(body, -1).publisher().contentLength();
+        bytes.sentBytes += length;
+        return length;
+    }
+
+    @Benchmark
+    public long gzip(Bytes bytes) {
+        long length = bodyHandler.getRequestBody(body, 0).publisher().contentLength();
+        bytes.sentBytes += length;
+        return length;
+    }
+}
@@ -0,0 +1,84 @@
+package io.github.urusso.easyhttpclient.benchmark;
+
+import io.github.urusso.easyhttpclient.EasyType;
+import io.github.urusso.easyhttpclient.serializer.EasyCborSerializer;
+import io.github.urusso.easyhttpclient.serializer.EasyJacksonSerializer;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of JSON against CBOR writing and reading the same document. The {@code bodyBytes}
+ * counter is the total written by each one in the iteration, divided by its operation count it's the size of a
+ * single body. <br>
+ * Run with {@code mvn test -Pbenchmark -Dbenchmark=SerializationFormat}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SerializationFormatBenchmark {
+    private static final Type DOCUMENT = new EasyType<List<Map<String, Object>>>() {}.getType();
+
+    @Param({"10", "1000", "10000"})
+    private int records;
+
+    private final EasyJacksonSerializer json = new EasyJacksonSerializer();
+    private final EasyCborSerializer cbor = new EasyCborSerializer();
+    private List<Map<String, Object>> document;
+    private byte[] jsonBytes;
+    private byte[] cborBytes;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Bytes {
+        public long bodyBytes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            bodyBytes = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        document = new ArrayList<>(records);
+        for (int i = 0; i < records; i++)
+            document.add(Map.of("id", i, "name", "device-" + i, "status", i % 3 == 0 ? "ONLINE" : "OFFLINE",
+                    "temperature", 20.0 + i % 17 / 10.0));
+        jsonBytes = json.serializeToBytes(document);
+        cborBytes = cbor.serializeToBytes(document);
+    }
+
+    @Benchmark
+    public byte[] writeJson(Bytes bytes) throws IOException {
+        byte[] body = json.serializeToBytes(document);
+        bytes.bodyBytes += body.length;
+        return body;
+    }
+
+    @Benchmark
+    public byte[] writeCbor(Bytes bytes) throws IOException {
+        byte[] body = cbor.serializeToBytes(document);
+        bytes.bodyBytes += body.length;
+        return body;
+    }
+
+    @Benchmark
+    public Object readJson() throws IOException {
+        return json.deserialize(new ByteArrayInputStream(jsonBytes), DOCUMENT);
+    }
+
+    @Benchmark
+    public Object readCbor() throws IOException {
+        return cbor.deserialize(new ByteArrayInputStream(cborBytes), DOCUMENT);
+    }
+}
@@ -0,0 +1,34 @@
+package io.github.urusso.easyhttpclient.benchmark;
+
+import io.github.urusso.easyhttpclient.utils.UriEncoder;
+import org.openjdk.jmh.annotations.*;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link UriEncoder} with {@link URLEncoder} followed by the '+' replacement, on a value that doesn't need
+ * escaping and on one that does.
+ * Run with {@code mvn test -Pbenchmark -Dbenchmark="UriEncoder -prof gc"}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UriEncoderBenchmark {
+    @Param({"user-0123456789", "mario rossi & co/è"})
+    private String value;
+
+    @Benchmark
+    public String uriEncoder() {
+        return UriEncoder.encodeQueryComponent(value);
+    }
+
+    @Benchmark
+    public String urlEncoderReplace() {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+}
@@ -0,0 +1,53 @@
+package io.github.urusso.easyhttpclient.benchmark;
+
+import io.github.urusso.easyhttpclient.utils.UrlTemplate;
+import org.openjdk.jmh.annotations.*;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cached {@link UrlTemplate} with the String manipulation previously done on every call.
+ * Run with {@code mvn test -Pbenchmark -Dbenchmark="UrlTemplate -prof gc"}, the gc profiler
+ * shows the allocation rate.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UrlTemplateBenchmark {
+    private static final String URL = "https://blabla.org/api/countries/{country}/users/{user}/";
+
+    private final Map<String, String> pathParams = Map.of("country", "italy", "user", "001");
+    private final Map<String, String> queryParams = Map.of("findDeleted", "true", "page", "2");
+
+    @Benchmark
+    public URI urlTemplate() {
+        return UrlTemplate.of(URL).expand(pathParams, queryParams, null);
+    }
+
+    @Benchmark
+    public URI stringReplace() {
+        String url = URL.substring(0, URL.length() - 1);
+        for (Map.Entry<String, String> e : pathParams.entrySet())
+            url = url.replace("{" + e.getKey() + "}", encode(e.getValue()));
+
+        var params = new StringBuilder();
+        boolean justStarted = true;
+        for (Map.Entry<String, String> e : queryParams.entrySet()) {
+            params.append(justStarted ? "?" : "&").append(e.getKey()).append("=").append(encode(e.getValue()));
+            justStarted = false;
+        }
+
+        return URI.create(url.concat(params.toString()));
+    }
+
+    private static String encode(String param) {
+        return URLEncoder.encode(param, StandardCharsets.UTF_8).replace("+", "%20");
+    }
+}
@@ -0,0 +1,97 @@
+package io.github.urusso.easyhttpclient.benchmark;
+
+import io.github.urusso.easyhttpclient.EasyHttpClient;
+import io.github.urusso.easyhttpclient.EasyHttpRequest;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends a burst of blocking calls to a local MockWebServer that answers after a small delay, comparing
+ * {@link EasyHttpClient#sendAll} on virtual threads with a fixed pool of platform threads.
+ * The peak count of platform threads is printed at the end of each trial, it includes the thread MockWebServer
+ * starts for every connection. <br>
+ * Run with {@code mvn test -Pbenchmark -Dbenchmark=VirtualThreads}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class VirtualThreadsBenchmark {
+    private static final int BURST = 200;
+    private static final int PLATFORM_THREADS = 32;
+
+    @Param({"virtual", "platform"})
+    private String threads;
+
+    private MockWebServer mockServer;
+    private EasyHttpClient httpClient;
+    private ExecutorService platformPool;
+    private List<EasyHttpRequest> requests;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        mockServer = new MockWebServer();
+        mockServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                return new MockResponse().setResponseCode(200).setBody("ok")
+                        .setHeadersDelay(5, TimeUnit.MILLISECONDS);
+            }
+        });
+        mockServer.start();
+
+        if ("virtual".equals(threads)) {
+            httpClient = EasyHttpClient.builder().virtualThreads().build();
+        } else {
+            httpClient = EasyHttpClient.defaultClient();
+            platformPool = Executors.newFixedThreadPool(PLATFORM_THREADS);
+        }
+
+        String url = mockServer.url("/test").toString();
+        requests = Collections.nCopies(BURST, EasyHttpRequest.builder(url).GET().build());
+        ManagementFactory.getThreadMXBean().resetPeakThreadCount();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        System.out.println();
+        System.out.println("Peak threads (" + threads + "): " + ManagementFactory.getThreadMXBean().getPeakThreadCount());
+
+        if (platformPool != null)
+            platformPool.shutdownNow();
+        mockServer.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BURST)
+    public List<HttpResponse<String>> burst() throws ExecutionException, InterruptedException {
+        if (platformPool == null)
+            return httpClient.sendAll(requests, String.class);
+
+        List<Future<HttpResponse<String>>> futures = new ArrayList<>(BURST);
+        for (EasyHttpRequest request : requests)
+            futures.add(platformPool.submit(() -> httpClient.send(request)));
+
+        List<HttpResponse<String>> responses = new ArrayList<>(BURST);
+        for (Future<HttpResponse<String>> future : futures)
+            responses.add(future.get());
+        return responses;
+    }
+}
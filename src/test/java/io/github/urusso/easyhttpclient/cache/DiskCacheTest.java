@@ -0,0 +1,145 @@
+package io.github.urusso.easyhttpclient.cache;
+
+import io.github.urusso.easyhttpclient.EasyHttpClient;
+import io.github.urusso.easyhttpclient.EasyHttpRequest;
+import io.github.urusso.easyhttpclient.dto.SampleResponse;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DiskCacheTest {
+    private static final String BODY = "{\"result\":\"ok\"}";
+
+    @TempDir
+    Path directory;
+
+    @Test
+    public void sendTest_EntryServedAfterRestart() throws Exception {
+        try (var mockServer = new MockWebServer()) {
+            mockServer.enqueue(new MockResponse().setBody(BODY).setHeader("Cache-Control", "max-age=60"));
+            mockServer.start();
+            var request = EasyHttpRequest.builder(mockServer.url("/config").toString()).GET().build();
+
+            try (var disk = DiskCache.builder(directory).build()) {
+                var httpClient = EasyHttpClient.builder()
+                        .responseCache(ResponseCache.builder().diskCache(disk).build())
+                        .build();
+                assertEquals(BODY, httpClient.send(request).body());
+                assertEquals(1, disk.getEntryCount());
+            }
+
+            try (var disk = DiskCache.builder(directory).build()) {
+                var cache = ResponseCache.builder().diskCache(disk).build();
+                var httpClient = EasyHttpClient.builder().responseCache(cache).build();
+
+                assertEquals(BODY, httpClient.send(request).body());
+                assertEquals(new SampleResponse("ok"), httpClient.sendAsync(request, SampleResponse.class).get().body());
+                assertArrayEquals(BODY.getBytes(StandardCharsets.UTF_8), httpClient.send(request, byte[].class).body());
+                try (InputStream body = httpClient.send(request, InputStream.class).body()) {
+                    assertEquals(BODY, new String(body.readAllBytes(), StandardCharsets.UTF_8));
+                }
+
+                assertEquals(4, cache.getHitCount());
+                assertEquals(1, mockServer.getRequestCount());
+            }
+        }
+    }
+
+    @Test
+    public void sendTest_RemovedEntryNotReloaded() throws Exception {
+        try (var mockServer = new MockWebServer()) {
+            mockServer.enqueue(new MockResponse().setBody("a").setHeader("Cache-Control", "max-age=60"));
+            mockServer.enqueue(new MockResponse().setBody("b").setHeader("Cache-Control", "no-store"));
+            mockServer.enqueue(new MockResponse().setBody("c"));
+            mockServer.start();
+            var request = EasyHttpRequest.builder(mockServer.url("/config").toString()).GET()
+                    .header("Cache-Control", "no-cache").build();
+            var plain = EasyHttpRequest.builder(mockServer.url("/config").toString()).GET().build();
+
+            try (var disk = DiskCache.builder(directory).build()) {
+                var httpClient = EasyHttpClient.builder()
+                        .responseCache(ResponseCache.builder().diskCache(disk).build())
+                        .build();
+                assertEquals("a", httpClient.send(request).body());
+                assertEquals("b", httpClient.send(request).body());
+                assertEquals(0, disk.getEntryCount());
+            }
+
+            try (var disk = DiskCache.builder(directory).build()) {
+                var httpClient = EasyHttpClient.builder()
+                        .responseCache(ResponseCache.builder().diskCache(disk).build())
+                        .build();
+                assertEquals(0, disk.getEntryCount());
+                assertEquals("c", httpClient.send(plain).body());
+            }
+        }
+    }
+
+    @Test
+    public void loadTest_TornBodyNotReloaded() throws Exception {
+        try (var mockServer = new MockWebServer()) {
+            mockServer.enqueue(new MockResponse().setBody(BODY).setHeader("Cache-Control", "max-age=60"));
+            mockServer.enqueue(new MockResponse().setBody(BODY).setHeader("Cache-Control", "max-age=60"));
+            mockServer.start();
+            var request = EasyHttpRequest.builder(mockServer.url("/config").toString()).GET().build();
+
+            try (var disk = DiskCache.builder(directory).segmentBytes(4096).maxBytes(8192).build()) {
+                var httpClient = EasyHttpClient.builder()
+                        .responseCache(ResponseCache.builder().diskCache(disk).build())
+                        .build();
+                assertEquals(BODY, httpClient.send(request).body());
+            }
+
+            // A body page that didn't reach the disk before a crash
+            Path segment = directory.resolve("segment-0.dat");
+            byte[] bytes = Files.readAllBytes(segment);
+            int body = new String(bytes, StandardCharsets.ISO_8859_1).indexOf(BODY);
+            bytes[body] = 0;
+            Files.write(segment, bytes);
+
+            try (var disk = DiskCache.builder(directory).segmentBytes(4096).maxBytes(8192).build()) {
+                assertEquals(0, disk.getEntryCount());
+                var httpClient = EasyHttpClient.builder()
+                        .responseCache(ResponseCache.builder().diskCache(disk).build())
+                        .build();
+                assertEquals(BODY, httpClient.send(request).body());
+                assertEquals(2, mockServer.getRequestCount());
+            }
+        }
+    }
+
+    @Test
+    public void sendTest_OldestSegmentEvicted() throws Exception {
+        try (var mockServer = new MockWebServer()) {
+            for (int i = 0; i < 6; i++)
+                mockServer.enqueue(new MockResponse().setBody("x".repeat(600)).setHeader("Cache-Control", "max-age=60"));
+            mockServer.start();
+
+            try (var disk = DiskCache.builder(directory).segmentBytes(1024).maxBytes(2048).build()) {
+                var cache = ResponseCache.builder().maxBytes(1000).maxEntryBytes(100).diskCache(disk).build();
+                var httpClient = EasyHttpClient.builder().responseCache(cache).build();
+
+                for (int i = 0; i < 3; i++)
+                    httpClient.send(EasyHttpRequest.builder(mockServer.url("/" + i).toString()).GET().build());
+
+                assertEquals(2, disk.getSegmentCount());
+                assertEquals(1, disk.getEvictedSegmentCount());
+                assertEquals(2, disk.getEntryCount());
+
+                // Larger than maxEntryBytes, served by the disk
+                httpClient.send(EasyHttpRequest.builder(mockServer.url("/2").toString()).GET().build());
+                assertEquals(3, mockServer.getRequestCount());
+                httpClient.send(EasyHttpRequest.builder(mockServer.url("/0").toString()).GET().build());
+                assertEquals(4, mockServer.getRequestCount());
+            }
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package io.github.urusso.easyhttpclient.cache;
+
+import io.github.urusso.easyhttpclient.EasyHttpClient;
+import io.github.urusso.easyhttpclient.EasyHttpRequest;
+import io.github.urusso.easyhttpclient.dto.SampleResponse;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResponseCacheTest {
+    private static final String BODY = "{\"result\":\"ok\"}";
+
+    @Test
+    public void sendTest_FreshEntryReadAsAnyType() throws Exception {
+        try (var mockServer = new MockWebServer()) {
+            mockServer.enqueue(new MockResponse().setBody(BODY).setHeader("Cache-Control", "max-age=60"));
+            mockServer.start();
+
+            var cache = ResponseCache.builder().build();
+            var httpClient = EasyHttpClient.builder().responseCache(cache).build();
+            var request = EasyHttpRequest.builder(mockServer.url("/config").toString()).GET().build();
+
+            assertEquals(BODY, httpClient.send(request).body());
+            assertEquals(new SampleResponse("ok"), httpClient.send(request, SampleResponse.class).body());
+            assertEquals(new SampleResponse("ok"), httpClient.sendAsync(request, SampleResponse.class).get().body());
+
+            assertEquals(1, mockServer.getRequestCount());
+            assertEquals(2, cache.getHitCount());
+            assertEquals(1, cache.getMissCount());
+        }
+    }
+
+    @Test
+    public void sendTest_RevalidateWithETag() throws Exception {
+        try (var mockServer = new MockWebServer()) {
+            mockServer.enqueue(new MockResponse().setBody(BODY)
+                    .setHeader("Cache-Control", "no-cache")
+                    .setHeader("ETag", "\"v1\""));
+            mockServer.enqueue(new MockResponse().setResponseCode(304).setHeader("ETag", "\"v1\""));
+            mockServer.enqueue(new MockResponse().setBody("{\"result\":\"new\"}").setHeader("ETag", "\"v2\""));
+            mockServer.start();
+
+            var cache = ResponseCache.builder().build();
+            var httpClient = EasyHttpClient.builder().responseCache(cache).build();
+            var request = EasyHttpRequest.builder(mockServer.url("/config").toString()).GET().build();
+
+            assertEquals(BODY, httpClient.send(request).body());
+            var revalidated = httpClient.sendAsync(request, SampleResponse.class).get();
+            assertEquals(200, revalidated.statusCode());
+            assertEquals(new SampleResponse("ok"), revalidated.body());
+            assertEquals(new SampleResponse("new"), httpClient.send(request, SampleResponse.class).body());
+
+            mockServer.takeRequest();
+            assertEquals("\"v1\"", mockServer.takeRequest().getHeader("If-None-Match"));
+            assertEquals("\"v1\"", mockServer.takeRequest().getHeader("If-None-Match"));
+            assertEquals(1, cache.getRevalidatedCount());
+            assertEquals(0, cache.getHitCount());
+        }
+    }
+
+    @Test
+    public void sendTest_NoStoreAndVary() throws Exception {
+        try (var mockServer = new MockWebServer()) {
+            mockServer.enqueue(new MockResponse().setBody("a").setHeader("Cache-Control", "no-store, max-age=60"));
+            mockServer.enqueue(new MockResponse().setBody("b"));
+            mockServer.enqueue(new MockResponse().setBody("en")
+                    .setHeader("Cache-Control", "max-age=60")
+                    .setHeader("Vary", "Accept-Language"));
+            mockServer.enqueue(new MockResponse().setBody("it")
+                    .setHeader("Cache-Control", "max-age=60")
+                    .setHeader("Vary", "Accept-Language"));
+            mockServer.start();
+
+            var cache = ResponseCache.builder().build();
+            var httpClient = EasyHttpClient.builder().responseCache(cache).build();
+            var noStore = EasyHttpRequest.builder(mockServer.url("/no-store").toString()).GET().build();
+            var english = EasyHttpRequest.builder(mockServer.url("/vary").toString())
+                    .GET().header("Accept-Language", "en").build();
+            var italian = EasyHttpRequest.builder(mockServer.url("/vary").toString())
+                    .GET().header("Accept-Language", "it").build();
+
+            assertEquals("a", httpClient.send(noStore).body());
+            assertEquals("b", httpClient.send(noStore).body());
+
+            assertEquals("en", httpClient.send(english).body());
+            assertEquals("it", httpClient.send(italian).body());
+            assertEquals("en", httpClient.send(english).body());
+            assertEquals("it", httpClient.send(italian).body());
+
+            assertEquals(4, mockServer.getRequestCount());
+            assertEquals(2, cache.getEntryCount());
+        }
+    }
+
+    @Test
+    public void sendTest_LeastRecentlyUsedEvicted() throws Exception {
+        try (var mockServer = new MockWebServer()) {
+            for (int i = 0; i < 4; i++)
+                mockServer.enqueue(new MockResponse().setBody("x".repeat(400)).setHeader("Cache-Control", "max-age=60"));
+            mockServer.start();
+
+            var cache = ResponseCache.builder().maxBytes(1200).maxEntryBytes(1000).build();
+            var httpClient = EasyHttpClient.builder().responseCache(cache).build();
+            var first = EasyHttpRequest.builder(mockServer.url("/1").toString()).GET().build();
+            var second = EasyHttpRequest.builder(mockServer.url("/2").toString()).GET().build();
+            var third = EasyHttpRequest.builder(mockServer.url("/3").toString()).GET().build();
+
+            httpClient.send(first);
+            httpClient.send(second);
+            httpClient.send(first);
+            httpClient.send(third);
+
+            assertEquals(1, cache.getEvictionCount());
+            assertTrue(cache.getSize() <= 1200);
+            httpClient.send(first);
+            assertEquals(3, mockServer.getRequestCount());
+
+            // The second one was evicted
+            httpClient.send(second);
+            assertEquals(4, mockServer.getRequestCount());
+            assertEquals(cache.getEntryCount(), cache.getVaryCount());
+
+            cache.invalidate(URI.create(first.getUrl()));
+            cache.invalidate(URI.create(second.getUrl()));
+            cache.invalidate(URI.create(third.getUrl()));
+            assertEquals(0, cache.getEntryCount());
+            assertEquals(0, cache.getVaryCount());
+        }
+    }
+
+    @Test
+    public void sendTest_ResponsesNotStorablePassedThrough() throws Exception {
+        try (var mockServer = new MockWebServer()) {
+            mockServer.enqueue(new MockResponse().setBody("x".repeat(400)).setHeader("Cache-Control", "max-age=60"));
+            mockServer.enqueue(new MockResponse().setBody("small").setHeader("Cache-Control", "max-age=60"));
+            mockServer.start();
+
+            var cache = ResponseCache.builder().maxBytes(1000).maxEntryBytes(100).build();
+            var httpClient = EasyHttpClient.builder().responseCache(cache).build();
+            var large = EasyHttpRequest.builder(mockServer.url("/large").toString()).GET().build();
+            var small = EasyHttpRequest.builder(mockServer.url("/small").toString()).GET().build();
+
+            try (InputStream body = httpClient.send(large, InputStream.class).body()) {
+                assertEquals("x".repeat(400), new String(body.readAllBytes(), StandardCharsets.UTF_8));
+            }
+            assertEquals(0, cache.getEntryCount());
+
+            try (InputStream body = httpClient.send(small, InputStream.class).body()) {
+                assertEquals("small", new String(body.readAllBytes(), StandardCharsets.UTF_8));
+            }
+            assertEquals("small", httpClient.send(small).body());
+            assertEquals(1, cache.getEntryCount());
+            assertEquals(2, mockServer.getRequestCount());
+        }
+    }
+
+    @Test
+    public void sendTest_ChunkedResponsesBufferedUpToLimit() throws Exception {
+        try (var mockServer = new MockWebServer()) {
+            mockServer.enqueue(new MockResponse().setChunkedBody("chunked", 3).setHeader("Cache-Control", "max-age=60"));
+            mockServer.enqueue(new MockResponse().setChunkedBody("y".repeat(400), 32)
+                    .setHeader("Cache-Control", "max-age=60"));
+            mockServer.enqueue(new MockResponse().setChunkedBody("y".repeat(400), 32)
+                    .setHeader("Cache-Control", "max-age=60"));
+            mockServer.start();
+
+            var cache = ResponseCache.builder().maxBytes(1000).maxEntryBytes(100).build();
+            var httpClient = EasyHttpClient.builder().responseCache(cache).build();
+            var chunked = EasyHttpRequest.builder(mockServer.url("/chunked").toString()).GET().build();
+            var large = EasyHttpRequest.builder(mockServer.url("/large").toString()).GET().build();
+
+            // Without Content-Length the body is stored when it fits in an entry
+            assertEquals("chunked", httpClient.send(chunked).body());
+            assertEquals("chunked", httpClient.send(chunked).body());
+            assertEquals(1, cache.getEntryCount());
+
+            // Past the size of an entry, the bytes received so far and the rest reach the caller's handler
+            try (InputStream body = httpClient.send(large, InputStream.class).body()) {
+                assertEquals("y".repeat(400), new String(body.readAllBytes(), StandardCharsets.UTF_8));
+            }
+            assertEquals("y".repeat(400), httpClient.sendAsync(large).get().body());
+            assertEquals(1, cache.getEntryCount());
+            assertEquals(3, mockServer.getRequestCount());
+        }
+    }
+}
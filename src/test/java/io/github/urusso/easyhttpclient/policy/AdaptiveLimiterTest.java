@@ -0,0 +1,144 @@
+package io.github.urusso.easyhttpclient.policy;
+
+import io.github.urusso.easyhttpclient.EasyHttpClient;
+import io.github.urusso.easyhttpclient.EasyHttpRequest;
+import io.github.urusso.easyhttpclient.dto.SampleResponse;
+import io.github.urusso.easyhttpclient.exception.HttpCallException;
+import io.github.urusso.easyhttpclient.exception.LimitExceededException;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.Test;
+
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AdaptiveLimiterTest {
+
+    @Test
+    public void acquireTest_RejectOverLimit() {
+        var limiter = AdaptiveLimiter.of(AimdLimit.builder().initialLimit(2).maxLimit(2).build());
+
+        var first = limiter.acquire();
+        var second = limiter.acquire();
+
+        assertThrows(LimitExceededException.class, limiter::acquire);
+        assertEquals(1, limiter.getRejectedCount());
+
+        first.release();
+        first.onError();
+        assertEquals(1, limiter.getInFlight());
+        assertEquals(2, limiter.getLimit());
+
+        second.onResponse(200);
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    public void updateTest_GradientLimitConverges() {
+        var gradient = GradientLimit.builder().initialLimit(10).maxLimit(100).build();
+        int limit = gradient.getInitialLimit();
+
+        // A single request in flight doesn't use the limit, so it doesn't grow
+        for (int i = 0; i < 20; i++)
+            limit = gradient.update(limit, TimeUnit.MILLISECONDS.toNanos(10), 1, false);
+        assertEquals(10, limit);
+
+        for (int i = 0; i < 200; i++)
+            limit = gradient.update(limit, TimeUnit.MILLISECONDS.toNanos(10), limit, false);
+        assertEquals(100, limit);
+
+        for (int i = 0; i < 20; i++)
+            limit = gradient.update(limit, TimeUnit.MILLISECONDS.toNanos(200), limit, false);
+        int congested = limit;
+        assertTrue(congested < 30, "limit should shrink when latency grows, was " + congested);
+
+        for (int i = 0; i < 20; i++)
+            limit = gradient.update(limit, TimeUnit.MILLISECONDS.toNanos(10), limit, true);
+        assertTrue(limit < congested);
+    }
+
+    @Test
+    public void sendTest_AimdLimitFollowsServerHealth() throws Exception {
+        try (var mockServer = new MockWebServer()) {
+            mockServer.start();
+
+            var limiter = AdaptiveLimiter.of(AimdLimit.builder()
+                    .initialLimit(5)
+                    .maxLimit(20)
+                    .backoffRatio(0.5)
+                    .latencyThreshold(Duration.ofMillis(100))
+                    .build());
+            var httpClient = EasyHttpClient.builder().adaptiveLimiter(limiter).build();
+            var request = EasyHttpRequest.builder(mockServer.url("/test").toString()).GET().build();
+
+            // Sequential requests don't use the limit, so it doesn't grow
+            for (int i = 0; i < 5; i++) {
+                mockServer.enqueue(new MockResponse().setResponseCode(200));
+                assertEquals(200, httpClient.send(request).statusCode());
+            }
+            assertEquals(5, limiter.getLimit());
+
+            // Healthy server under load: the limit grows by one per request using it, up to the max
+            for (int round = 0; round < 10 && limiter.getLimit() < 20; round++)
+                sendConcurrently(mockServer, httpClient, request, limiter.getLimit());
+            assertEquals(20, limiter.getLimit());
+
+            // Slow responses halve it
+            mockServer.enqueue(new MockResponse().setResponseCode(200).setHeadersDelay(150, TimeUnit.MILLISECONDS));
+            httpClient.send(request);
+            assertEquals(10, limiter.getLimit());
+
+            // Overloaded server halves it as well
+            mockServer.enqueue(new MockResponse().setResponseCode(503));
+            assertEquals(503, httpClient.send(request).statusCode());
+            mockServer.enqueue(new MockResponse().setResponseCode(503));
+            httpClient.sendAsync(request).get();
+            assertEquals(2, limiter.getLimit());
+
+            // Recovery under light load stops at twice the requests in flight
+            for (int i = 0; i < 5; i++) {
+                mockServer.enqueue(new MockResponse().setResponseCode(200));
+                httpClient.sendAsync(request).get();
+            }
+            assertEquals(3, limiter.getLimit());
+            assertEquals(0, limiter.getInFlight());
+        }
+    }
+
+    @Test
+    public void sendTest_UndeserializableBodyKeepsLimit() throws Exception {
+        try (var mockServer = new MockWebServer()) {
+            for (int i = 0; i < 2; i++)
+                mockServer.enqueue(new MockResponse().setResponseCode(200).setBody("not json"));
+            mockServer.start();
+
+            var limiter = AdaptiveLimiter.of(AimdLimit.builder().initialLimit(8).maxLimit(8).backoffRatio(0.5).build());
+            var httpClient = EasyHttpClient.builder().adaptiveLimiter(limiter).build();
+            var request = EasyHttpRequest.builder(mockServer.url("/test").toString()).GET().build();
+
+            // The server answered, the body just isn't the expected DTO: no backoff on sync and async calls alike
+            assertThrows(HttpCallException.class, () -> httpClient.send(request, SampleResponse.class));
+            assertThrows(ExecutionException.class, () -> httpClient.sendAsync(request, SampleResponse.class).get());
+            assertEquals(8, limiter.getLimit());
+            assertEquals(0, limiter.getInFlight());
+        }
+    }
+
+    private static void sendConcurrently(MockWebServer mockServer, EasyHttpClient httpClient, EasyHttpRequest request,
+                                         int count) {
+        List<CompletableFuture<HttpResponse<String>>> futures = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            mockServer.enqueue(new MockResponse().setResponseCode(200).setHeadersDelay(30, TimeUnit.MILLISECONDS));
+            futures.add(httpClient.sendAsync(request));
+        }
+        for (var future : futures)
+            assertEquals(200, future.join().statusCode());
+    }
+}
@@ -0,0 +1,123 @@
+package io.github.urusso.easyhttpclient.policy;
+
+import io.github.urusso.easyhttpclient.EasyHttpClient;
+import io.github.urusso.easyhttpclient.EasyHttpRequest;
+import io.github.urusso.easyhttpclient.constant.CircuitState;
+import io.github.urusso.easyhttpclient.dto.SampleResponse;
+import io.github.urusso.easyhttpclient.exception.CircuitOpenException;
+import io.github.urusso.easyhttpclient.exception.HttpCallException;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CircuitBreakerTest {
+    private static final URI HOST_A = URI.create("https://a.org/test");
+
+    @Test
+    public void acquireTest_StateTransitions() throws InterruptedException {
+        var breaker = CircuitBreaker.builder()
+                .minimumCalls(4)
+                .failureRateThreshold(0.5)
+                .openDuration(Duration.ofMillis(100))
+                .halfOpenCalls(2)
+                .build();
+
+        breaker.acquire(HOST_A).onSuccess();
+        breaker.acquire(HOST_A).onSuccess();
+        breaker.acquire(HOST_A).onFailure();
+        assertEquals(CircuitState.CLOSED, breaker.getState("a.org"));
+        breaker.acquire(HOST_A).onFailure();
+        assertEquals(CircuitState.OPEN, breaker.getState("a.org"));
+        assertThrows(CircuitOpenException.class, () -> breaker.acquire(HOST_A));
+
+        Thread.sleep(150);
+        var first = breaker.acquire(HOST_A);
+        var second = breaker.acquire(HOST_A);
+        assertEquals(CircuitState.HALF_OPEN, breaker.getState("a.org"));
+        assertThrows(CircuitOpenException.class, () -> breaker.acquire(HOST_A));
+
+        // A released trial frees its place
+        second.release();
+        second = breaker.acquire(HOST_A);
+        first.onSuccess();
+        second.onFailure();
+        assertEquals(CircuitState.OPEN, breaker.getState("a.org"));
+
+        Thread.sleep(150);
+        breaker.acquire(HOST_A).onSuccess();
+        breaker.acquire(HOST_A).onSuccess();
+        assertEquals(CircuitState.CLOSED, breaker.getState("a.org"));
+        assertEquals(2, breaker.getOpenedCount());
+        assertEquals(2, breaker.getRejectedCount());
+    }
+
+    @Test
+    public void sendTest_OpenCircuitFailsFastPerHost() throws Exception {
+        try (var failing = new MockWebServer(); var healthy = new MockWebServer()) {
+            for (int i = 0; i < 3; i++)
+                failing.enqueue(new MockResponse().setResponseCode(503));
+            failing.enqueue(new MockResponse().setResponseCode(200));
+            healthy.enqueue(new MockResponse().setResponseCode(200));
+            failing.start();
+            healthy.start();
+
+            var breaker = CircuitBreaker.builder()
+                    .minimumCalls(3)
+                    .openDuration(Duration.ofMillis(200))
+                    .halfOpenCalls(1)
+                    .build();
+            var httpClient = EasyHttpClient.builder().circuitBreaker(breaker).build();
+            var request = EasyHttpRequest.builder(failing.url("/test").toString()).GET().build();
+
+            for (int i = 0; i < 3; i++)
+                assertEquals(503, httpClient.send(request).statusCode());
+
+            assertThrows(CircuitOpenException.class, () -> httpClient.send(request));
+            var error = assertThrows(ExecutionException.class, () -> httpClient.sendAsync(request).get());
+            assertInstanceOf(CircuitOpenException.class, error.getCause());
+            assertEquals(3, failing.getRequestCount());
+
+            var other = EasyHttpRequest.builder(healthy.url("/test").toString()).GET().build();
+            assertEquals(200, httpClient.send(other).statusCode());
+
+            Thread.sleep(250);
+            assertEquals(200, httpClient.sendAsync(request).get().statusCode());
+            assertEquals(CircuitState.CLOSED, breaker.getState(failing.url("/").uri().getAuthority()));
+        }
+    }
+
+    @Test
+    public void sendTest_UndeserializableBodyJudgedByStatus() throws IOException {
+        try (var mockServer = new MockWebServer()) {
+            for (int i = 0; i < 2; i++)
+                mockServer.enqueue(new MockResponse().setResponseCode(200).setBody("not json"));
+            for (int i = 0; i < 2; i++)
+                mockServer.enqueue(new MockResponse().setResponseCode(503).setBody("<html>down</html>"));
+            mockServer.start();
+
+            var breaker = CircuitBreaker.builder()
+                    .minimumCalls(2)
+                    .openDuration(Duration.ofMinutes(1))
+                    .build();
+            var httpClient = EasyHttpClient.builder().circuitBreaker(breaker).build();
+            var request = EasyHttpRequest.builder(mockServer.url("/test").toString()).GET().build();
+            String host = mockServer.url("/").uri().getAuthority();
+
+            // A 200 answered with an unexpected body isn't a failure of the host, on sync and async calls alike
+            assertThrows(HttpCallException.class, () -> httpClient.send(request, SampleResponse.class));
+            assertThrows(ExecutionException.class, () -> httpClient.sendAsync(request, SampleResponse.class).get());
+            assertEquals(CircuitState.CLOSED, breaker.getState(host));
+
+            assertThrows(HttpCallException.class, () -> httpClient.send(request, SampleResponse.class));
+            assertThrows(ExecutionException.class, () -> httpClient.sendAsync(request, SampleResponse.class).get());
+            assertEquals(CircuitState.OPEN, breaker.getState(host));
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package io.github.urusso.easyhttpclient.policy;
+
+import io.github.urusso.easyhttpclient.EasyHttpClient;
+import io.github.urusso.easyhttpclient.EasyHttpRequest;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HedgePolicyTest {
+
+    @Test
+    public void hedgeDelayTest_PercentileOfLatency() {
+        var policy = HedgePolicy.builder().delay(Duration.ofMillis(500)).percentile(0.9).window(100).build();
+
+        for (int i = 1; i < 20; i++)
+            policy.recordLatency(TimeUnit.MILLISECONDS.toNanos(i));
+        assertEquals(Duration.ofMillis(500), policy.getHedgeDelay());
+
+        for (int i = 20; i <= 100; i++)
+            policy.recordLatency(TimeUnit.MILLISECONDS.toNanos(i));
+        assertEquals(Duration.ofMillis(90), policy.getHedgeDelay());
+    }
+
+    @Test
+    public void sendTest_HedgeWinsOverSlowAttempt() throws Exception {
+        try (var mockServer = new MockWebServer()) {
+            mockServer.enqueue(new MockResponse().setBody("slow").setHeadersDelay(2, TimeUnit.SECONDS));
+            mockServer.enqueue(new MockResponse().setBody("fast"));
+            mockServer.enqueue(new MockResponse().setBody("slow").setHeadersDelay(2, TimeUnit.SECONDS));
+            mockServer.enqueue(new MockResponse().setBody("fast"));
+            mockServer.enqueue(new MockResponse().setBody("first"));
+            mockServer.start();
+
+            var policy = HedgePolicy.builder().delay(Duration.ofMillis(50)).maxHedgeRatio(1).build();
+            var httpClient = EasyHttpClient.builder().hedgePolicy(policy).build();
+            var request = EasyHttpRequest.builder(mockServer.url("/test").toString()).GET().build();
+
+            long start = System.nanoTime();
+            assertEquals("fast", httpClient.sendAsync(request).get().body());
+            assertEquals("fast", httpClient.send(request).body());
+            assertTrue(System.nanoTime() - start < TimeUnit.SECONDS.toNanos(2));
+
+            // Answered before the delay, no hedge
+            assertEquals("first", httpClient.send(request).body());
+            assertEquals(3, policy.getRequestCount());
+            assertEquals(2, policy.getHedgesSent());
+            assertEquals(2, policy.getHedgesWon());
+        }
+    }
+
+    @Test
+    public void sendTest_HedgeRatioCapAndNonIdempotent() throws Exception {
+        try (var mockServer = new MockWebServer()) {
+            mockServer.setDispatcher(new Dispatcher() {
+                @Override
+                public MockResponse dispatch(RecordedRequest request) {
+                    return new MockResponse().setHeadersDelay(100, TimeUnit.MILLISECONDS);
+                }
+            });
+            mockServer.start();
+
+            var policy = HedgePolicy.builder().delay(Duration.ofMillis(10)).maxHedgeRatio(0.5).build();
+            var httpClient = EasyHttpClient.builder().hedgePolicy(policy).build();
+            var get = EasyHttpRequest.builder(mockServer.url("/test").toString()).GET().build();
+            var post = EasyHttpRequest.builder(mockServer.url("/test").toString()).POST().body("body", String.class).build();
+
+            for (int i = 0; i < 4; i++)
+                assertEquals(200, httpClient.send(get).statusCode());
+            assertEquals(200, httpClient.send(post).statusCode());
+
+            assertEquals(4, policy.getRequestCount());
+            assertEquals(2, policy.getHedgesSent());
+        }
+    }
+}
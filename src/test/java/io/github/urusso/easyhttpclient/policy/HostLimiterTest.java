@@ -0,0 +1,127 @@
+package io.github.urusso.easyhttpclient.policy;
+
+import io.github.urusso.easyhttpclient.EasyHttpClient;
+import io.github.urusso.easyhttpclient.EasyHttpRequest;
+import io.github.urusso.easyhttpclient.exception.LimitExceededException;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.Test;
+
+import java.net.URI;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class HostLimiterTest {
+    private static final URI HOST_A = URI.create("https://a.org/test");
+    private static final URI HOST_B = URI.create("https://b.org/test");
+
+    @Test
+    public void acquireTest_QueueHandOverAndReject() throws InterruptedException {
+        var limiter = HostLimiter.builder().maxInFlightPerHost(1).maxQueuedPerHost(1).build();
+
+        var first = limiter.acquire(HOST_A);
+        var queued = limiter.acquireAsync(HOST_A);
+        var otherHost = limiter.acquireAsync(HOST_B);
+
+        assertFalse(queued.isDone());
+        assertTrue(otherHost.isDone());
+        assertEquals(1, limiter.getQueueDepth("a.org"));
+        assertThrows(LimitExceededException.class, () -> limiter.acquire(HOST_A));
+        assertEquals(1, limiter.getRejectedCount());
+
+        first.release();
+        first.release();
+
+        assertTrue(queued.isDone());
+        assertEquals(0, limiter.getQueueDepth("a.org"));
+        assertEquals(1, limiter.getInFlight("a.org"));
+        assertEquals(1, limiter.getQueuedAcquiredCount());
+
+        queued.join().release();
+        otherHost.join().release();
+        assertEquals(0, limiter.getInFlight("a.org"));
+    }
+
+    @Test
+    public void acquireTest_TimeoutAndCancel() throws InterruptedException {
+        var limiter = HostLimiter.builder().maxInFlightPerHost(1).maxWait(Duration.ofMillis(50)).build();
+
+        var first = limiter.acquire(HOST_A);
+        var cancelled = limiter.acquireAsync(HOST_A);
+        cancelled.cancel(false);
+
+        assertEquals(0, limiter.getQueueDepth("a.org"));
+        assertThrows(LimitExceededException.class, () -> limiter.acquire(HOST_A));
+        assertEquals(1, limiter.getTimedOutCount());
+
+        first.release();
+        assertEquals(0, limiter.getInFlight("a.org"));
+    }
+
+    @Test
+    public void sendTest_ClientCapsInFlightRequests() throws Exception {
+        var inFlight = new AtomicInteger();
+        var maxInFlight = new AtomicInteger();
+
+        try (var mockServer = new MockWebServer()) {
+            mockServer.setDispatcher(new Dispatcher() {
+                @Override
+                public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    Thread.sleep(20);
+                    inFlight.decrementAndGet();
+                    return new MockResponse().setResponseCode(200);
+                }
+            });
+            mockServer.start();
+
+            var limiter = HostLimiter.builder().maxInFlightPerHost(2).build();
+            var httpClient = EasyHttpClient.builder().hostLimiter(limiter).build();
+            var request = EasyHttpRequest.builder(mockServer.url("/test").toString()).GET().build();
+
+            List<CompletableFuture<HttpResponse<String>>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++)
+                futures.add(httpClient.sendAsync(request));
+            for (CompletableFuture<HttpResponse<String>> future : futures)
+                assertEquals(200, future.get().statusCode());
+            assertEquals(200, httpClient.send(request).statusCode());
+
+            assertTrue(maxInFlight.get() <= 2);
+            assertEquals(0, limiter.getTotalQueueDepth());
+        }
+    }
+
+    @Test
+    public void sendAsyncTest_RejectedWhenQueueFull() throws Exception {
+        try (var mockServer = new MockWebServer()) {
+            mockServer.setDispatcher(new Dispatcher() {
+                @Override
+                public MockResponse dispatch(RecordedRequest request) throws InterruptedException {
+                    Thread.sleep(100);
+                    return new MockResponse().setResponseCode(200);
+                }
+            });
+            mockServer.start();
+
+            var limiter = HostLimiter.builder().maxInFlightPerHost(1).maxQueuedPerHost(0).build();
+            var httpClient = EasyHttpClient.builder().hostLimiter(limiter).build();
+            var request = EasyHttpRequest.builder(mockServer.url("/test").toString()).GET().build();
+
+            var first = httpClient.sendAsync(request);
+            var rejected = httpClient.sendAsync(request);
+
+            var error = assertThrows(ExecutionException.class, rejected::get);
+            assertInstanceOf(LimitExceededException.class, error.getCause());
+            assertEquals(200, first.get().statusCode());
+        }
+    }
+}
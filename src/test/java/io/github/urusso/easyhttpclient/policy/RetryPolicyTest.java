@@ -0,0 +1,143 @@
+package io.github.urusso.easyhttpclient.policy;
+
+import io.github.urusso.easyhttpclient.EasyHttpClient;
+import io.github.urusso.easyhttpclient.EasyHttpRequest;
+import io.github.urusso.easyhttpclient.dto.SampleResponse;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.SocketPolicy;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpRequest;
+import java.time.Duration;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RetryPolicyTest {
+
+    @Test
+    public void retryDelayTest_ExponentialBackoff() {
+        var policy = RetryPolicy.builder()
+                .maxAttempts(4)
+                .initialBackoff(Duration.ofMillis(100))
+                .maxBackoff(Duration.ofMillis(300))
+                .jitter(0)
+                .build();
+        var get = HttpRequest.newBuilder(URI.create("https://blabla.org")).GET().build();
+        var post = HttpRequest.newBuilder(URI.create("https://blabla.org")).POST(HttpRequest.BodyPublishers.noBody()).build();
+        var error = new IOException("Connection reset");
+
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(100), policy.retryDelayNanos(get, null, error, 1));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(200), policy.retryDelayNanos(get, null, error, 2));
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(300), policy.retryDelayNanos(get, null, error, 3));
+        assertEquals(-1, policy.retryDelayNanos(get, null, error, 4));
+        assertEquals(-1, policy.retryDelayNanos(get, null, new IllegalStateException(), 1));
+        assertEquals(-1, policy.retryDelayNanos(post, null, error, 1));
+        assertEquals(3, policy.getRetryCount());
+    }
+
+    @Test
+    public void sendTest_RetriesStatusAndConnectionErrors() throws Exception {
+        try (var mockServer = new MockWebServer()) {
+            mockServer.enqueue(new MockResponse().setResponseCode(503));
+            // The HttpClient already retries an idempotent request once when the connection drops
+            mockServer.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AFTER_REQUEST));
+            mockServer.enqueue(new MockResponse().setSocketPolicy(SocketPolicy.DISCONNECT_AFTER_REQUEST));
+            mockServer.enqueue(new MockResponse().setResponseCode(200).setBody("ok"));
+            mockServer.enqueue(new MockResponse().setResponseCode(502));
+            mockServer.enqueue(new MockResponse().setResponseCode(200).setBody("ok"));
+            mockServer.start();
+
+            var policy = RetryPolicy.builder().initialBackoff(Duration.ofMillis(1)).build();
+            var httpClient = EasyHttpClient.builder().retryPolicy(policy).build();
+            var request = EasyHttpRequest.builder(mockServer.url("/test").toString()).GET().build();
+
+            assertEquals("ok", httpClient.send(request).body());
+            assertEquals("ok", httpClient.sendAsync(request).get().body());
+            assertEquals(6, mockServer.getRequestCount());
+            assertEquals(3, policy.getRetryCount());
+        }
+    }
+
+    @Test
+    public void sendTest_BodyErrorsHandledAlikeSyncAndAsync() throws Exception {
+        try (var mockServer = new MockWebServer()) {
+            mockServer.enqueue(new MockResponse().setResponseCode(200).setBody("not json"));
+            mockServer.enqueue(new MockResponse().setResponseCode(200).setBody("not json"));
+            // A retryable status is retried even if its body isn't the JSON of the DTO
+            mockServer.enqueue(new MockResponse().setResponseCode(503).setBody("<html>unavailable</html>"));
+            mockServer.enqueue(new MockResponse().setResponseCode(200).setBody("{\"result\":\"ok\"}"));
+            mockServer.enqueue(new MockResponse().setResponseCode(503).setBody("<html>unavailable</html>"));
+            mockServer.enqueue(new MockResponse().setResponseCode(200).setBody("{\"result\":\"ok\"}"));
+            mockServer.start();
+
+            var policy = RetryPolicy.builder().initialBackoff(Duration.ofMillis(1)).build();
+            var httpClient = EasyHttpClient.builder().retryPolicy(policy).build();
+            var request = EasyHttpRequest.builder(mockServer.url("/test").toString()).GET().build();
+
+            // A malformed body isn't a transport error, it's never retried
+            assertThrows(RuntimeException.class, () -> httpClient.send(request, SampleResponse.class));
+            assertEquals(1, mockServer.getRequestCount());
+            assertThrows(ExecutionException.class, () -> httpClient.sendAsync(request, SampleResponse.class).get());
+            assertEquals(2, mockServer.getRequestCount());
+
+            assertEquals(new SampleResponse("ok"), httpClient.send(request, SampleResponse.class).body());
+            assertEquals(new SampleResponse("ok"), httpClient.sendAsync(request, SampleResponse.class).get().body());
+            assertEquals(6, mockServer.getRequestCount());
+            assertEquals(2, policy.getRetryCount());
+        }
+    }
+
+    @Test
+    public void sendTest_RetryAfterAndNonIdempotent() throws Exception {
+        try (var mockServer = new MockWebServer()) {
+            mockServer.enqueue(new MockResponse().setResponseCode(429).setHeader("Retry-After", "1"));
+            mockServer.enqueue(new MockResponse().setResponseCode(200));
+            mockServer.enqueue(new MockResponse().setResponseCode(503).setHeader("Retry-After", "120"));
+            mockServer.enqueue(new MockResponse().setResponseCode(503));
+            mockServer.start();
+
+            var policy = RetryPolicy.builder().initialBackoff(Duration.ofMillis(1)).build();
+            var httpClient = EasyHttpClient.builder().retryPolicy(policy).build();
+            var get = EasyHttpRequest.builder(mockServer.url("/test").toString()).GET().build();
+            var post = EasyHttpRequest.builder(mockServer.url("/test").toString()).POST().body("body", String.class).build();
+
+            long start = System.nanoTime();
+            assertEquals(200, httpClient.send(get).statusCode());
+            assertTrue(System.nanoTime() - start >= TimeUnit.SECONDS.toNanos(1));
+
+            // Longer than maxRetryAfter
+            assertEquals(503, httpClient.send(get).statusCode());
+            assertEquals(503, httpClient.send(post).statusCode());
+            assertEquals(4, mockServer.getRequestCount());
+            assertEquals(1, policy.getRetryCount());
+        }
+    }
+
+    @Test
+    public void sendAsyncTest_BudgetExhausted() throws Exception {
+        try (var mockServer = new MockWebServer()) {
+            for (int i = 0; i < 5; i++)
+                mockServer.enqueue(new MockResponse().setResponseCode(503));
+            mockServer.start();
+
+            var policy = RetryPolicy.builder()
+                    .initialBackoff(Duration.ofMillis(1))
+                    .maxAttempts(5)
+                    .budget(RetryBudget.of(0.01, 2))
+                    .build();
+            var httpClient = EasyHttpClient.builder().retryPolicy(policy).build();
+            var request = EasyHttpRequest.builder(mockServer.url("/test").toString()).GET().build();
+
+            assertEquals(503, httpClient.sendAsync(request).get().statusCode());
+            assertEquals(3, mockServer.getRequestCount());
+            assertEquals(2, policy.getRetryCount());
+            assertEquals(1, policy.getBudgetExhaustedCount());
+            assertEquals(0, policy.getBudget().getAvailableTokens());
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package io.github.urusso.easyhttpclient.serializer;
+
+import io.github.urusso.easyhttpclient.EasyType;
+import io.github.urusso.easyhttpclient.dto.SampleRequest;
+import io.github.urusso.easyhttpclient.dto.SampleResponse;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EasyCborSerializerTest {
+    private final EasyCborSerializer serializer = new EasyCborSerializer();
+
+    @Test
+    public void roundTripTest_Bytes() throws IOException {
+        byte[] bytes = serializer.serializeToBytes(new SampleResponse("OK"));
+
+        assertEquals(new SampleResponse("OK"), serializer.deserialize(bytes, SampleResponse.class));
+        assertEquals("application/cbor", serializer.contentType());
+    }
+
+    @Test
+    public void roundTripTest_Stream() throws IOException {
+        var out = new ByteArrayOutputStream();
+        serializer.serialize(new SampleRequest("test"), out);
+        out.write(0);
+
+        var in = new ByteArrayInputStream(out.toByteArray());
+        assertEquals(new SampleRequest("test"), serializer.deserialize(in, SampleRequest.class));
+        assertNull(serializer.deserialize(new ByteArrayInputStream(new byte[0]), SampleRequest.class));
+    }
+
+    @Test
+    public void roundTripTest_GenericTypes() throws IOException {
+        Map<String, List<SampleResponse>> value = Map.of("it", List.of(new SampleResponse("a"), new SampleResponse("b")));
+        var type = new EasyType<Map<String, List<SampleResponse>>>() {}.getType();
+
+        byte[] bytes = serializer.serializeToBytes(value);
+
+        Map<String, List<SampleResponse>> read = serializer.deserialize(new ByteArrayInputStream(bytes), type);
+        assertEquals(value, read);
+    }
+
+    @Test
+    public void roundTripTest_Elements() throws IOException {
+        List<SampleResponse> list = new ArrayList<>();
+        for (int i = 0; i < 1000; i++)
+            list.add(new SampleResponse("value-" + i));
+
+        byte[] bytes = serializer.serializeToBytes(list);
+
+        List<SampleResponse> read = new ArrayList<>();
+        serializer.deserializeElements(new ByteArrayInputStream(bytes), SampleResponse.class).forEachRemaining(read::add);
+        assertEquals(list, read);
+        assertTrue(bytes.length < new EasyJacksonSerializer().serializeToBytes(list).length);
+    }
+}
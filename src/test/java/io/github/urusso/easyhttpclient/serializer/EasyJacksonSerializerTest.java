@@ -0,0 +1,98 @@
+package io.github.urusso.easyhttpclient.serializer;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import io.github.urusso.easyhttpclient.EasyType;
+import io.github.urusso.easyhttpclient.dto.SampleRequest;
+import io.github.urusso.easyhttpclient.dto.SampleResponse;
+import io.github.urusso.easyhttpclient.interfaces.EasySerializer;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EasyJacksonSerializerTest {
+    private final EasyJacksonSerializer serializer = new EasyJacksonSerializer();
+
+    @Test
+    public void deserializeTest_InputStream() throws IOException {
+        var stream = new ByteArrayInputStream("{\"result\": \"OK\"}".getBytes(StandardCharsets.UTF_8));
+
+        SampleResponse response = serializer.deserialize(stream, SampleResponse.class);
+
+        assertEquals("OK", response.result());
+    }
+
+    @Test
+    public void deserializeTest_Bytes() throws IOException {
+        String[] response = serializer.deserialize("[\"1\", \"2\"]".getBytes(StandardCharsets.UTF_8), String[].class);
+
+        assertArrayEquals(new String[]{"1", "2"}, response);
+    }
+
+    @Test
+    public void deserializeTest_GenericType() throws IOException {
+        Type type = new EasyType<List<SampleResponse>>() {}.getType();
+        var stream = new ByteArrayInputStream("[{\"result\": \"OK\"}]".getBytes(StandardCharsets.UTF_8));
+
+        List<SampleResponse> response = serializer.deserialize(stream, type);
+
+        assertEquals(List.of(new SampleResponse("OK")), response);
+        assertNull(serializer.deserialize(new ByteArrayInputStream(new byte[0]), type));
+    }
+
+    @Test
+    public void builderTest_ConfiguredMapperAndWarmUp() throws IOException {
+        var module = new SimpleModule().addSerializer(SampleRequest.class, new JsonSerializer<>() {
+            @Override
+            public void serialize(SampleRequest value, JsonGenerator generator, SerializerProvider provider)
+                    throws IOException {
+                generator.writeString(value.username());
+            }
+        });
+        EasySerializer configured = EasyJacksonSerializer.builder()
+                .module(module)
+                .configure(mapper -> mapper.disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES))
+                .warmUp(SampleRequest.class, SampleResponse.class)
+                .build();
+        configured.warmUp(SampleResponse.class);
+
+        assertEquals("\"test\"", configured.serialize(new SampleRequest("test")));
+        assertEquals(new SampleResponse("OK"), configured.deserialize("{\"result\":\"OK\",\"other\":1}", SampleResponse.class));
+        assertThrows(IOException.class, () -> serializer.deserialize("{\"result\":\"OK\",\"other\":1}", SampleResponse.class));
+    }
+
+    @Test
+    public void deserializeTest_BlankBody() throws IOException {
+        assertNull(serializer.deserialize(new ByteArrayInputStream(new byte[0]), SampleResponse.class));
+        assertNull(serializer.deserialize(" \n ".getBytes(StandardCharsets.UTF_8), SampleResponse.class));
+    }
+
+    @Test
+    public void deserializeTest_StringOnlySerializer() throws IOException {
+        EasySerializer stringOnly = new EasySerializer() {
+            @Override
+            public <T> String serialize(T object) throws IOException {
+                return serializer.serialize(object);
+            }
+
+            @Override
+            public <T> T deserialize(String data, Class<T> clazz) throws IOException {
+                return serializer.deserialize(data, clazz);
+            }
+        };
+
+        var stream = new ByteArrayInputStream("{\"result\": \"OK\"}".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("OK", stringOnly.deserialize(stream, SampleResponse.class).result());
+        assertNull(stringOnly.deserialize(new ByteArrayInputStream(new byte[0]), SampleResponse.class));
+    }
+}
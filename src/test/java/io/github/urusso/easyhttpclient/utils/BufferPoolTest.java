@@ -0,0 +1,195 @@
+package io.github.urusso.easyhttpclient.utils;
+
+import io.github.urusso.easyhttpclient.EasyHttpClient;
+import io.github.urusso.easyhttpclient.EasyHttpRequest;
+import io.github.urusso.easyhttpclient.dto.SampleRequest;
+import io.github.urusso.easyhttpclient.dto.SampleResponse;
+import io.github.urusso.easyhttpclient.policy.RetryPolicy;
+import io.github.urusso.easyhttpclient.serializer.EasyJacksonSerializer;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BufferPoolTest {
+
+    @Test
+    public void acquireTest_SizeClassesReused() {
+        var pool = BufferPool.builder().minBufferSize(1024).maxBufferSize(16 * 1024).build();
+
+        ByteBuffer buffer = pool.acquire(3000);
+        assertEquals(4096, buffer.capacity());
+        assertEquals(16 * 1024, pool.acquire(1_000_000).capacity());
+        assertEquals(1024, pool.acquire(1).capacity());
+
+        buffer.put((byte) 1);
+        pool.release(buffer);
+        ByteBuffer reused = pool.acquire(2049);
+        assertSame(buffer, reused);
+        assertEquals(0, reused.position());
+        assertEquals(3, pool.getAllocationCount());
+
+        pool.release(ByteBuffer.allocate(3000));
+        pool.release(ByteBuffer.allocateDirect(4096));
+        assertNotSame(buffer, pool.acquire(4096));
+        assertEquals(4, pool.getAllocationCount());
+    }
+
+    @Test
+    public void releaseTest_SharedQueueBounded() throws Exception {
+        var pool = BufferPool.builder().threadCacheBuffers(0).maxPooledBuffers(1).direct().build();
+        ByteBuffer first = pool.acquire(4096);
+        ByteBuffer second = pool.acquire(4096);
+        assertTrue(first.isDirect());
+
+        pool.release(first);
+        pool.release(second);
+
+        ByteBuffer[] acquired = new ByteBuffer[2];
+        Thread thread = Thread.ofPlatform().start(() -> {
+            acquired[0] = pool.acquire(4096);
+            acquired[1] = pool.acquire(4096);
+        });
+        thread.join();
+
+        assertSame(first, acquired[0]);
+        assertNotSame(second, acquired[1]);
+        assertEquals(3, pool.getAllocationCount());
+    }
+
+    @Test
+    public void builderTest_InvalidSizes() {
+        assertThrows(IllegalArgumentException.class, () -> BufferPool.builder().minBufferSize(3000).build());
+        assertThrows(IllegalArgumentException.class,
+                () -> BufferPool.builder().minBufferSize(8192).maxBufferSize(4096).build());
+        assertThrows(IllegalArgumentException.class, () -> BufferPool.builder().maxPooledBuffers(-1).build());
+    }
+
+    @Test
+    public void sendTest_PooledBodyReleasedOnClose() throws Exception {
+        String large = "x".repeat(100_000);
+        try (var mockServer = new MockWebServer()) {
+            mockServer.enqueue(new MockResponse().setBody(large));
+            mockServer.enqueue(new MockResponse().setBody(large));
+            mockServer.enqueue(new MockResponse().setBody("{\"result\":\"ok\"}"));
+            mockServer.start();
+
+            var pool = BufferPool.builder().maxBufferSize(16 * 1024).threadCacheBuffers(0).build();
+            var httpClient = EasyHttpClient.builder().bufferPool(pool).build();
+            var request = EasyHttpRequest.builder(mockServer.url("/large").toString()).GET().build();
+
+            PooledBody body = httpClient.send(request, PooledBody.class).body();
+            assertEquals(100_000, body.size());
+            assertEquals(large, body.asString());
+            assertTrue(body.buffers().size() > 1);
+            assertTrue(body.buffers().stream().allMatch(ByteBuffer::isReadOnly));
+            long allocations = pool.getAllocationCount();
+            body.close();
+            body.close();
+            assertThrows(IllegalStateException.class, body::toByteArray);
+
+            try (PooledBody again = httpClient.send(request, PooledBody.class).body()) {
+                assertArrayEquals(large.getBytes(), again.toByteArray());
+            }
+            assertEquals(allocations, pool.getAllocationCount());
+
+            try (PooledBody json = httpClient.send(request, PooledBody.class).body()) {
+                var response = new EasyJacksonSerializer().deserialize(json.inputStream(), SampleResponse.class);
+                assertEquals(new SampleResponse("ok"), response);
+            }
+        }
+    }
+
+    @Test
+    public void sendTest_RequestBodySerializedIntoPool() throws Exception {
+        try (var mockServer = new MockWebServer()) {
+            mockServer.enqueue(new MockResponse().setResponseCode(503));
+            mockServer.enqueue(new MockResponse());
+            mockServer.start();
+
+            var pool = BufferPool.builder().minBufferSize(16).maxBufferSize(16).build();
+            var httpClient = EasyHttpClient.builder()
+                    .bufferPool(pool)
+                    .retryPolicy(RetryPolicy.builder().initialBackoff(Duration.ofMillis(1)).build())
+                    .build();
+            var request = EasyHttpRequest.builder(mockServer.url("/users").toString())
+                    .PUT()
+                    .body(new SampleRequest("a-long-enough-username"), SampleRequest.class)
+                    .build();
+
+            assertEquals(200, httpClient.send(request).statusCode());
+
+            String expected = "{\"username\":\"a-long-enough-username\"}";
+            for (int i = 0; i < 2; i++) {
+                var recorded = mockServer.takeRequest();
+                assertEquals(String.valueOf(expected.length()), recorded.getHeader("Content-Length"));
+                assertEquals(expected, recorded.getBody().readUtf8());
+            }
+            assertTrue(pool.getAllocationCount() >= 3);
+        }
+    }
+
+    @Test
+    public void sendTest_RequestBodyReleasedWhenSent() throws Exception {
+        try (var mockServer = new MockWebServer()) {
+            for (int i = 0; i < 3; i++)
+                mockServer.enqueue(new MockResponse());
+            mockServer.start();
+
+            var pool = BufferPool.builder().minBufferSize(16).maxBufferSize(16).threadCacheBuffers(0).build();
+            var httpClient = EasyHttpClient.builder().bufferPool(pool).build();
+            var request = EasyHttpRequest.builder(mockServer.url("/users").toString())
+                    .PUT()
+                    .body(new SampleRequest("a-long-enough-username"), SampleRequest.class)
+                    .build();
+
+            // The buffers of the first body are back in the pool as soon as the call returns, without a GC
+            assertEquals(200, httpClient.send(request).statusCode());
+            long allocations = pool.getAllocationCount();
+            assertEquals(200, httpClient.send(request).statusCode());
+            assertEquals(200, httpClient.send(request).statusCode());
+            assertEquals(allocations, pool.getAllocationCount());
+
+            String expected = "{\"username\":\"a-long-enough-username\"}";
+            for (int i = 0; i < 3; i++)
+                assertEquals(expected, mockServer.takeRequest().getBody().readUtf8());
+        }
+    }
+
+    @Test
+    public void leakDetectionTest_UnclosedBodyReported() throws Exception {
+        var pool = BufferPool.builder().leakDetection().build();
+        var subscriber = new PooledBodySubscriber(pool, -1);
+        subscriber.onNext(List.of(ByteBuffer.wrap(new byte[]{1, 2, 3})));
+        subscriber.onComplete();
+        assertEquals(3, subscriber.getBody().toCompletableFuture().get().size());
+        subscriber = null;
+
+        for (int i = 0; i < 50 && pool.getLeakCount() == 0; i++) {
+            System.gc();
+            Thread.sleep(100);
+        }
+        assertEquals(1, pool.getLeakCount());
+    }
+
+    @Test
+    public void leakDetectionTest_ClosedBodyNotReported() throws Exception {
+        var pool = BufferPool.builder().leakDetection().build();
+        var subscriber = new PooledBodySubscriber(pool, 3);
+        subscriber.onNext(List.of(ByteBuffer.wrap(new byte[]{1, 2, 3})));
+        subscriber.onComplete();
+        subscriber.getBody().toCompletableFuture().get().close();
+        subscriber = null;
+
+        for (int i = 0; i < 5; i++) {
+            System.gc();
+            Thread.sleep(20);
+        }
+        assertEquals(0, pool.getLeakCount());
+    }
+}
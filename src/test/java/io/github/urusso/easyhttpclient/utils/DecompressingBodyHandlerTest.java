@@ -0,0 +1,153 @@
+package io.github.urusso.easyhttpclient.utils;
+
+import io.github.urusso.easyhttpclient.EasyHttpClient;
+import io.github.urusso.easyhttpclient.EasyHttpRequest;
+import io.github.urusso.easyhttpclient.dto.SampleResponse;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okio.Buffer;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Flow;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class DecompressingBodyHandlerTest {
+    private static final String BODY = "{\"result\":\"ok\"}";
+
+    @Test
+    public void sendTest_GzipDecodedForEveryType() throws Exception {
+        try (var mockServer = new MockWebServer()) {
+            for (int i = 0; i < 5; i++)
+                mockServer.enqueue(compressed(gzip(BODY), "gzip"));
+            mockServer.start();
+
+            var httpClient = EasyHttpClient.builder().decompressResponses().build();
+            var request = EasyHttpRequest.builder(mockServer.url("/config").toString()).GET().build();
+
+            assertEquals(BODY, httpClient.send(request).body());
+            assertArrayEquals(BODY.getBytes(StandardCharsets.UTF_8), httpClient.send(request, byte[].class).body());
+            assertEquals(new SampleResponse("ok"), httpClient.sendAsync(request, SampleResponse.class).get().body());
+            try (InputStream body = httpClient.send(request, InputStream.class).body()) {
+                assertEquals(BODY, new String(body.readAllBytes(), StandardCharsets.UTF_8));
+            }
+            Path file = httpClient.send(request, Path.class).body();
+            assertEquals(BODY, Files.readString(file));
+            Files.deleteIfExists(file);
+
+            assertEquals("gzip, deflate", mockServer.takeRequest().getHeader("Accept-Encoding"));
+        }
+    }
+
+    @Test
+    public void sendTest_DeflateAndRequestEncodingKept() throws Exception {
+        try (var mockServer = new MockWebServer()) {
+            mockServer.enqueue(compressed(deflate(BODY), "deflate"));
+            mockServer.enqueue(new MockResponse().setBody(BODY));
+            mockServer.start();
+
+            var httpClient = EasyHttpClient.builder().decompressResponses().build();
+            var deflated = EasyHttpRequest.builder(mockServer.url("/deflate").toString()).GET()
+                    .acceptEncoding("deflate").build();
+            var identity = EasyHttpRequest.builder(mockServer.url("/identity").toString()).GET().build();
+
+            assertEquals(BODY, httpClient.send(deflated).body());
+            assertEquals(BODY, httpClient.send(identity).body());
+            assertEquals("deflate", mockServer.takeRequest().getHeader("Accept-Encoding"));
+        }
+    }
+
+    @Test
+    public void handlerTest_HeaderSplitAcrossChunks() throws Exception {
+        String large = "x".repeat(100_000) + BODY;
+        byte[] gzip = gzip(large);
+
+        var subscriber = subscriber(HttpResponse.BodyHandlers.ofString(), "gzip");
+        subscriber.onSubscribe(new NoSubscription());
+        // One byte per chunk through the header, then a large chunk
+        for (int i = 0; i < 12; i++)
+            subscriber.onNext(List.of(ByteBuffer.wrap(gzip, i, 1)));
+        subscriber.onNext(List.of(ByteBuffer.wrap(gzip, 12, gzip.length - 12)));
+        subscriber.onComplete();
+
+        assertEquals(large, subscriber.getBody().toCompletableFuture().get());
+    }
+
+    @Test
+    public void handlerTest_TruncatedBodyFails() throws Exception {
+        byte[] gzip = gzip(BODY);
+
+        var subscriber = subscriber(HttpResponse.BodyHandlers.ofString(), "gzip");
+        subscriber.onSubscribe(new NoSubscription());
+        subscriber.onNext(List.of(ByteBuffer.wrap(gzip, 0, gzip.length - 4)));
+        subscriber.onComplete();
+
+        var error = assertThrows(ExecutionException.class, () -> subscriber.getBody().toCompletableFuture().get());
+        assertInstanceOf(IOException.class, error.getCause());
+    }
+
+    private static <T> HttpResponse.BodySubscriber<T> subscriber(HttpResponse.BodyHandler<T> handler, String encoding) {
+        var headers = HttpHeaders.of(Map.of("Content-Encoding", List.of(encoding)), (name, value) -> true);
+        return DecompressingBodyHandler.of(handler).apply(new HttpResponse.ResponseInfo() {
+            @Override
+            public int statusCode() {
+                return 200;
+            }
+
+            @Override
+            public HttpHeaders headers() {
+                return headers;
+            }
+
+            @Override
+            public HttpClient.Version version() {
+                return HttpClient.Version.HTTP_1_1;
+            }
+        });
+    }
+
+    private static MockResponse compressed(byte[] body, String encoding) throws IOException {
+        try (var buffer = new Buffer()) {
+            return new MockResponse().setBody(buffer.write(body)).setHeader("Content-Encoding", encoding);
+        }
+    }
+
+    private static byte[] gzip(String body) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        try (var gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+
+    private static byte[] deflate(String body) throws IOException {
+        var bytes = new ByteArrayOutputStream();
+        try (var deflate = new DeflaterOutputStream(bytes)) {
+            deflate.write(body.getBytes(StandardCharsets.UTF_8));
+        }
+        return bytes.toByteArray();
+    }
+
+    private static final class NoSubscription implements Flow.Subscription {
+        @Override
+        public void request(long n) {}
+
+        @Override
+        public void cancel() {}
+    }
+}
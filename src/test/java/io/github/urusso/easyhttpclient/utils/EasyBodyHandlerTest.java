@@ -0,0 +1,191 @@
+package io.github.urusso.easyhttpclient.utils;
+
+import io.github.urusso.easyhttpclient.EasyHttpClient;
+import io.github.urusso.easyhttpclient.EasyHttpRequest;
+import io.github.urusso.easyhttpclient.dto.Body;
+import io.github.urusso.easyhttpclient.dto.SampleRequest;
+import io.github.urusso.easyhttpclient.serializer.EasyJacksonSerializer;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Flow;
+import java.util.concurrent.SubmissionPublisher;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class EasyBodyHandlerTest {
+    private final EasyBodyHandler bodyHandler = new EasyBodyHandler(new EasyJacksonSerializer());
+
+    @Test
+    public void requestBodyTest_SerializedToBytes() {
+        var body = new Body(new SampleRequest("test"), SampleRequest.class);
+        int expectedLength = "{\"username\":\"test\"}".getBytes(StandardCharsets.UTF_8).length;
+
+        var publisher = bodyHandler.getRequestBodyPublisher(body);
+
+        assertEquals(expectedLength, publisher.contentLength());
+        assertEquals("application/json", bodyHandler.getRequestContentType(body));
+    }
+
+    @Test
+    public void requestBodyTest_RawBodyHasNoContentType() {
+        assertNull(bodyHandler.getRequestContentType(new Body("raw", String.class)));
+        assertNull(bodyHandler.getRequestContentType(new Body(new byte[0], byte[].class)));
+        assertNull(bodyHandler.getRequestContentType(null));
+    }
+
+    @Test
+    public void requestBodyTest_CompressedOverThreshold() throws Exception {
+        String large = "{\"username\":\"" + "a".repeat(10_000) + "\"}";
+
+        var small = bodyHandler.getRequestBody(new Body(new SampleRequest("test"), SampleRequest.class), 1024);
+        var compressed = bodyHandler.getRequestBody(new Body(large, String.class), 1024);
+        var never = bodyHandler.getRequestBody(new Body(large, String.class), -1);
+
+        assertNull(small.contentEncoding());
+        assertEquals("{\"username\":\"test\"}".length(), small.publisher().contentLength());
+        assertNull(never.contentEncoding());
+        assertEquals(large.length(), never.publisher().contentLength());
+
+        assertEquals("gzip", compressed.contentEncoding());
+        assertTrue(compressed.publisher().contentLength() < 1024);
+        assertEquals(large, gunzip(read(compressed.publisher())));
+    }
+
+    @Test
+    public void sendTest_LargeBodySentCompressed() throws Exception {
+        try (var mockServer = new MockWebServer()) {
+            mockServer.enqueue(new MockResponse());
+            mockServer.enqueue(new MockResponse());
+            mockServer.start();
+
+            var httpClient = EasyHttpClient.builder().compressRequests(1024).build();
+            var large = new SampleRequest("a".repeat(50_000));
+            httpClient.send(EasyHttpRequest.builder(mockServer.url("/ingest").toString()).POST()
+                    .body(large, SampleRequest.class).build());
+            httpClient.send(EasyHttpRequest.builder(mockServer.url("/ingest").toString()).POST()
+                    .body(large, SampleRequest.class).compressBody(-1).build());
+
+            var compressed = mockServer.takeRequest();
+            assertEquals("gzip", compressed.getHeader("Content-Encoding"));
+            assertEquals("application/json", compressed.getHeader("Content-Type"));
+            assertTrue(compressed.getBodySize() < 1024);
+            assertEquals("{\"username\":\"" + large.username() + "\"}", gunzip(compressed.getBody().readByteArray()));
+
+            var plain = mockServer.takeRequest();
+            assertNull(plain.getHeader("Content-Encoding"));
+            assertTrue(plain.getBodySize() > 50_000);
+        }
+    }
+
+    @Test
+    public void requestBodyTest_ByteBufferSlicesPublishedAgainOnRetry() {
+        byte[] bytes = new byte[200_000];
+        new Random(7).nextBytes(bytes);
+        var buffer = ByteBuffer.allocateDirect(bytes.length + 10).put(new byte[10]).put(bytes).position(10);
+
+        var publisher = bodyHandler.getRequestBodyPublisher(new Body(buffer, ByteBuffer.class));
+
+        assertEquals(bytes.length, publisher.contentLength());
+        assertArrayEquals(bytes, read(publisher));
+        assertArrayEquals(bytes, read(publisher));
+        assertEquals(10, buffer.position());
+        assertNull(bodyHandler.getRequestContentType(new Body(buffer, ByteBuffer.class)));
+    }
+
+    @Test
+    public void requestBodyTest_FileChannelFromItsPosition(@TempDir Path directory) throws Exception {
+        byte[] bytes = new byte[300_000];
+        new Random(11).nextBytes(bytes);
+        Path file = Files.write(directory.resolve("upload.bin"), bytes);
+
+        try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            channel.position(1000);
+            var publisher = bodyHandler.getRequestBodyPublisher(new Body(channel, FileChannel.class));
+
+            assertEquals(bytes.length - 1000, publisher.contentLength());
+            assertArrayEquals(Arrays.copyOfRange(bytes, 1000, bytes.length), read(publisher));
+            assertEquals(1000, channel.position());
+        }
+    }
+
+    @Test
+    public void sendTest_PublisherStreamedWhileProduced() throws Exception {
+        try (var mockServer = new MockWebServer()) {
+            mockServer.enqueue(new MockResponse());
+            mockServer.start();
+
+            var httpClient = EasyHttpClient.builder().build();
+            CompletableFuture<HttpResponse<Void>> response;
+            // Closing the producer ends the body
+            try (var producer = new SubmissionPublisher<ByteBuffer>()) {
+                response = httpClient.sendAsync(EasyHttpRequest.builder(mockServer.url("/ingest").toString()).POST()
+                        .body(producer, Flow.Publisher.class).build(), Void.class);
+
+                // SubmissionPublisher drops the items submitted before the upload subscribes
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+                while (producer.getNumberOfSubscribers() == 0 && System.nanoTime() < deadline)
+                    Thread.sleep(5);
+                for (int i = 0; i < 100; i++)
+                    producer.submit(ByteBuffer.wrap(("line " + i + "\n").getBytes(StandardCharsets.UTF_8)));
+            }
+            response.get();
+
+            var recorded = mockServer.takeRequest();
+            assertEquals("chunked", recorded.getHeader("Transfer-Encoding"));
+            String body = recorded.getBody().readUtf8();
+            assertTrue(body.startsWith("line 0\n"));
+            assertTrue(body.endsWith("line 99\n"));
+        }
+    }
+
+    private static byte[] read(HttpRequest.BodyPublisher publisher) {
+        var subscriber = HttpResponse.BodySubscribers.ofByteArray();
+        publisher.subscribe(new Flow.Subscriber<>() {
+            @Override
+            public void onSubscribe(Flow.Subscription subscription) {
+                subscriber.onSubscribe(subscription);
+            }
+
+            @Override
+            public void onNext(ByteBuffer item) {
+                subscriber.onNext(List.of(item));
+            }
+
+            @Override
+            public void onError(Throwable throwable) {
+                subscriber.onError(throwable);
+            }
+
+            @Override
+            public void onComplete() {
+                subscriber.onComplete();
+            }
+        });
+        return subscriber.getBody().toCompletableFuture().join();
+    }
+
+    private static String gunzip(byte[] bytes) throws IOException {
+        try (var gzip = new GZIPInputStream(new ByteArrayInputStream(bytes))) {
+            return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package io.github.urusso.easyhttpclient.utils;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UriEncoderTest {
+    private static final String[] SAMPLES = {"plain", "mario rossi", "a&b=c", "100%", "a/b", "a+b", "x#y",
+            "caffè", "日本語", "emoji 😀", "{id}", "\"quoted\"", "tab\tnewline\n"};
+
+    @ParameterizedTest
+    @ValueSource(strings = {"plain", "Plain-Value_1.0", "0123456789"})
+    public void encodeTest_FastPathReturnsSameInstance(String value) {
+        assertSame(value, UriEncoder.encodePathSegment(value));
+        assertSame(value, UriEncoder.encodeQueryComponent(value));
+        assertSame(value, UriEncoder.encodeFragment(value));
+    }
+
+    @Test
+    public void encodeTest_QueryMatchesPreviousEncoder() {
+        // The previous encoder escaped everything but "-._*", the new one leaves the characters legal in a query
+        for (String sample : SAMPLES) {
+            if (sample.chars().anyMatch(c -> "!$'()*,;:@/?~".indexOf(c) >= 0))
+                continue;
+
+            String previous = URLEncoder.encode(sample, StandardCharsets.UTF_8).replace("+", "%20");
+            assertEquals(previous, UriEncoder.encodeQueryComponent(sample), sample);
+        }
+    }
+
+    @Test
+    public void encodeTest_RoundTrip() {
+        for (String sample : SAMPLES) {
+            assertEquals(sample, decode(UriEncoder.encodePathSegment(sample)), sample);
+            assertEquals(sample, decode(UriEncoder.encodeQueryComponent(sample)), sample);
+            assertEquals(sample, decode(UriEncoder.encodeFragment(sample)), sample);
+        }
+    }
+
+    @Test
+    public void encodeTest_ComponentRules() {
+        assertEquals("a%2Fb", UriEncoder.encodePathSegment("a/b"));
+        assertEquals("a+b=c@d", UriEncoder.encodePathSegment("a+b=c@d"));
+        assertEquals("a%2Bb%3Dc%26d", UriEncoder.encodeQueryComponent("a+b=c&d"));
+        assertEquals("a/b?c", UriEncoder.encodeQueryComponent("a/b?c"));
+        assertEquals("sec%231/a?b", UriEncoder.encodeFragment("sec#1/a?b"));
+        assertEquals("~tilde", UriEncoder.encodePathSegment("~tilde"));
+    }
+
+    /**
+     * Percent-decoding only, '+' is left as it is
+     */
+    private static String decode(String encoded) {
+        var bytes = new ByteArrayOutputStream();
+        for (int i = 0; i < encoded.length(); i++) {
+            char c = encoded.charAt(i);
+            if (c == '%') {
+                bytes.write(Integer.parseInt(encoded.substring(i + 1, i + 3), 16));
+                i += 2;
+            } else {
+                bytes.write(c);
+            }
+        }
+        return bytes.toString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,51 @@
+package io.github.urusso.easyhttpclient.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class UrlTemplateTest {
+
+    @Test
+    public void expandTest_PathQueryFragment() {
+        var queryParams = new LinkedHashMap<String, String>();
+        queryParams.put("findDeleted", "true");
+        queryParams.put("name", "mario rossi");
+
+        var uri = UrlTemplate.of("https://blabla.org/countries/{country}/users/{user}//")
+                .expand(Map.of("country", "italy", "user", "0 1"), queryParams, "test 2");
+
+        assertEquals("https://blabla.org/countries/italy/users/0%201?findDeleted=true&name=mario%20rossi#test%202",
+                uri.toString());
+    }
+
+    @Test
+    public void expandTest_RepeatedPlaceholder() {
+        var uri = UrlTemplate.of("https://blabla.org/{id}/copy/{id}")
+                .expand(Map.of("id", "1"), Map.of(), null);
+
+        assertEquals("https://blabla.org/1/copy/1", uri.toString());
+    }
+
+    @Test
+    public void expandTest_MissingPathParamIsMalformed() {
+        var template = UrlTemplate.of("https://blabla.org/users/{user}");
+
+        assertThrows(IllegalArgumentException.class, () -> template.expand(Map.of(), Map.of(), null));
+    }
+
+    @Test
+    public void cacheTest_SameInstanceAndBounded() {
+        assertSame(UrlTemplate.of("https://blabla.org/cached/{id}"), UrlTemplate.of("https://blabla.org/cached/{id}"));
+
+        for (int i = 0; i < UrlTemplate.MAX_CACHED_TEMPLATES * 2; i++)
+            UrlTemplate.of("https://blabla.org/users/" + i);
+
+        assertTrue(UrlTemplate.cacheSize() <= UrlTemplate.MAX_CACHED_TEMPLATES);
+        // A full cache keeps the templates already cached
+        assertSame(UrlTemplate.of("https://blabla.org/cached/{id}"), UrlTemplate.of("https://blabla.org/cached/{id}"));
+    }
+}